@@ -0,0 +1,184 @@
+package com.openclassrooms.mddapi;
+
+import com.openclassrooms.mddapi.model.entities.Article;
+import com.openclassrooms.mddapi.model.entities.Theme;
+import com.openclassrooms.mddapi.model.entities.User;
+import com.openclassrooms.mddapi.repositories.ArticleDAO;
+import com.openclassrooms.mddapi.repositories.ThemeDAO;
+import com.openclassrooms.mddapi.repositories.UserDAO;
+import com.openclassrooms.mddapi.services.JWTService;
+import com.openclassrooms.mddapi.services.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de charge du fil d’actualité ({@code GET /api/articles/followed}), avec les requêtes
+ * traitées par le pool de threads de Tomcat ({@code platform}) ou par des threads virtuels
+ * ({@code virtual}, profil {@code virtual-threads}).
+ * <p>
+ * L’application est démarrée dans le processus du benchmark, sur un port aléatoire, et des
+ * clients concurrents plus nombreux que les threads de Tomcat interrogent le fil d’un même
+ * utilisateur. Par défaut la base est H2 (profil {@code test}) ; pour mesurer l’attente réelle
+ * sur MySQL : {@code -Djmh.args="FollowedFeedLoadBenchmark -p datasource=mysql"}.
+ * </p>
+ *
+ * <p>
+ * Lancement : {@code mvn -Pjmh test-compile exec:exec -Djmh.args="FollowedFeedLoadBenchmark"}.
+ * Les deux modes sont mesurés dans la même exécution : la ligne {@code platform} donne le débit avant
+ * activation du profil, la ligne {@code virtual} le débit après. Le mode {@code virtual} exige un JDK 21+.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Threads(400)
+@Fork(1)
+public class FollowedFeedLoadBenchmark {
+
+    private static final int THEMES = 10;
+    private static final int ARTICLES_PER_THEME = 50;
+
+    /** Mode d’exécution des requêtes : pool de threads de Tomcat ou threads virtuels. */
+    @Param({"platform", "virtual"})
+    public String threading;
+
+    /** Base utilisée : H2 en mémoire ({@code h2}) ou la base MySQL de {@code application.properties}. */
+    @Param({"h2"})
+    public String datasource;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient client;
+
+    private HttpRequest request;
+
+    /**
+     * Démarre l’application dans le mode demandé, crée un lecteur abonné à {@value #THEMES} thèmes
+     * et prépare la requête authentifiée de son fil.
+     *
+     * @throws IllegalStateException si le mode {@code virtual} est demandé sur un JDK antérieur à 21 :
+     *                               Spring Boot ignorerait le profil et la mesure porterait sur le pool de Tomcat.
+     */
+    @Setup
+    public void setUp() {
+        if ("virtual".equals(threading) && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("virtual threads require Java 21+, running " + Runtime.version());
+        }
+        List<String> profiles = new ArrayList<>();
+        if ("h2".equals(datasource)) {
+            profiles.add("test");
+        }
+        if ("virtual".equals(threading)) {
+            profiles.add("virtual-threads");
+        }
+        context = new SpringApplicationBuilder(MddApiApplication.class)
+                .profiles(profiles.toArray(String[]::new))
+                .properties("server.port=0", "logging.level.root=WARN")
+                .run();
+
+        String email = "bench-" + System.nanoTime() + "@mdd.test";
+        seed(email);
+        String token = context.getBean(JWTService.class)
+                .generateToken(context.getBean(UserService.class).getUserByEmail(email));
+        String port = context.getEnvironment().getProperty("local.server.port");
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/articles/followed"))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    /**
+     * Arrête l’application.
+     */
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Lit la première page du fil du lecteur.
+     *
+     * @return le corps de la réponse.
+     * @throws Exception si la requête échoue ou ne renvoie pas un 200.
+     */
+    @Benchmark
+    public String followedFeed() throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("unexpected status " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    /**
+     * Crée un auteur, les thèmes, leurs articles et le lecteur abonné à ces thèmes.
+     *
+     * @param readerEmail l’adresse e-mail du lecteur.
+     */
+    private void seed(String readerEmail) {
+        UserDAO userDAO = context.getBean(UserDAO.class);
+        ThemeDAO themeDAO = context.getBean(ThemeDAO.class);
+        ArticleDAO articleDAO = context.getBean(ArticleDAO.class);
+
+        User author = new User();
+        author.setEmail("author-" + readerEmail);
+        author.setUsername("author-" + System.nanoTime());
+        author = userDAO.save(author);
+
+        List<Theme> themes = new ArrayList<>();
+        List<Article> articles = new ArrayList<>();
+        long time = System.currentTimeMillis() - THEMES * ARTICLES_PER_THEME * 60_000L;
+        for (int t = 0; t < THEMES; t++) {
+            Theme theme = new Theme();
+            theme.setName("bench theme " + t);
+            theme = themeDAO.save(theme);
+            themes.add(theme);
+            for (int a = 0; a < ARTICLES_PER_THEME; a++) {
+                Article article = new Article();
+                article.setTitle("article " + t + "-" + a);
+                article.setContent("content");
+                article.setThemeId(theme.getId());
+                article.setAuthorId(author.getId());
+                article.setCreatedAt(new Date(time));
+                time += 60_000;
+                articles.add(article);
+            }
+        }
+        articleDAO.saveAll(articles);
+
+        User reader = new User();
+        reader.setEmail(readerEmail);
+        reader.setUsername("reader-" + System.nanoTime());
+        reader.setFollowedThemes(themes);
+        userDAO.save(reader);
+    }
+}
@@ -0,0 +1,103 @@
+package com.openclassrooms.mddapi.config;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare le décodage d’un même jeton par le {@link NimbusJwtDecoder} seul et par le
+ * {@link CachingJwtDecoder} placé devant lui, jeton déjà en cache (cas d’un client actif).
+ * <p>
+ * Lancement : {@code mvn -Pjmh test-compile exec:exec -Djmh.args="JwtDecoderBenchmark -f 1"}.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtDecoderBenchmark {
+
+    /** Clé de signature de test, de la taille de celle de l’application. */
+    private static final String SECRET = "0123456789abcdef".repeat(32);
+
+    /** Décodeur de Spring Security, qui vérifie la signature à chaque appel. */
+    private JwtDecoder nimbusDecoder;
+
+    /** Décodeur avec cache des jetons vérifiés. */
+    private JwtDecoder cachingDecoder;
+
+    /** Jeton signé présenté à chaque appel. */
+    private String token;
+
+    /**
+     * Construit les décodeurs, comme {@link SpringSecurityConfig}, et signe un jeton valide 24 heures.
+     */
+    @Setup
+    public void setUp() {
+        byte[] key = SECRET.getBytes(StandardCharsets.UTF_8);
+        nimbusDecoder = NimbusJwtDecoder.withSecretKey(new SecretKeySpec(key, 0, key.length, "RSA"))
+                .macAlgorithm(MacAlgorithm.HS256)
+                .build();
+        cachingDecoder = new CachingJwtDecoder(nimbusDecoder, 10_000);
+
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("self")
+                .issuedAt(now)
+                .expiresAt(now.plus(1, ChronoUnit.DAYS))
+                .subject("user@mdd.test")
+                .claim("uid", 42)
+                .build();
+        token = new NimbusJwtEncoder(new ImmutableSecret<>(key))
+                .encode(JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS256).build(), claims))
+                .getTokenValue();
+        cachingDecoder.decode(token);
+    }
+
+    /**
+     * Décodage et vérification complète du jeton.
+     *
+     * @return le jeton décodé.
+     */
+    @Benchmark
+    public Jwt nimbusDecoder() {
+        return nimbusDecoder.decode(token);
+    }
+
+    /**
+     * Décodage d’un jeton déjà vérifié : empreinte SHA-256 et lecture du cache.
+     *
+     * @return le jeton décodé.
+     */
+    @Benchmark
+    public Jwt cachingDecoder() {
+        return cachingDecoder.decode(token);
+    }
+}
@@ -0,0 +1,133 @@
+package com.openclassrooms.mddapi.config;
+
+import com.openclassrooms.mddapi.MddApiApplication;
+import com.openclassrooms.mddapi.model.dto.UserDTO;
+import com.openclassrooms.mddapi.services.JWTService;
+import jakarta.servlet.Filter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Mesure le coût de la chaîne de filtres Spring Security complète (CORS, extraction du jeton,
+ * décodage JWT, autorisation) sur un endpoint qui ne fait rien d’autre que répondre.
+ * <p>
+ * L’application est démarrée avec le profil {@code test} (H2) et un endpoint {@code /bench/ping} ;
+ * les requêtes passent par {@link MockMvc}, sans réseau, pour isoler le coût du traitement serveur.
+ * Le jeton présenté est toujours le même : il est servi par le cache du {@link CachingJwtDecoder},
+ * comme pour un client actif.
+ * </p>
+ *
+ * <p>
+ * Lancement : {@code mvn -Pjmh test-compile exec:exec -Djmh.args="SecurityFilterChainBenchmark"}.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityFilterChainBenchmark {
+
+    /**
+     * Endpoint trivial, soumis à la règle {@code anyRequest().authenticated()}.
+     */
+    @RestController
+    public static class PingController {
+
+        /**
+         * Répond sans traitement.
+         *
+         * @return {@code "pong"}.
+         */
+        @GetMapping("/bench/ping")
+        public String ping() {
+            return "pong";
+        }
+    }
+
+    private ConfigurableApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    private String bearer;
+
+    /**
+     * Démarre l’application, construit le {@link MockMvc} avec la chaîne de filtres de sécurité
+     * et émet le jeton présenté par les requêtes authentifiées.
+     */
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(MddApiApplication.class, PingController.class)
+                .profiles("test")
+                .properties("server.port=0", "logging.level.root=WARN")
+                .run();
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .addFilters(context.getBean("springSecurityFilterChain", Filter.class))
+                .build();
+        bearer = "Bearer " + context.getBean(JWTService.class)
+                .generateToken(UserDTO.builder().id(1).email("bench@mdd.test").username("bench").build());
+    }
+
+    /**
+     * Arrête l’application.
+     */
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Requête authentifiée : la chaîne complète jusqu’au contrôleur.
+     *
+     * @return le résultat de la requête.
+     * @throws Exception si la requête n’est pas acceptée.
+     */
+    @Benchmark
+    public MvcResult authenticated() throws Exception {
+        return expect(mockMvc.perform(get("/bench/ping").header(HttpHeaders.AUTHORIZATION, bearer)).andReturn(), 200);
+    }
+
+    /**
+     * Requête sans jeton : rejetée par la chaîne avec un 401.
+     *
+     * @return le résultat de la requête.
+     * @throws Exception si la requête n’est pas rejetée.
+     */
+    @Benchmark
+    public MvcResult anonymousRejected() throws Exception {
+        return expect(mockMvc.perform(get("/bench/ping")).andReturn(), 401);
+    }
+
+    private static MvcResult expect(MvcResult result, int status) {
+        if (result.getResponse().getStatus() != status) {
+            throw new IllegalStateException("unexpected status " + result.getResponse().getStatus());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,215 @@
+package com.openclassrooms.mddapi.model.mappers;
+
+import com.openclassrooms.mddapi.model.dto.ArticleDTO;
+import com.openclassrooms.mddapi.model.dto.CommentDTO;
+import com.openclassrooms.mddapi.model.dto.ThemeDTO;
+import com.openclassrooms.mddapi.model.dto.UserDTO;
+import com.openclassrooms.mddapi.model.entities.Article;
+import com.openclassrooms.mddapi.model.entities.Comment;
+import com.openclassrooms.mddapi.model.entities.Theme;
+import com.openclassrooms.mddapi.model.entities.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure le coût des mappers MapStruct (entité → DTO) et des boucles de construction
+ * de listes utilisées par les services.
+ * <p>
+ * Les implémentations générées sont instanciées par un contexte Spring minimal, afin que les
+ * mappers imbriqués ({@code uses = {...}}) soient injectés comme dans l’application.
+ * Les benchmarks {@code single*} convertissent un élément ; les benchmarks {@code list*} convertissent
+ * des listes de 10, 1 000 et 100 000 éléments, comme {@code ArticleServiceImpl} et {@code ThemeServiceImpl}.
+ * </p>
+ *
+ * <p>
+ * Lancement, avec le profileur GC (allocation par opération, {@code gc.alloc.rate.norm}) :
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="MapperBenchmark"}.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    /** Nombre de thèmes suivis par l’utilisateur converti. */
+    private static final int FOLLOWED_THEMES = 50;
+
+    private AnnotationConfigApplicationContext context;
+
+    private ArticleMapper articleMapper;
+    private CommentMapper commentMapper;
+    private ThemeMapper themeMapper;
+    private UserMapper userMapper;
+
+    private Article article;
+    private Comment comment;
+    private Theme theme;
+    private User user;
+
+    /**
+     * Listes d’entités à convertir, de taille paramétrée.
+     */
+    @State(Scope.Benchmark)
+    public static class Lists {
+
+        /** Nombre d’éléments de chaque liste. */
+        @Param({"10", "1000", "100000"})
+        public int size;
+
+        private List<Article> articles;
+        private List<Comment> comments;
+        private List<Theme> themes;
+
+        /**
+         * Construit les listes d’entités.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            articles = new ArrayList<>(size);
+            comments = new ArrayList<>(size);
+            themes = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                articles.add(article(i));
+                comments.add(comment(i));
+                themes.add(theme(i));
+            }
+        }
+    }
+
+    /**
+     * Instancie les mappers générés et les entités converties par les benchmarks unitaires.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(
+                ThemeMapperImpl.class, UserMapperImpl.class, CommentMapperImpl.class, ArticleMapperImpl.class);
+        articleMapper = context.getBean(ArticleMapper.class);
+        commentMapper = context.getBean(CommentMapper.class);
+        themeMapper = context.getBean(ThemeMapper.class);
+        userMapper = context.getBean(UserMapper.class);
+
+        article = article(1);
+        comment = comment(1);
+        theme = theme(1);
+        user = new User();
+        user.setId(1);
+        user.setName("Reader");
+        user.setEmail("reader@mdd.test");
+        user.setUsername("reader");
+        user.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoO5h5lZ4P1H6dG9yY0oZ0bq7h3x5vW2Zy");
+        List<Theme> followed = new ArrayList<>(FOLLOWED_THEMES);
+        for (int i = 0; i < FOLLOWED_THEMES; i++) {
+            followed.add(theme(i));
+        }
+        user.setFollowedThemes(followed);
+    }
+
+    /**
+     * Ferme le contexte Spring des mappers.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ArticleDTO singleArticle() {
+        return articleMapper.fromArticleToDto(article);
+    }
+
+    @Benchmark
+    public CommentDTO singleComment() {
+        return commentMapper.fromCommentToCommentDTO(comment);
+    }
+
+    @Benchmark
+    public ThemeDTO singleTheme() {
+        return themeMapper.fromThemeToDto(theme);
+    }
+
+    /** Utilisateur avec {@value #FOLLOWED_THEMES} thèmes suivis, convertis par le {@link ThemeMapper} imbriqué. */
+    @Benchmark
+    public UserDTO singleUserWithFollowedThemes() {
+        return userMapper.fromUserToDto(user);
+    }
+
+    @Benchmark
+    public UserDTO singleUserWithoutPassword() {
+        return userMapper.fromUserToDtoWithoutPassword(user);
+    }
+
+    /** Conversion d’une liste d’entités, telle que la pratiquait {@code ArticleServiceImpl.getAllArticlesOfTheme} avant les résumés. */
+    @Benchmark
+    public List<ArticleDTO> listArticles(Lists lists) {
+        List<ArticleDTO> articlesDTO = new ArrayList<>();
+        lists.articles.forEach(entity -> articlesDTO.add(articleMapper.fromArticleToDto(entity)));
+        return articlesDTO;
+    }
+
+    @Benchmark
+    public List<CommentDTO> listComments(Lists lists) {
+        List<CommentDTO> commentDTOS = new ArrayList<>();
+        lists.comments.forEach(entity -> commentDTOS.add(commentMapper.fromCommentToCommentDTO(entity)));
+        return commentDTOS;
+    }
+
+    /** Même boucle que {@code ThemeServiceImpl.getAllThemes}. */
+    @Benchmark
+    public List<ThemeDTO> listThemes(Lists lists) {
+        List<ThemeDTO> themeDTOS = new ArrayList<>();
+        lists.themes.forEach(entity -> themeDTOS.add(themeMapper.fromThemeToDto(entity)));
+        return themeDTOS;
+    }
+
+    private static Article article(int id) {
+        Article article = new Article();
+        article.setId(id);
+        article.setTitle("Article " + id);
+        article.setThemeId(id % 20);
+        article.setContent("Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(20));
+        article.setAuthorId(id % 100);
+        article.setCreatedAt(new Date(1_700_000_000_000L + id * 60_000L));
+        return article;
+    }
+
+    private static Comment comment(int id) {
+        Comment comment = new Comment();
+        comment.setId(id);
+        comment.setContent("Commentaire " + id);
+        comment.setAuthorId(id % 100);
+        comment.setArticleId(id % 1000);
+        comment.setCreatedAt(new Date(1_700_000_000_000L + id * 60_000L));
+        return comment;
+    }
+
+    private static Theme theme(int id) {
+        Theme theme = new Theme();
+        theme.setId(id);
+        theme.setName("Theme " + id);
+        theme.setDescription("Description du thème " + id);
+        return theme;
+    }
+}
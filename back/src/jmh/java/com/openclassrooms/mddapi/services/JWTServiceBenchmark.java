@@ -0,0 +1,69 @@
+package com.openclassrooms.mddapi.services;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import com.openclassrooms.mddapi.model.dto.UserDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure le débit d’émission des jetons par {@link JWTService#generateToken(UserDTO)} :
+ * construction de l’en-tête et des claims, sérialisation et signature HMAC-SHA256 par le
+ * {@link NimbusJwtEncoder}, configuré comme dans {@code SpringSecurityConfig}.
+ * <p>
+ * Le décodage est mesuré par {@code JwtDecoderBenchmark}, la chaîne de filtres complète par
+ * {@code SecurityFilterChainBenchmark}.
+ * </p>
+ *
+ * <p>
+ * Lancement : {@code mvn -Pjmh test-compile exec:exec -Djmh.args="JWTServiceBenchmark"}.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JWTServiceBenchmark {
+
+    /** Clé de signature de test, de la taille de celle de l’application. */
+    private static final String SECRET = "0123456789abcdef".repeat(32);
+
+    private JWTService jwtService;
+
+    private UserDTO user;
+
+    /**
+     * Construit le service comme l’application et l’utilisateur pour lequel les jetons sont émis.
+     */
+    @Setup
+    public void setUp() {
+        jwtService = new JWTService(new NimbusJwtEncoder(new ImmutableSecret<>(SECRET.getBytes(StandardCharsets.UTF_8))));
+        user = UserDTO.builder().id(42).email("user@mdd.test").username("user").build();
+    }
+
+    /**
+     * Émet un jeton signé.
+     *
+     * @return le jeton encodé.
+     */
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+}
@@ -0,0 +1,100 @@
+package com.openclassrooms.mddapi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Configuration des traitements asynchrones de l’application.
+ * <p>
+ * Cette classe active le support de {@link org.springframework.scheduling.annotation.Async}
+ * et déclare les pools de threads dédiés, afin qu’un traitement de fond ne puisse pas
+ * consommer les threads de traitement des requêtes HTTP.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    /**
+     * Pool dédié à la mise à jour des fils d’actualité matérialisés (fan-out, abonnements).
+     * <p>
+     * Lorsque la file d’attente est pleine, la tâche est exécutée par le thread appelant
+     * plutôt que d’être perdue.
+     * </p>
+     *
+     * @param poolSize      nombre de threads du pool.
+     * @param queueCapacity taille maximale de la file d’attente.
+     * @return l’exécuteur des tâches de fil d’actualité.
+     */
+    @Bean(name = "timelineExecutor")
+    public ThreadPoolTaskExecutor timelineExecutor(@Value("${mdd.timeline.executor.pool-size:2}") int poolSize,
+                                                   @Value("${mdd.timeline.executor.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("timeline-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * Pool dédié aux calculs BCrypt (connexion, inscription, changement de mot de passe).
+     * <p>
+     * Sa taille borne le nombre de calculs simultanés, et donc la part du processeur qu’un afflux
+     * de connexions peut consommer. Lorsque la file d’attente est pleine, la tâche est refusée
+     * ({@link org.springframework.core.task.TaskRejectedException}) et la requête reçoit un 503.
+     * Les requêtes SQL d’une tâche sont comptées pour la requête HTTP qui l’a soumise ({@link RequestQueryCounter}).
+     * </p>
+     *
+     * @param poolSize      nombre de threads du pool.
+     * @param queueCapacity taille maximale de la file d’attente.
+     * @return l’exécuteur des calculs de mots de passe.
+     */
+    @Bean(name = "passwordHashingExecutor")
+    public ThreadPoolTaskExecutor passwordHashingExecutor(@Value("${mdd.hashing.executor.pool-size:2}") int poolSize,
+                                                          @Value("${mdd.hashing.executor.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("hashing-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setTaskDecorator(RequestQueryCounter::propagate);
+        return executor;
+    }
+
+    /**
+     * Pool dédié à l’envoi des flux SSE d’articles : l’écriture vers un client lent n’occupe ni le thread
+     * qui publie l’article, ni ceux des autres clients au-delà de ce pool.
+     * <p>
+     * Lorsque la file d’attente est pleine, l’envoi est refusé ({@link org.springframework.core.task.TaskRejectedException})
+     * plutôt qu’exécuté par le thread qui publie : le flux ferme alors la connexion concernée, comme celle d’un client
+     * dont le tampon déborde, et le client se reconnecte.
+     * </p>
+     *
+     * @param poolSize      nombre de threads du pool.
+     * @param queueCapacity taille maximale de la file d’attente.
+     * @return l’exécuteur des envois SSE.
+     */
+    @Bean(name = "streamExecutor")
+    public ThreadPoolTaskExecutor streamExecutor(@Value("${mdd.stream.executor.pool-size:4}") int poolSize,
+                                                 @Value("${mdd.stream.executor.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("stream-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+}
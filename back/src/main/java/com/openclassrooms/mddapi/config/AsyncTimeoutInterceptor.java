@@ -0,0 +1,39 @@
+package com.openclassrooms.mddapi.config;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+import static com.openclassrooms.mddapi.config.Constants.ASYNC_TIMEOUT_ATTRIBUTE;
+
+/**
+ * Applique à une réponse asynchrone le délai d’expiration choisi par son contrôleur.
+ * <p>
+ * Les réponses écrites en flux ({@code StreamingResponseBody}) n’acceptent pas de délai propre :
+ * le contrôleur dépose un {@link Duration} dans l’attribut de requête {@link Constants#ASYNC_TIMEOUT_ATTRIBUTE},
+ * appliqué ici juste avant le passage en mode asynchrone. Les autres réponses gardent le délai par défaut.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+public class AsyncTimeoutInterceptor implements CallableProcessingInterceptor {
+
+    /**
+     * Remplace le délai d’expiration de la requête si son contrôleur en a fixé un.
+     *
+     * @param request la requête, qui n’est pas encore passée en mode asynchrone.
+     * @param task    le traitement asynchrone (non utilisé).
+     */
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        if (request.getAttribute(ASYNC_TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Duration timeout
+                && request instanceof AsyncWebRequest asyncRequest) {
+            asyncRequest.setTimeout(timeout.toMillis());
+        }
+    }
+}
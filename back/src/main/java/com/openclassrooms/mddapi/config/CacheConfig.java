@@ -0,0 +1,74 @@
+package com.openclassrooms.mddapi.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+import static com.openclassrooms.mddapi.config.Constants.COMMENTS_TOTAL_CACHE;
+import static com.openclassrooms.mddapi.config.Constants.PRINCIPALS_CACHE;
+
+/**
+ * Configuration des caches applicatifs.
+ * <p>
+ * Active le support de {@link org.springframework.cache.annotation.Cacheable}. Les caches
+ * sont des caches Caffeine (W-TinyLFU) déclarés et dimensionnés dans {@code application.properties}
+ * ({@code spring.cache.cache-names}, {@code spring.cache.caffeine.spec}) ; leurs statistiques
+ * (succès, défauts, évictions) sont publiées sous la métrique {@code cache.*} de l’actuator.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Déclare le cache {@code principals} des utilisateurs authentifiés, indexé par adresse e-mail.
+     * <p>
+     * Sa durée de vie, plus courte que celle des autres caches, borne le délai de prise en compte
+     * d’une modification faite hors de l’application ; les modifications faites par l’application
+     * l’invalident immédiatement.
+     * </p>
+     *
+     * @param ttl     durée de conservation d’un utilisateur après son chargement.
+     * @param maxSize nombre maximal d’utilisateurs conservés.
+     * @return le personnalisateur du {@link CaffeineCacheManager}.
+     */
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> principalsCacheCustomizer(
+            @Value("${mdd.cache.principals.ttl:30s}") Duration ttl,
+            @Value("${mdd.cache.principals.max-size:10000}") long maxSize) {
+        return cacheManager -> cacheManager.registerCustomCache(PRINCIPALS_CACHE, Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build());
+    }
+
+    /**
+     * Déclare le cache {@code commentsTotal}, qui conserve le nombre total de commentaires.
+     * <p>
+     * Ce total parcourt tout un index : il n’est recalculé qu’une fois par période {@code ttl},
+     * au prix d’un léger retard sur les créations et suppressions récentes.
+     * </p>
+     *
+     * @param ttl durée de conservation du total.
+     * @return le personnalisateur du {@link CaffeineCacheManager}.
+     */
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> commentsTotalCacheCustomizer(
+            @Value("${mdd.cache.comments-total.ttl:10s}") Duration ttl) {
+        return cacheManager -> cacheManager.registerCustomCache(COMMENTS_TOTAL_CACHE, Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build());
+    }
+}
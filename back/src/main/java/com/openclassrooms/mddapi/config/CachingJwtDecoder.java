@@ -0,0 +1,127 @@
+package com.openclassrooms.mddapi.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * {@link JwtDecoder} qui conserve les jetons déjà vérifiés par un décodeur délégué.
+ * <p>
+ * Un même jeton est présenté à chaque requête d’un client : plutôt que de le relire et de
+ * recalculer sa signature HMAC-SHA256 à chaque fois, le {@link Jwt} décodé est conservé
+ * jusqu’à son expiration ({@code exp}), indexé par l’empreinte SHA-256 du jeton ; le jeton
+ * lui-même n’est pas conservé.
+ * </p>
+ *
+ * <p>
+ * Le cache est borné en taille. Les échecs de décodage ne sont jamais conservés, pas plus que
+ * les jetons sans date d’expiration. Ses statistiques (succès, défauts, évictions) sont publiées
+ * sous la métrique {@code cache.*} avec le tag {@code cache=jwt}, et les tags {@code cache.manager}
+ * et {@code name} que portent aussi les caches de Spring : Prometheus refuse d’enregistrer une
+ * métrique dont les noms de tags diffèrent de ceux de la métrique de même nom déjà enregistrée.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    /** Nom du cache dans les métriques. */
+    public static final String CACHE_NAME = "jwt";
+
+    /** Valeur du tag {@code cache.manager} des métriques du cache. */
+    static final String CACHE_MANAGER_TAG = "jwtDecoder";
+
+    /** Décodeur effectuant la vérification de la signature et des claims. */
+    private final JwtDecoder delegate;
+
+    /** Jetons vérifiés, indexés par l’empreinte SHA-256 de leur valeur. */
+    private final Cache<String, Jwt> verified;
+
+    /**
+     * Crée un décodeur mettant en cache les jetons vérifiés par {@code delegate}.
+     *
+     * @param delegate    le décodeur effectuant la vérification.
+     * @param maximumSize nombre maximal de jetons conservés.
+     */
+    public CachingJwtDecoder(JwtDecoder delegate, long maximumSize) {
+        this.delegate = delegate;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.creating((String key, Jwt jwt) -> timeToLive(jwt)))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Publie les statistiques du cache dans le registre de métriques.
+     *
+     * @param registry le registre de métriques de l’application.
+     * @return ce décodeur.
+     */
+    public CachingJwtDecoder monitor(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, verified, CACHE_NAME,
+                Tags.of("cache.manager", CACHE_MANAGER_TAG, "name", CACHE_NAME));
+        return this;
+    }
+
+    /**
+     * Renvoie le {@link Jwt} conservé pour ce jeton, ou le fait vérifier par le décodeur délégué.
+     *
+     * @param token la valeur du jeton présenté.
+     * @return le jeton décodé et vérifié.
+     * @throws JwtException si le décodeur délégué rejette le jeton.
+     */
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = fingerprint(token);
+        Jwt jwt = verified.getIfPresent(key);
+        if (jwt != null) {
+            return jwt;
+        }
+        jwt = delegate.decode(token);
+        if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isAfter(Instant.now())) {
+            verified.put(key, jwt);
+        }
+        return jwt;
+    }
+
+    /**
+     * Calcule la durée de conservation d’un jeton : le temps restant avant son expiration.
+     *
+     * @param jwt le jeton décodé.
+     * @return la durée restante, nulle si le jeton est déjà expiré.
+     */
+    private static Duration timeToLive(Jwt jwt) {
+        Duration remaining = Duration.between(Instant.now(), jwt.getExpiresAt());
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    /**
+     * Calcule l’empreinte SHA-256 (hexadécimale) d’un jeton.
+     *
+     * @param token la valeur du jeton.
+     * @return l’empreinte du jeton.
+     */
+    private static String fingerprint(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
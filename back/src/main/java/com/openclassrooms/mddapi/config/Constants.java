@@ -10,4 +10,32 @@ public final class Constants {
     public static final String SOMETHING_WRONG_FOLLOW = "something went wrong with this following";
     public static final String ERROR  = "error";
     public static final String ERRORS  = "errors";
+    public static final String NEXT_CURSOR = "nextCursor";
+    public static final String TOTAL = "total";
+    public static final String INVALID_CURSOR = "invalid pagination cursor";
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int EXCERPT_LENGTH = 200;
+
+    public static final String ARTICLES_EXPORT = "/api/articles/export";
+    public static final String COMMENTS_EXPORT = "/api/comments/export";
+    public static final String FOLLOWED_ARTICLES_STREAM = "/api/articles/followed/stream";
+    public static final String ASYNC_TIMEOUT_ATTRIBUTE = "mdd.async.timeout";
+
+    public static final String ARTICLES_BY_THEME_CACHE = "articlesByTheme";
+    public static final String PRINCIPALS_CACHE = "principals";
+    public static final String COMMENTS_TOTAL_CACHE = "commentsTotal";
+
+    public static final String CLAIM_UID = "uid";
+    public static final String CLAIM_ROLES = "roles";
+
+    public static final String ROLE_OPS = "OPS";
+
+    public static final String SERVER_BUSY = "server busy, please retry later";
+    public static final String RETRY_AFTER_SECONDS = "1";
+
+    public static final String WS_ENDPOINT = "/ws";
+    public static final String WS_TOPIC_PREFIX = "/topic";
+    public static final String WS_PUBLISHED_AT_HEADER = "published-at";
 }
@@ -0,0 +1,25 @@
+package com.openclassrooms.mddapi.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marque un paramètre de méthode de contrôleur à renseigner avec l’utilisateur authentifié.
+ * <p>
+ * L’utilisateur est résolu par {@link CurrentUserArgumentResolver}, à partir de la claim {@code sub},
+ * via le cache des utilisateurs authentifiés :
+ * <ul>
+ *     <li>un {@link com.openclassrooms.mddapi.model.dto.AuthenticatedUserDTO} ne porte que son identité ;</li>
+ *     <li>un {@link com.openclassrooms.mddapi.model.dto.UserDTO} est l’utilisateur complet.</li>
+ * </ul>
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrentUser {
+}
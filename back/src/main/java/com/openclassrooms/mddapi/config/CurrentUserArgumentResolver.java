@@ -0,0 +1,100 @@
+package com.openclassrooms.mddapi.config;
+
+import com.openclassrooms.mddapi.model.dto.AuthenticatedUserDTO;
+import com.openclassrooms.mddapi.model.dto.UserDTO;
+import com.openclassrooms.mddapi.services.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import static com.openclassrooms.mddapi.config.Constants.CLAIM_UID;
+
+/**
+ * Résout les paramètres annotés {@link CurrentUser} avec l’utilisateur authentifié.
+ * <p>
+ * L’adresse e-mail est lue dans la claim {@code sub} du {@link Jwt}, puis l’utilisateur est obtenu par
+ * {@link UserService#getUserByEmail(String)}, dont le résultat est conservé dans le cache {@code principals}.
+ * Un jeton dont l’utilisateur n’existe plus, ou dont la claim {@code uid} désigne un autre compte
+ * (adresse réattribuée), est refusé par un 401.
+ * </p>
+ *
+ * <p>
+ * Pour un paramètre {@link AuthenticatedUserDTO}, l’identifiant et le nom d’utilisateur sont ceux du compte
+ * en cache, et non ceux des claims : un jeton reste valide 24h, mais un utilisateur supprimé ou renommé est
+ * pris en compte dès l’invalidation de son entrée ({@code updateUser}, {@code deleteUserById}), ou au plus
+ * tard à l’expiration du cache ({@code mdd.cache.principals.ttl}) sur une autre instance. En contrepartie,
+ * la résolution coûte une lecture du cache, et une requête au plus par utilisateur et par durée de vie
+ * de l’entrée, au lieu de zéro.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Component
+@RequiredArgsConstructor
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    /** Service de gestion des utilisateurs. */
+    private final UserService userService;
+
+    /**
+     * Indique si le paramètre est un {@link UserDTO} ou un {@link AuthenticatedUserDTO} annoté {@link CurrentUser}.
+     *
+     * @param parameter le paramètre de la méthode du contrôleur.
+     * @return {@code true} si ce résolveur prend le paramètre en charge.
+     */
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        Class<?> type = parameter.getParameterType();
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+                && (UserDTO.class.isAssignableFrom(type) || AuthenticatedUserDTO.class.isAssignableFrom(type));
+    }
+
+    /**
+     * Renvoie l’utilisateur authentifié de la requête.
+     *
+     * @return l’utilisateur authentifié, sous le type du paramètre, ou {@code null} si la requête
+     *         n’est pas authentifiée.
+     * @throws InvalidBearerTokenException si l’utilisateur du jeton n’existe plus.
+     */
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof Jwt jwt)) {
+            return null;
+        }
+        UserDTO user = currentUser(jwt);
+        if (AuthenticatedUserDTO.class.isAssignableFrom(parameter.getParameterType())) {
+            return new AuthenticatedUserDTO(user.getId(), user.getEmail(), user.getUsername());
+        }
+        return user;
+    }
+
+    /**
+     * Retrouve, par le cache {@code principals}, l’utilisateur désigné par le jeton.
+     * <p>
+     * Un jeton sans claim {@code uid} (émis avant son introduction) n’est vérifié que par son adresse e-mail.
+     * </p>
+     *
+     * @param jwt le jeton décodé de la requête.
+     * @return l’utilisateur du jeton, tel qu’il est enregistré.
+     * @throws InvalidBearerTokenException si l’utilisateur n’existe plus ou ne correspond pas à la claim {@code uid}.
+     */
+    private UserDTO currentUser(Jwt jwt) {
+        UserDTO user = userService.getUserByEmail(jwt.getSubject());
+        Number uid = jwt.getClaim(CLAIM_UID);
+        if (user == null || (uid != null && uid.intValue() != user.getId())) {
+            throw new InvalidBearerTokenException("The user of this token no longer exists");
+        }
+        return user;
+    }
+}
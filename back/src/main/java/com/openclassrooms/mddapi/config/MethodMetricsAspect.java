@@ -0,0 +1,126 @@
+package com.openclassrooms.mddapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Instrumente les services métier et les repositories Spring Data avec des timers Micrometer.
+ * <p>
+ * Chaque appel est mesuré dans l’un des timers suivants :
+ * <ul>
+ *     <li>{@code mdd.service.method} — méthodes de {@code ArticleService}, {@code CommentService},
+ *     {@code UserService} et {@code ThemeService},</li>
+ *     <li>{@code mdd.repository.method} — méthodes des DAO (y compris celles héritées de Spring Data).</li>
+ * </ul>
+ * Les timers sont étiquetés par {@code class} (l’interface), {@code method}, {@code outcome}
+ * ({@code success} ou {@code error}) et {@code exception} : leur compteur donne le nombre d’appels et
+ * le nombre d’erreurs par méthode. Les seuils d’histogramme (SLO) se configurent par
+ * {@code management.metrics.distribution.slo.mdd.service.method} et
+ * {@code management.metrics.distribution.slo.mdd.repository.method}.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class MethodMetricsAspect {
+
+    static final String SERVICE_TIMER = "mdd.service.method";
+    static final String REPOSITORY_TIMER = "mdd.repository.method";
+
+    private static final String NONE = "none";
+
+    /** Clé d’un timer de succès déjà enregistré. */
+    private record TimerKey(String name, String type, String method) {
+    }
+
+    /**
+     * Registre des métriques, résolu au premier appel : les aspects sont instanciés avant les
+     * post-processeurs qui appliquent au registre la configuration {@code management.metrics.*}.
+     */
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    /** Timers de succès, résolus une seule fois par méthode. */
+    private final Map<TimerKey, Timer> successTimers = new ConcurrentHashMap<>();
+
+    /** Interface instrumentée de chaque classe de proxy. */
+    private final Map<Class<?>, String> typeNames = new ConcurrentHashMap<>();
+
+    /**
+     * Mesure les méthodes publiques des services métier.
+     *
+     * @param joinPoint l’appel intercepté.
+     * @return le résultat de la méthode.
+     * @throws Throwable l’exception levée par la méthode, inchangée.
+     */
+    @Around("execution(public * com.openclassrooms.mddapi.services.ArticleService+.*(..))"
+            + " || execution(public * com.openclassrooms.mddapi.services.CommentService+.*(..))"
+            + " || execution(public * com.openclassrooms.mddapi.services.UserService+.*(..))"
+            + " || execution(public * com.openclassrooms.mddapi.services.ThemeService+.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(SERVICE_TIMER, "com.openclassrooms.mddapi.services.", joinPoint);
+    }
+
+    /**
+     * Mesure les méthodes des repositories Spring Data.
+     *
+     * @param joinPoint l’appel intercepté.
+     * @return le résultat de la méthode.
+     * @throws Throwable l’exception levée par la méthode, inchangée.
+     */
+    @Around("execution(public * *(..)) && this(org.springframework.data.repository.Repository)")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(REPOSITORY_TIMER, "com.openclassrooms.mddapi.repositories.", joinPoint);
+    }
+
+    private Object time(String name, String packagePrefix, ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            String type = typeName(joinPoint.getThis().getClass(), packagePrefix);
+            successTimers.computeIfAbsent(new TimerKey(name, type, joinPoint.getSignature().getName()),
+                            key -> timer(key.name(), key.type(), key.method(), "success", NONE))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            String type = typeName(joinPoint.getThis().getClass(), packagePrefix);
+            timer(name, type, joinPoint.getSignature().getName(), "error", e.getClass().getSimpleName())
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer timer(String name, String type, String method, String outcome, String exception) {
+        return Timer.builder(name)
+                .tag("class", type)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .register(meterRegistry.getObject());
+    }
+
+    /**
+     * Nom de l’interface applicative implémentée par le proxy (par exemple {@code ArticleService}
+     * ou {@code ArticleDAO}), plutôt que celui de la classe générée.
+     */
+    private String typeName(Class<?> proxyClass, String packagePrefix) {
+        return typeNames.computeIfAbsent(proxyClass, type -> ClassUtils.getAllInterfacesForClassAsSet(type).stream()
+                .filter(candidate -> candidate.getName().startsWith(packagePrefix))
+                .map(Class::getSimpleName)
+                .findFirst()
+                .orElse(ClassUtils.getUserClass(type).getSimpleName()));
+    }
+}
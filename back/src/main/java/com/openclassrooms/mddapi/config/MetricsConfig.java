@@ -0,0 +1,48 @@
+package com.openclassrooms.mddapi.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration de l’instrumentation de la persistance.
+ * <p>
+ * Les statistiques Hibernate ({@code hibernate.generate_statistics}) sont publiées par l’actuator
+ * sous les métriques {@code hibernate.*} (requêtes exécutées, chargements d’entités, cache de
+ * second niveau) ; les services et les DAO sont mesurés par le {@link MethodMetricsAspect}, et les
+ * requêtes SQL de chaque requête HTTP par le {@link RequestQueryCounter}.
+ * Toutes ces métriques sont exposées au format Prometheus sur {@code /actuator/prometheus},
+ * réservé au rôle {@code OPS}.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Enveloppe la {@link DataSource} dans un proxy datasource-proxy qui signale chaque exécution
+     * JDBC au {@link RequestQueryCounter} avant qu’elle n’ait lieu.
+     *
+     * @return le post-processeur de la {@link DataSource}.
+     */
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .beforeQuery((execInfo, queryInfoList) -> RequestQueryCounter.count())
+                        .build();
+            }
+        };
+    }
+}
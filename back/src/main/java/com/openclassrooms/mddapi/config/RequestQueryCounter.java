@@ -0,0 +1,209 @@
+package com.openclassrooms.mddapi.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compte les requêtes SQL exécutées pendant chaque requête HTTP et surveille leur budget.
+ * <p>
+ * La {@link javax.sql.DataSource} est enveloppée par datasource-proxy (voir {@link MetricsConfig}) :
+ * chaque exécution JDBC, quelle que soit son origine (Hibernate, {@code JdbcTemplate}), est signalée
+ * via {@link #count()}. Un lot ({@code executeBatch}) compte pour un aller-retour.
+ * </p>
+ *
+ * <p>
+ * Le compteur appartient à la requête : il est conservé dans l’attribut {@link #COUNT_ATTRIBUTE} et n’est
+ * rattaché à un thread que le temps d’y traiter cette requête. Il suit donc la requête sur les threads
+ * qui travaillent pour elle : le thread de Tomcat (y compris lors du retour d’un traitement asynchrone),
+ * le pool {@code passwordHashingExecutor} ({@link #propagate(Runnable)}) et les traitements asynchrones
+ * de Spring MVC ({@link CallableQueryCounting}). Une exécution JDBC sans requête rattachée (fil d’actualité,
+ * tâches planifiées, démarrage) n’est pas comptée.
+ * </p>
+ *
+ * <p>
+ * Une fois la réponse complète, le nombre de requêtes est publié dans la distribution
+ * {@code mdd.http.requests.queries}, étiquetée par méthode HTTP et motif d’URI. S’il dépasse le budget
+ * {@code mdd.sql.budget.queries}, un avertissement est journalisé (signe typique d’un N+1). En mode strict
+ * ({@code mdd.sql.budget.fail=true}, activé par le profil {@code test}), la requête SQL qui dépasse le budget
+ * n’est pas exécutée : une {@link QueryBudgetExceededException} est levée à sa place, avant que la réponse
+ * ne soit écrite.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RequestQueryCounter extends OncePerRequestFilter {
+
+    static final String QUERIES_SUMMARY = "mdd.http.requests.queries";
+
+    /** Attribut de requête portant le compteur, partagé entre le traitement initial et son retour asynchrone. */
+    static final String COUNT_ATTRIBUTE = RequestQueryCounter.class.getName() + ".count";
+
+    /** Compteur de la requête traitée par le thread courant, absent hors requête. */
+    private static final ThreadLocal<QueryCount> CURRENT = new ThreadLocal<>();
+
+    /** Registre des métriques, résolu à la première requête. */
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    /** Nombre maximal de requêtes SQL attendu pour une requête HTTP. */
+    @Value("${mdd.sql.budget.queries:10}")
+    private int budget;
+
+    /** Mode strict : un dépassement de budget fait échouer la requête. */
+    @Value("${mdd.sql.budget.fail:false}")
+    private boolean failOnViolation;
+
+    /**
+     * Comptabilise une exécution JDBC pour la requête HTTP rattachée au thread courant, s’il y en a une.
+     *
+     * @throws QueryBudgetExceededException en mode strict, si l’exécution dépasse le budget de la requête.
+     */
+    static void count() {
+        QueryCount count = CURRENT.get();
+        if (count != null) {
+            count.increment();
+        }
+    }
+
+    /**
+     * Décorateur de tâches rattachant la tâche à la requête HTTP qui la soumet.
+     *
+     * @param task la tâche soumise au pool.
+     * @return la tâche, dont les exécutions JDBC sont comptées pour la requête d’origine.
+     */
+    static Runnable propagate(Runnable task) {
+        QueryCount count = CURRENT.get();
+        if (count == null) {
+            return task;
+        }
+        return () -> {
+            CURRENT.set(count);
+            try {
+                task.run();
+            } finally {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    /**
+     * Le filtre s’applique aussi au retour d’un traitement asynchrone, pour y rattacher le compteur
+     * de la requête et publier le total une fois la réponse produite.
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCount count = (QueryCount) request.getAttribute(COUNT_ATTRIBUTE);
+        if (count == null) {
+            count = new QueryCount(request.getMethod() + " " + request.getRequestURI(), budget, failOnViolation);
+            request.setAttribute(COUNT_ATTRIBUTE, count);
+        }
+        CURRENT.set(count);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            CURRENT.remove();
+            if (!request.isAsyncStarted()) {
+                record(request, count.queries.get());
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, int queries) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern != null ? pattern : "UNKNOWN");
+        DistributionSummary.builder(QUERIES_SUMMARY)
+                .baseUnit("queries")
+                .tag("method", request.getMethod())
+                .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                .register(meterRegistry.getObject())
+                .record(queries);
+
+        if (queries > budget) {
+            log.warn("{} executed {} SQL queries (budget {})", endpoint, queries, budget);
+        }
+    }
+
+    /**
+     * Compteur des exécutions JDBC d’une requête HTTP, partagé par tous les threads qui la traitent.
+     */
+    private static final class QueryCount {
+
+        private final AtomicInteger queries = new AtomicInteger();
+
+        private final String request;
+
+        private final int budget;
+
+        private final boolean failOnViolation;
+
+        private QueryCount(String request, int budget, boolean failOnViolation) {
+            this.request = request;
+            this.budget = budget;
+            this.failOnViolation = failOnViolation;
+        }
+
+        private void increment() {
+            int executed = queries.incrementAndGet();
+            if (failOnViolation && executed > budget) {
+                throw new QueryBudgetExceededException(
+                        request + " executed " + executed + " SQL queries, over the budget of " + budget);
+            }
+        }
+    }
+
+    /**
+     * Rattache le compteur de la requête au thread qui exécute un traitement asynchrone de Spring MVC
+     * ({@code Callable}, {@code StreamingResponseBody}).
+     */
+    static class CallableQueryCounting implements CallableProcessingInterceptor {
+
+        @Override
+        public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+            if (request.getAttribute(COUNT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof QueryCount count) {
+                CURRENT.set(count);
+            }
+        }
+
+        @Override
+        public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Levée en mode strict à la place de la requête SQL qui dépasse le budget de la requête HTTP.
+     */
+    public static class QueryBudgetExceededException extends RuntimeException {
+
+        QueryBudgetExceededException(String message) {
+            super(message);
+        }
+    }
+}
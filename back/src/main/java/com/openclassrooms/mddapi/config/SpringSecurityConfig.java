@@ -1,6 +1,7 @@
 package com.openclassrooms.mddapi.config;
 
 import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -19,10 +20,18 @@ import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
 
 import javax.crypto.spec.SecretKeySpec;
 
+import static com.openclassrooms.mddapi.config.Constants.ARTICLES_EXPORT;
+import static com.openclassrooms.mddapi.config.Constants.CLAIM_ROLES;
+import static com.openclassrooms.mddapi.config.Constants.COMMENTS_EXPORT;
+import static com.openclassrooms.mddapi.config.Constants.ROLE_OPS;
+import static com.openclassrooms.mddapi.config.Constants.WS_ENDPOINT;
+
 /**
  * Configuration principale de la sécurité Spring Security pour l'application.
  * <p>
@@ -66,6 +75,10 @@ public class SpringSecurityConfig {
      *     <li>Active la configuration CORS par défaut.</li>
      *     <li>Configure la gestion de session comme stateless (sans session serveur).</li>
      *     <li>Définit les routes publiques et les routes nécessitant une authentification.</li>
+     *     <li>Réserve les endpoints de l’actuator (métriques, scrape Prometheus) au rôle {@code OPS},
+     *     à l’exception de {@code /actuator/health}, ainsi que les exports NDJSON des articles et des commentaires.</li>
+     *     <li>Ouvre la poignée de main WebSocket ({@code /ws}) : la session est authentifiée sur la trame
+     *     STOMP {@code CONNECT} par le {@link StompAuthenticationInterceptor}.</li>
      *     <li>Active la gestion des tokens JWT pour l’authentification.</li>
      * </ul>
      * </p>
@@ -83,15 +96,34 @@ public class SpringSecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
                         .requestMatchers("/admin").hasRole("ADMIN")
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole(ROLE_OPS)
+                        .requestMatchers(ARTICLES_EXPORT, COMMENTS_EXPORT).hasRole(ROLE_OPS)
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/").permitAll()
+                        .requestMatchers(WS_ENDPOINT + "/**").permitAll()
                         .anyRequest().authenticated()
                 )
-                .oauth2ResourceServer(oauth2 -> oauth2.jwt(Customizer.withDefaults()))
+                .oauth2ResourceServer(oauth2 -> oauth2.jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter())))
                 .build();
     }
 
+    /**
+     * Convertit les rôles portés par la claim {@code roles} du JWT en autorités {@code ROLE_*}.
+     *
+     * @return le convertisseur utilisé par le serveur de ressources.
+     */
+    @Bean
+    public JwtAuthenticationConverter jwtAuthenticationConverter() {
+        JwtGrantedAuthoritiesConverter authoritiesConverter = new JwtGrantedAuthoritiesConverter();
+        authoritiesConverter.setAuthoritiesClaimName(CLAIM_ROLES);
+        authoritiesConverter.setAuthorityPrefix("ROLE_");
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(authoritiesConverter);
+        return converter;
+    }
+
     /**
      * Définit le bean du chiffreur de mots de passe.
      * <p>
@@ -124,17 +156,22 @@ public class SpringSecurityConfig {
      * Crée et configure le décodeur JWT.
      * <p>
      * Cet objet est utilisé pour vérifier et décoder les tokens JWT reçus
-     * lors des requêtes entrantes.
+     * lors des requêtes entrantes. Les jetons vérifiés sont conservés jusqu’à leur expiration
+     * par un {@link CachingJwtDecoder}, ce qui évite de recalculer leur signature à chaque requête.
      * </p>
      *
+     * @param meterRegistry  registre des métriques, où sont publiées les statistiques du cache.
+     * @param cacheMaxSize   nombre maximal de jetons vérifiés conservés.
      * @return un {@link JwtDecoder} configuré pour l’algorithme HMAC SHA-256.
      */
     @Bean
-    JwtDecoder jwtDecoder() {
+    JwtDecoder jwtDecoder(MeterRegistry meterRegistry,
+                          @Value("${mdd.cache.jwt.max-size:10000}") long cacheMaxSize) {
         SecretKeySpec secretKey = new SecretKeySpec(this.jwtKey.getBytes(), 0, this.jwtKey.getBytes().length, "RSA");
-        return NimbusJwtDecoder.withSecretKey(secretKey)
+        JwtDecoder nimbusDecoder = NimbusJwtDecoder.withSecretKey(secretKey)
                 .macAlgorithm(MacAlgorithm.HS256)
                 .build();
+        return new CachingJwtDecoder(nimbusDecoder, cacheMaxSize).monitor(meterRegistry);
     }
 
     /**
@@ -0,0 +1,108 @@
+package com.openclassrooms.mddapi.config;
+
+import com.openclassrooms.mddapi.services.stream.ArticleCommentChannel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authentifie les sessions STOMP et contrôle les trames envoyées par les clients.
+ * <p>
+ * La trame {@code CONNECT} doit porter l’en-tête {@code Authorization: Bearer <jwt>} : le jeton est vérifié
+ * par le même {@link JwtDecoder} que l’API REST, et l’authentification obtenue reste attachée à la session.
+ * Une session non authentifiée ne peut ni s’abonner ni envoyer de trame.
+ * </p>
+ *
+ * <p>
+ * Seuls les sujets des commentaires d’un article ({@link ArticleCommentChannel#isTopic(String)}) sont
+ * ouverts aux abonnements. Les clients ne publient rien : les trames {@code SEND} sont refusées, sans quoi
+ * le courtier les diffuserait telles quelles aux abonnés.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StompAuthenticationInterceptor implements ChannelInterceptor {
+
+    /** Préfixe de l’en-tête {@code Authorization} de la trame {@code CONNECT}. */
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    /** Décodeur des JWT, partagé avec le serveur de ressources. */
+    private final JwtDecoder jwtDecoder;
+
+    /** Conversion du JWT en authentification (rôles compris). */
+    private final JwtAuthenticationConverter jwtAuthenticationConverter;
+
+    /**
+     * Contrôle une trame reçue d’un client avant son traitement.
+     * <ul>
+     *     <li>{@code CONNECT} : authentifie la session par son jeton, l’authentification restant attachée
+     *     aux trames suivantes de la session.</li>
+     *     <li>{@code SUBSCRIBE} : n’accepte qu’une session authentifiée, abonnée au sujet des commentaires
+     *     d’un article.</li>
+     *     <li>{@code SEND} : refusée.</li>
+     * </ul>
+     * Une trame refusée fait répondre une trame {@code ERROR} au client, puis fermer sa session.
+     *
+     * @param message la trame reçue.
+     * @param channel le canal des trames entrantes.
+     * @return la trame, éventuellement complétée de l’utilisateur authentifié.
+     * @throws MessageDeliveryException si la trame est refusée.
+     */
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        StompCommand command = accessor.getCommand();
+        if (command == StompCommand.CONNECT) {
+            accessor.setUser(authenticate(message, accessor.getFirstNativeHeader(HttpHeaders.AUTHORIZATION)));
+        } else if (command == StompCommand.SUBSCRIBE) {
+            if (accessor.getUser() == null) {
+                throw new MessageDeliveryException(message, "Not authenticated");
+            }
+            if (!ArticleCommentChannel.isTopic(accessor.getDestination())) {
+                throw new MessageDeliveryException(message, "Unknown destination " + accessor.getDestination());
+            }
+        } else if (command == StompCommand.SEND) {
+            throw new MessageDeliveryException(message, "Clients cannot publish");
+        }
+        return message;
+    }
+
+    /**
+     * Vérifie le jeton de la trame {@code CONNECT} et le convertit en authentification.
+     *
+     * @param message       la trame {@code CONNECT}.
+     * @param authorization la valeur de l’en-tête {@code Authorization}, éventuellement {@code null}.
+     * @return l’authentification portant les rôles du jeton.
+     * @throws MessageDeliveryException si le jeton est absent ou invalide.
+     */
+    private AbstractAuthenticationToken authenticate(Message<?> message, String authorization) {
+        if (authorization == null || !authorization.startsWith(BEARER_PREFIX)) {
+            throw new MessageDeliveryException(message, "Missing bearer token");
+        }
+        try {
+            return jwtAuthenticationConverter.convert(jwtDecoder.decode(authorization.substring(BEARER_PREFIX.length())));
+        } catch (JwtException e) {
+            log.warn("STOMP connection rejected: {}", e.getMessage());
+            throw new MessageDeliveryException(message, "Invalid token");
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.openclassrooms.mddapi.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+import static com.openclassrooms.mddapi.config.Constants.FOLLOWED_ARTICLES_STREAM;
+
+/**
+ * Configuration Spring MVC de l’application.
+ * <p>
+ * Enregistre le {@link CurrentUserArgumentResolver}, qui injecte l’utilisateur authentifié
+ * dans les paramètres de contrôleur annotés {@link CurrentUser}, et l’{@link AsyncTimeoutInterceptor},
+ * qui applique aux réponses en flux le délai d’expiration fixé par leur contrôleur.
+ * </p>
+ *
+ * <p>
+ * L’{@link OpenEntityManagerInViewInterceptor} (open-in-view) est enregistré ici plutôt que par Spring Boot
+ * ({@code spring.jpa.open-in-view=false}), pour en exclure le flux SSE des articles suivis : il garderait
+ * la connexion JDBC prise par la résolution de l’utilisateur ou la reprise jusqu’à la fermeture du flux,
+ * et quelques clients connectés épuiseraient le pool.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    /** Résolveur de l’utilisateur authentifié. */
+    private final CurrentUserArgumentResolver currentUserArgumentResolver;
+
+    /**
+     * Ajoute les résolveurs d’arguments propres à l’application.
+     *
+     * @param resolvers la liste des résolveurs de Spring MVC.
+     */
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(currentUserArgumentResolver);
+    }
+
+    /**
+     * Déclare l’intercepteur open-in-view, qui ouvre un {@link jakarta.persistence.EntityManager} pour toute
+     * la durée d’une requête.
+     *
+     * @return l’intercepteur, lié à l’{@link jakarta.persistence.EntityManagerFactory} de l’application.
+     */
+    @Bean
+    public OpenEntityManagerInViewInterceptor openEntityManagerInViewInterceptor() {
+        return new OpenEntityManagerInViewInterceptor();
+    }
+
+    /**
+     * Applique l’open-in-view à toutes les requêtes, sauf au flux SSE des articles suivis.
+     *
+     * @param registry le registre des intercepteurs de Spring MVC.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addWebRequestInterceptor(openEntityManagerInViewInterceptor())
+                .excludePathPatterns(FOLLOWED_ARTICLES_STREAM);
+    }
+
+    /**
+     * Enregistre l’intercepteur des délais d’expiration propres à une réponse asynchrone, et celui qui
+     * compte les requêtes SQL du traitement asynchrone pour la requête HTTP d’origine.
+     *
+     * @param configurer la configuration du traitement asynchrone de Spring MVC.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new AsyncTimeoutInterceptor(),
+                new RequestQueryCounter.CallableQueryCounting());
+    }
+}
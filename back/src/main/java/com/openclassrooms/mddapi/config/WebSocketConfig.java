@@ -0,0 +1,113 @@
+package com.openclassrooms.mddapi.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.time.Duration;
+
+import static com.openclassrooms.mddapi.config.Constants.WS_ENDPOINT;
+import static com.openclassrooms.mddapi.config.Constants.WS_TOPIC_PREFIX;
+
+/**
+ * Configuration des canaux temps réel (WebSocket + STOMP).
+ * <p>
+ * Les clients se connectent sur {@code /ws} et s’abonnent aux sujets {@code /topic/**}, diffusés par le
+ * courtier en mémoire de Spring : chaque message publié sur un sujet n’est envoyé qu’aux sessions abonnées
+ * à ce sujet. L’authentification et le contrôle des abonnements sont faits sur la trame STOMP {@code CONNECT}
+ * par le {@link StompAuthenticationInterceptor} ; la poignée de main HTTP est donc publique.
+ * </p>
+ *
+ * <p>
+ * Chaque session dispose d’un tampon d’envoi borné ({@code mdd.ws.send-buffer-size-limit}) et d’un délai
+ * d’envoi maximal ({@code mdd.ws.send-time-limit}) : un client trop lent qui dépasse l’un ou l’autre est
+ * déconnecté, sans ralentir les autres abonnés du sujet. Les envois sont faits par un pool dédié
+ * ({@code mdd.ws.outbound.pool-size}), mesuré par les {@link WebSocketMetrics}.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    /** Authentification des connexions et contrôle des trames entrantes. */
+    private final StompAuthenticationInterceptor authenticationInterceptor;
+
+    /** Mesure des sessions et du délai de distribution des messages. */
+    private final WebSocketMetrics metrics;
+
+    /** Délai maximal d’envoi d’un message à une session avant sa déconnexion. */
+    @Value("${mdd.ws.send-time-limit:10s}")
+    private Duration sendTimeLimit;
+
+    /** Volume maximal de messages en attente d’envoi par session avant sa déconnexion. */
+    @Value("${mdd.ws.send-buffer-size-limit:512KB}")
+    private DataSize sendBufferSizeLimit;
+
+    /** Nombre de threads d’envoi vers les clients. */
+    @Value("${mdd.ws.outbound.pool-size:4}")
+    private int outboundPoolSize;
+
+    /**
+     * Déclare le point de connexion WebSocket {@code /ws}, ouvert à toutes les origines : les sessions
+     * sont authentifiées par leur jeton, et non par un cookie.
+     *
+     * @param registry le registre des points de connexion STOMP.
+     */
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint(WS_ENDPOINT).setAllowedOriginPatterns("*");
+    }
+
+    /**
+     * Active le courtier en mémoire sur les sujets {@code /topic/**}.
+     *
+     * @param registry la configuration du courtier.
+     */
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.enableSimpleBroker(WS_TOPIC_PREFIX);
+    }
+
+    /**
+     * Borne le délai d’envoi et le tampon de chaque session : au-delà, la session est fermée.
+     *
+     * @param registration la configuration du transport WebSocket.
+     */
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit((int) sendTimeLimit.toMillis())
+                .setSendBufferSizeLimit((int) sendBufferSizeLimit.toBytes());
+    }
+
+    /**
+     * Soumet les trames reçues des clients au {@link StompAuthenticationInterceptor}.
+     *
+     * @param registration la configuration du canal des trames entrantes.
+     */
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(authenticationInterceptor);
+    }
+
+    /**
+     * Dimensionne le pool d’envoi vers les clients et y mesure le délai de distribution ({@link WebSocketMetrics}).
+     *
+     * @param registration la configuration du canal des trames sortantes.
+     */
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor().corePoolSize(outboundPoolSize).maxPoolSize(outboundPoolSize);
+        registration.interceptors(metrics);
+    }
+}
@@ -0,0 +1,112 @@
+package com.openclassrooms.mddapi.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.openclassrooms.mddapi.config.Constants.WS_PUBLISHED_AT_HEADER;
+
+/**
+ * Métriques des canaux temps réel (WebSocket + STOMP).
+ * <p>
+ * Publie :
+ * <ul>
+ *     <li>{@code mdd.ws.sessions} — le nombre de sessions STOMP connectées sur l’instance,</li>
+ *     <li>{@code mdd.ws.sessions.evicted} — le nombre de sessions déconnectées parce qu’elles ne lisaient
+ *     pas assez vite (tampon ou délai d’envoi dépassé),</li>
+ *     <li>{@code mdd.ws.message.lag} — le délai entre la publication d’un message et son envoi à chaque
+ *     abonné, mesuré à partir de l’en-tête {@value Constants#WS_PUBLISHED_AT_HEADER}.</li>
+ * </ul>
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Component
+public class WebSocketMetrics implements ExecutorChannelInterceptor {
+
+    static final String SESSIONS_GAUGE = "mdd.ws.sessions";
+    static final String EVICTIONS_COUNTER = "mdd.ws.sessions.evicted";
+    static final String LAG_TIMER = "mdd.ws.message.lag";
+
+    /** Sessions connectées ; un ensemble, car une déconnexion peut être signalée deux fois. */
+    private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+
+    private final Counter evictions;
+
+    private final Timer lag;
+
+    /**
+     * Enregistre les métriques dans le registre de l’application.
+     *
+     * @param meterRegistry le registre des métriques.
+     */
+    public WebSocketMetrics(MeterRegistry meterRegistry) {
+        Gauge.builder(SESSIONS_GAUGE, sessions, Set::size)
+                .description("Connected STOMP sessions")
+                .register(meterRegistry);
+        evictions = Counter.builder(EVICTIONS_COUNTER)
+                .description("STOMP sessions closed because they could not keep up")
+                .register(meterRegistry);
+        lag = Timer.builder(LAG_TIMER)
+                .description("Delay between the publication of a message and its delivery to a subscriber")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Compte une session dont la connexion STOMP est acceptée.
+     *
+     * @param event l’événement de connexion.
+     */
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (sessionId != null) {
+            sessions.add(sessionId);
+        }
+    }
+
+    /**
+     * Décompte une session fermée, et compte son éviction si elle a été fermée pour lenteur.
+     *
+     * @param event l’événement de déconnexion.
+     */
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        if (sessions.remove(event.getSessionId()) && CloseStatus.SESSION_NOT_RELIABLE.equals(event.getCloseStatus())) {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Mesure le délai de distribution d’un message, une fois écrit dans la session de l’abonné.
+     */
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        if (ex != null || SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return;
+        }
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        String publishedAt = accessor.getFirstNativeHeader(WS_PUBLISHED_AT_HEADER);
+        if (publishedAt != null) {
+            lag.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - Long.parseLong(publishedAt))));
+        }
+    }
+}
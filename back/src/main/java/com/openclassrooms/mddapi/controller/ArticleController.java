@@ -1,21 +1,31 @@
 package com.openclassrooms.mddapi.controller;
 
+import com.openclassrooms.mddapi.config.CurrentUser;
 import com.openclassrooms.mddapi.model.dto.ArticleDTO;
+import com.openclassrooms.mddapi.model.dto.ArticleSummaryDTO;
+import com.openclassrooms.mddapi.model.dto.AuthenticatedUserDTO;
+import com.openclassrooms.mddapi.model.dto.CursorPageDTO;
 import com.openclassrooms.mddapi.model.dto.UserDTO;
 import com.openclassrooms.mddapi.services.ArticleService;
-import com.openclassrooms.mddapi.services.UserService;
+import com.openclassrooms.mddapi.services.stream.FollowedArticleStream;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,8 +42,8 @@ import static com.openclassrooms.mddapi.config.Constants.*;
  * </p>
  *
  * <p>
- * La sécurité repose sur un {@link Jwt} fourni par Spring Security :
- * l'email de l'utilisateur connecté est extrait via la claim {@code sub}.
+ * La sécurité repose sur un JWT fourni par Spring Security : l'utilisateur connecté,
+ * identifié par la claim {@code sub}, est reçu via {@link CurrentUser}.
  * </p>
  *
  * @author VotreNom
@@ -50,30 +60,91 @@ public class ArticleController {
     /** Service métier pour la gestion des articles. */
     private final ArticleService service;
 
-    /** Service métier pour la gestion des utilisateurs. */
-    private final UserService userService;
+    /** Flux SSE des nouveaux articles des thèmes suivis. */
+    private final FollowedArticleStream articleStream;
+
+    /** Délai d'expiration de l'export NDJSON. */
+    @Value("${mdd.export.timeout:30m}")
+    private Duration exportTimeout;
+
 
     /**
-     * Récupère l'ensemble des articles.
+     * Récupère une page de l'ensemble des articles.
      *
-     * @return {@link ResponseEntity} contenant une map avec la clé {@code "articles"}
-     *         et la liste {@code List<ArticleDTO>} correspondante. Code 200 en cas de succès.
+     * @param page numéro de page (à partir de 0)
+     * @param size taille de page souhaitée (bornée côté serveur)
+     * @param sort tri souhaité sous la forme {@code propriete[,asc|desc]}
+     *             (seul {@code createdAt}, couvert par un index, est accepté), par défaut {@code createdAt,desc}
+     * @return {@link ResponseEntity} contenant une map avec les clés {@code "articles"} (résumés, sans le contenu complet), {@code "page"},
+     *         {@code "size"} et {@code "hasNext"}. Code 200 en cas de succès, 400 si le tri est invalide.
      */
-    @Operation(summary = "all articles method", description = "get all articles in database")
+    @Operation(summary = "all articles method", description = "get a page of the articles in database")
     @ApiResponse(responseCode = "200", description = "request ok")
+    @ApiResponse(responseCode = "400", description = "invalid sort")
     @ApiResponse(responseCode = "500", description = "error")
     @GetMapping()
-    public ResponseEntity<Map<Object, Object>> getArticles() {
+    public ResponseEntity<Map<Object, Object>> getArticles(@RequestParam(name = "page", defaultValue = "0") int page,
+                                                           @RequestParam(name = "size", required = false) Integer size,
+                                                           @RequestParam(name = "sort", required = false) String sort) {
         Map<Object, Object> model = new HashMap<>();
-        model.put("articles", service.getArticles());
-        return ok(model);
+        try {
+            Slice<ArticleSummaryDTO> articles = service.getArticles(page, size, sort);
+            model.put("articles", articles.getContent());
+            model.put("page", articles.getNumber());
+            model.put("size", articles.getSize());
+            model.put("hasNext", articles.hasNext());
+            return ok(model);
+        } catch (IllegalArgumentException e) {
+            log.error(e.getMessage());
+            model.put(MESSAGE, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(model);
+        }
+    }
+
+    /**
+     * Recherche des articles par texte intégral dans leur titre et leur contenu.
+     * <p>
+     * Les résultats sont classés par pertinence (BM25). Le texte suit la syntaxe simple de Lucene :
+     * tous les termes sont requis, {@code "…"} pour une expression exacte, {@code -terme} pour exclure
+     * un terme, {@code terme*} pour un préfixe.
+     * </p>
+     *
+     * @param q      texte recherché
+     * @param themes identifiants des thèmes auxquels restreindre la recherche (facultatif, répétable)
+     * @param page   numéro de page (à partir de 0)
+     * @param size   taille de page souhaitée (bornée côté serveur)
+     * @return {@link ResponseEntity} contenant une map avec les clés {@code "articles"} (résumés), {@code "page"},
+     *         {@code "size"} et {@code "hasNext"}. Code 200 en cas de succès, 400 si le texte est vide
+     *         ou la page trop profonde.
+     */
+    @Operation(summary = "search articles", description = "full-text search in article titles and contents, most relevant first")
+    @ApiResponse(responseCode = "200", description = "request ok")
+    @ApiResponse(responseCode = "400", description = "invalid search")
+    @ApiResponse(responseCode = "500", description = "error")
+    @GetMapping("/search")
+    public ResponseEntity<Map<Object, Object>> searchArticles(@RequestParam(name = "q", required = false) String q,
+                                                              @RequestParam(name = "theme", required = false) List<Integer> themes,
+                                                              @RequestParam(name = "page", defaultValue = "0") int page,
+                                                              @RequestParam(name = "size", required = false) Integer size) {
+        Map<Object, Object> model = new HashMap<>();
+        try {
+            Slice<ArticleSummaryDTO> articles = service.searchArticles(q, themes, page, size);
+            model.put("articles", articles.getContent());
+            model.put("page", articles.getNumber());
+            model.put("size", articles.getSize());
+            model.put("hasNext", articles.hasNext());
+            return ok(model);
+        } catch (IllegalArgumentException e) {
+            log.error(e.getMessage());
+            model.put(MESSAGE, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(model);
+        }
     }
 
     /**
      * Récupère un article par son identifiant.
      *
-     * @param id         identifiant technique de l'article
-     * @param principal  jeton JWT de l'utilisateur authentifié (utilisé ici pour journalisation/contrôles ultérieurs)
+     * @param id identifiant technique de l'article
      * @return {@link ResponseEntity} contenant une map avec la clé {@code "article"}.
      *         Renvoie 200 en cas de succès, 403 si une erreur métier survient.
      */
@@ -81,9 +152,7 @@ public class ArticleController {
     @ApiResponse(responseCode = "200", description = "request ok")
     @ApiResponse(responseCode = "500", description = "error")
     @GetMapping("/{id}")
-    public ResponseEntity<Map<Object, Object>> getArticleById(@PathVariable(name = "id") int id,
-                                                              @AuthenticationPrincipal Jwt principal) {
-        UserDTO userLoggedIn = userService.getUserByEmail(principal.getClaimAsString("sub"));
+    public ResponseEntity<Map<Object, Object>> getArticleById(@PathVariable(name = "id") int id) {
         Map<Object, Object> model = new HashMap<>();
         try {
             model.put("article", service.getArticle(id));
@@ -99,7 +168,7 @@ public class ArticleController {
      * Crée (soumet) un nouvel article.
      *
      * @param newArticleDTO données de l'article à créer (validées)
-     * @param principal     jeton JWT de l'utilisateur authentifié
+     * @param userLoggedIn  utilisateur authentifié
      * @return {@link ResponseEntity} contenant la clé {@code "article"} avec l'article créé.
      *         Renvoie 200 en cas de succès, 403 en cas d'erreur métier.
      */
@@ -108,12 +177,11 @@ public class ArticleController {
     @ApiResponse(responseCode = "500", description = "error")
     @PostMapping("/add")
     public ResponseEntity<Map<Object, Object>> createArticle(@Valid @RequestBody ArticleDTO newArticleDTO,
-                                                             @AuthenticationPrincipal Jwt principal) {
+                                                             @CurrentUser AuthenticatedUserDTO userLoggedIn) {
 
-        UserDTO userLoggedIn = userService.getUserByEmail(principal.getClaimAsString("sub"));
         Map<Object, Object> model = new HashMap<>();
         try {
-            ArticleDTO articleDTO = service.save(newArticleDTO,userLoggedIn.getId());
+            ArticleDTO articleDTO = service.save(newArticleDTO, userLoggedIn);
             model.put("article", articleDTO);
             return ok(model);
         } catch (Exception e) {
@@ -128,7 +196,7 @@ public class ArticleController {
      *
      * @param id          identifiant de l'article à mettre à jour
      * @param articleDTO  nouvelles données (validées)
-     * @param principal   jeton JWT de l'utilisateur authentifié
+     * @param userLoggedIn utilisateur authentifié
      * @return {@link ResponseEntity} contenant la clé {@code "article"} avec l'article mis à jour.
      *         Renvoie 200 en cas de succès, 403 si l'utilisateur n'est pas autorisé ou en cas d'erreur.
      */
@@ -138,9 +206,8 @@ public class ArticleController {
     @PutMapping("/update/{id}")
     public ResponseEntity<Map<Object, Object>> updateArticle(@PathVariable(name = "id") int id,
                                                              @Valid @RequestBody ArticleDTO articleDTO,
-                                                             @AuthenticationPrincipal Jwt principal) {
+                                                             @CurrentUser UserDTO userLoggedIn) {
         Map<Object, Object> model = new HashMap<>();
-        UserDTO userLoggedIn = userService.getUserByEmail(principal.getClaimAsString("sub"));
         try {
             ArticleDTO articleUpdatedDTO = service.updateArticle(id, articleDTO, userLoggedIn);
             model.put("article", articleUpdatedDTO);
@@ -152,11 +219,31 @@ public class ArticleController {
         }
     }
 
+    /**
+     * Exporte l'ensemble des articles au format NDJSON (un article JSON par ligne).
+     * <p>
+     * La réponse est écrite en flux, au fil de la lecture en base : la mémoire utilisée
+     * ne dépend pas du nombre d'articles. Réservé au rôle {@code OPS} ; la réponse expire
+     * après {@code mdd.export.timeout}.
+     * </p>
+     *
+     * @param request la requête, qui porte le délai d'expiration de l'export
+     * @return {@link ResponseEntity} dont le corps est écrit en flux dans la réponse.
+     */
+    @Operation(summary = "export all articles", description = "stream every article in database as NDJSON")
+    @ApiResponse(responseCode = "200", description = "request ok")
+    @ApiResponse(responseCode = "403", description = "OPS role required")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportArticles(WebRequest request) {
+        request.setAttribute(ASYNC_TIMEOUT_ATTRIBUTE, exportTimeout, RequestAttributes.SCOPE_REQUEST);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(service::exportArticles);
+    }
+
     /**
      * Récupère tous les articles associés à un thème donné.
      *
      * @param themeId identifiant du thème
-     * @return {@link ResponseEntity} contenant une map avec la clé {@code "articles"}.
+     * @return {@link ResponseEntity} contenant une map avec la clé {@code "articles"} (résumés, sans le contenu complet).
      *         Renvoie 200 en cas de succès, 403 en cas d'erreur métier.
      */
     @Operation(summary = "all articles of a theme", description = "get all articles in database, refer to a theme")
@@ -167,8 +254,7 @@ public class ArticleController {
         Map<Object, Object> model = new HashMap<>();
 
         try {
-            List<ArticleDTO> articleDTOs = service.getAllArticlesOfTheme(themeId);
-            model.put("articles", articleDTOs);
+            model.put("articles", service.getAllArticlesOfTheme(themeId));
             return ok(model);
         } catch (Exception e) {
             log.error(e.getMessage());
@@ -178,23 +264,46 @@ public class ArticleController {
     }
 
     /**
-     * Récupère les articles liés aux thèmes suivis par l'utilisateur connecté.
+     * Récupère une page des articles liés aux thèmes suivis par l'utilisateur connecté.
+     * <p>
+     * La pagination se fait par curseur : la réponse contient la clé {@code "nextCursor"}
+     * à renvoyer dans le paramètre {@code after} pour obtenir la page suivante
+     * ({@code null} lorsque la dernière page est atteinte).
+     * </p>
      *
-     * @param principal jeton JWT de l'utilisateur authentifié
-     * @return {@link ResponseEntity} contenant une map avec la clé {@code "articles"}.
-     *         Renvoie 200 en cas de succès, 403 en cas d'erreur.
+     * @param userLoggedIn utilisateur authentifié
+     * @param limit     taille de page souhaitée (bornée côté serveur)
+     * @param after     curseur renvoyé par la page précédente, absent pour la première page
+     * @param request   la requête, pour l'évaluation de {@code If-None-Match}
+     * @return {@link ResponseEntity} contenant une map avec les clés {@code "articles"} (résumés, sans le contenu complet)
+     *         et {@code "nextCursor"}.
+     *         Renvoie 200 en cas de succès, 304 si la page n'a pas changé depuis l'ETag fourni,
+     *         400 si le curseur est invalide, 403 en cas d'erreur.
      */
-    @Operation(summary = "all articles followed by user", description = "get all articles in database,followed bu the connected user")
+    @Operation(summary = "all articles followed by user", description = "get a page of articles followed by the connected user, newest first")
     @ApiResponse(responseCode = "200", description = "request ok")
+    @ApiResponse(responseCode = "304", description = "not modified")
+    @ApiResponse(responseCode = "400", description = "invalid cursor")
     @ApiResponse(responseCode = "500", description = "error")
     @GetMapping("/followed")
-    public ResponseEntity<Map<Object, Object>> getAllFollowedArticles(@AuthenticationPrincipal Jwt principal) {
-        UserDTO userLoggedIn = userService.getUserByEmail(principal.getClaimAsString("sub"));
+    public ResponseEntity<Map<Object, Object>> getAllFollowedArticles(@CurrentUser UserDTO userLoggedIn,
+                                                                      @RequestParam(name = "limit", required = false) Integer limit,
+                                                                      @RequestParam(name = "after", required = false) String after,
+                                                                      WebRequest request) {
         Map<Object, Object> model = new HashMap<>();
         try {
-            List<ArticleDTO> articleDTOs = service.getAllFollowedArticles(userLoggedIn);
-            model.put("articles", articleDTOs);
-            return ok(model);
+            String etag = service.getFollowedArticlesVersion(userLoggedIn, after, limit);
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            CursorPageDTO<ArticleSummaryDTO> page = service.getFollowedArticlesPage(userLoggedIn, after, limit);
+            model.put("articles", page.getItems());
+            model.put(NEXT_CURSOR, page.getNextCursor());
+            return ResponseEntity.ok().eTag(etag).body(model);
+        } catch (IllegalArgumentException e) {
+            log.error(e.getMessage());
+            model.put(MESSAGE, INVALID_CURSOR);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(model);
         } catch (Exception e) {
             log.error(e.getMessage());
             model.put(MESSAGE, SOMETHING_WRONG);
@@ -203,11 +312,40 @@ public class ArticleController {
 
     }
 
+    /**
+     * Ouvre un flux SSE des nouveaux articles publiés dans les thèmes suivis par l'utilisateur connecté.
+     * <p>
+     * Chaque article est envoyé sous forme de résumé dans un événement {@code article}, dont l'identifiant
+     * est celui de l'article. À la reconnexion, le client renvoie le dernier identifiant reçu dans
+     * {@code Last-Event-ID} : les articles publiés entre-temps lui sont renvoyés, ou un événement
+     * {@code resync} s'ils sont trop nombreux, auquel cas il doit recharger {@code /followed}.
+     * </p>
+     *
+     * @param userLoggedIn utilisateur authentifié
+     * @param lastEventId  identifiant du dernier article reçu, absent pour une première connexion
+     * @return l'émetteur du flux {@code text/event-stream}.
+     */
+    @Operation(summary = "stream of followed articles", description = "server-sent events of new articles in the themes followed by the connected user")
+    @ApiResponse(responseCode = "200", description = "stream opened")
+    @GetMapping(value = "/followed/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamFollowedArticles(@CurrentUser UserDTO userLoggedIn,
+                                             @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        Integer resumeFrom = null;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                resumeFrom = Integer.valueOf(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                log.warn("ignoring invalid Last-Event-ID: {}", lastEventId);
+            }
+        }
+        return articleStream.subscribe(userLoggedIn, resumeFrom);
+    }
+
     /**
      * Supprime un article. L'opération n'est autorisée que pour l'auteur.
      *
      * @param id        identifiant de l'article à supprimer
-     * @param principal jeton JWT de l'utilisateur authentifié
+     * @param userLoggedIn utilisateur authentifié
      * @return {@link ResponseEntity} vide avec code 200 si la suppression réussit,
      *         403 en cas d'erreur ou d'autorisation refusée.
      */
@@ -216,8 +354,7 @@ public class ArticleController {
     @ApiResponse(responseCode = "500", description = "error")
     @DeleteMapping({"delete/{id}"})
     public ResponseEntity<Map<Object, Object>> deleteArticle(@PathVariable(name = "id") int id,
-                                                             @AuthenticationPrincipal Jwt principal) {
-        UserDTO userLoggedIn = userService.getUserByEmail(principal.getClaimAsString("sub"));
+                                                             @CurrentUser UserDTO userLoggedIn) {
         Map<Object, Object> model = new HashMap<>();
         try {
             service.deleteArticle(id, userLoggedIn);
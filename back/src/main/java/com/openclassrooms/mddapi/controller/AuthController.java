@@ -1,8 +1,10 @@
 package com.openclassrooms.mddapi.controller;
 
+import com.openclassrooms.mddapi.config.CurrentUser;
 import com.openclassrooms.mddapi.model.dto.LoginDTO;
 import com.openclassrooms.mddapi.model.dto.UserDTO;
 import com.openclassrooms.mddapi.services.JWTService;
+import com.openclassrooms.mddapi.services.PasswordHashingService;
 import com.openclassrooms.mddapi.services.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -13,13 +15,13 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.springframework.http.ResponseEntity.ok;
 import static com.openclassrooms.mddapi.config.Constants.*;
 
@@ -60,25 +62,34 @@ public class AuthController {
     /** Gestionnaire d’authentification Spring Security. */
     private final AuthenticationManager authenticationManager;
 
+    /** Service exécutant les calculs BCrypt sur un pool dédié et borné. */
+    private final PasswordHashingService passwordHashingService;
+
     /**
      * Authentifie un utilisateur à partir de ses identifiants (email ou nom d’utilisateur + mot de passe),
      * puis renvoie un token JWT s’il est valide.
+     * <p>
+     * La vérification BCrypt du mot de passe est exécutée sur le pool dédié du {@link PasswordHashingService} :
+     * le thread de traitement de la requête est libéré pendant le calcul. Si ce pool est saturé,
+     * la connexion est refusée immédiatement avec un 503 ({@link ServerBusyHandler}).
+     * </p>
      *
      * @param logintDto objet contenant les identifiants de connexion (email/username + mot de passe)
-     * @return {@link ResponseEntity} contenant la clé {@code "token"} si la connexion réussit.
-     *         Retourne le code 403 en cas d’échec d’authentification ou d’erreur.
+     * @return la {@link ResponseEntity} à venir, contenant la clé {@code "token"} si la connexion réussit.
+     *         Retourne le code 403 en cas d’échec d’authentification ou d’erreur, 503 si le serveur est saturé.
      */
     @Operation(summary = "login method", description = "clic here to login in with your credentials, email & password")
     @ApiResponse(responseCode = "200", description = "You're logged in")
     @ApiResponse(responseCode = "500", description = "error")
+    @ApiResponse(responseCode = "503", description = "too many logins in progress, retry later")
     @PostMapping("/login")
-    public ResponseEntity<Map<Object, Object>> login(@RequestBody LoginDTO logintDto) {
+    public CompletableFuture<ResponseEntity<Map<Object, Object>>> login(@RequestBody LoginDTO logintDto) {
         Map<Object, Object> model = new HashMap<>();
 
+        UserDTO user;
         try {
             String identifier = logintDto.getEmail();
 
-            UserDTO user;
             if (identifier.contains("@")) {
                 // Connexion par email
                 user = userService.getUserByEmail(identifier);
@@ -86,81 +97,88 @@ public class AuthController {
                 // Connexion par nom d’utilisateur
                 user = userService.getUserByUsername(identifier);
             }
-
-            if (user == null) {
-                model.put("message", "Bad Credentials before authenticate");
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(model);
-            }
-
-            // Authentifie l’utilisateur auprès de Spring Security
-            logintDto.setEmail(user.getEmail());
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(logintDto.getEmail(), logintDto.getPassword())
-            );
-
-            UserDTO userLoggedin = userService.getUserByEmail(logintDto.getEmail());
-            String token = jwtService.generateToken(userLoggedin);
-
-            model.put("token", token);
-            return ok(model);
-
         } catch (Exception e) {
             log.error(e.getMessage());
             model.put(ERROR, e.getMessage());
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(model);
+            return completedFuture(ResponseEntity.status(HttpStatus.FORBIDDEN).body(model));
         }
+
+        if (user == null) {
+            model.put("message", "Bad Credentials before authenticate");
+            return completedFuture(ResponseEntity.status(HttpStatus.FORBIDDEN).body(model));
+        }
+
+        // Authentifie l’utilisateur auprès de Spring Security, sur le pool de calcul BCrypt
+        logintDto.setEmail(user.getEmail());
+        return passwordHashingService.submit(() -> authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(logintDto.getEmail(), logintDto.getPassword())))
+                .thenApply(authentication -> {
+                    model.put("token", jwtService.generateToken(user));
+                    return ok(model);
+                })
+                .exceptionally(e -> {
+                    log.error(e.getMessage());
+                    model.put(ERROR, e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                    return ResponseEntity.status(HttpStatus.FORBIDDEN).body(model);
+                });
     }
 
     /**
      * Enregistre un nouvel utilisateur à partir des données fournies.
      * Si l’adresse email existe déjà, la requête est rejetée.
      * Un token JWT est automatiquement généré pour l’utilisateur inscrit.
+     * <p>
+     * Comme pour la connexion, le chiffrement du mot de passe s’exécute sur le pool du
+     * {@link PasswordHashingService} sans bloquer le thread de traitement de la requête ;
+     * si ce pool est saturé, l’inscription est refusée immédiatement avec un 503 ({@link ServerBusyHandler}).
+     * </p>
      *
      * @param userDto données du nouvel utilisateur à enregistrer
-     * @return {@link ResponseEntity} contenant la clé {@code "token"} pour l’utilisateur enregistré.
-     *         Retourne 403 si l’email est déjà utilisé ou si une erreur se produit.
+     * @return la {@link ResponseEntity} à venir, contenant la clé {@code "token"} pour l’utilisateur enregistré.
+     *         Retourne 403 si l’email est déjà utilisé ou si une erreur se produit, 503 si le serveur est saturé.
      */
     @Operation(summary = "register method", description = "clic here to register, with your details")
     @ApiResponse(responseCode = "200", description = "Welcome in, you're registered")
     @ApiResponse(responseCode = "500", description = "error")
+    @ApiResponse(responseCode = "503", description = "too many registrations in progress, retry later")
     @PostMapping("/register")
-    public ResponseEntity<Map<Object, Object>> register(@RequestBody UserDTO userDto) {
-
-        if (userService.getUserByEmail(userDto.getEmail()) == null) {
-            try {
-                userService.saveUser(userDto);
-                UserDTO saved = userService.getUserByEmail(userDto.getEmail());
-                Map<Object, Object> model = new HashMap<>();
-
-                model.put("token", jwtService.generateToken(saved));
-                return ok(model);
-            } catch (Exception e) {
-                Map<Object, Object> error = new HashMap<>();
-                error.put("message", "error with registration");
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
-            }
-        } else {
+    public CompletableFuture<ResponseEntity<Map<Object, Object>>> register(@RequestBody UserDTO userDto) {
+
+        if (userService.getUserByEmail(userDto.getEmail()) != null) {
             Map<Object, Object> error = new HashMap<>();
             error.put(MESSAGE, "Email already registered");
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+            return completedFuture(ResponseEntity.status(HttpStatus.FORBIDDEN).body(error));
         }
+
+        return userService.saveUser(userDto)
+                .thenApply(registered -> {
+                    UserDTO saved = userService.getUserByEmail(userDto.getEmail());
+                    Map<Object, Object> model = new HashMap<>();
+
+                    model.put("token", jwtService.generateToken(saved));
+                    return ok(model);
+                })
+                .exceptionally(e -> {
+                    log.error(e.getMessage());
+                    Map<Object, Object> error = new HashMap<>();
+                    error.put("message", "error with registration");
+                    return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+                });
     }
 
     /**
      * Récupère les informations de l’utilisateur actuellement connecté,
      * identifiées via le token JWT (claim {@code sub}).
      *
-     * @param principal jeton JWT de l’utilisateur authentifié
+     * @param userLoggedIn utilisateur authentifié
      * @return {@link ResponseEntity} contenant la clé {@code "user"} avec les données de l’utilisateur connecté.
      */
     @ApiResponse(responseCode = "200", description = "here are your informations")
     @ApiResponse(responseCode = "400", description = "error")
     @GetMapping("/me")
-    public ResponseEntity<Map<Object, Object>> getMe(@AuthenticationPrincipal Jwt principal) {
+    public ResponseEntity<Map<Object, Object>> getMe(@CurrentUser UserDTO userLoggedIn) {
         Map<Object, Object> model = new HashMap<>();
-        model.put("user", userService.getUserByEmail(principal.getClaimAsString("sub")));
+        model.put("user", userLoggedIn);
         return ok(model);
     }
-
-
 }
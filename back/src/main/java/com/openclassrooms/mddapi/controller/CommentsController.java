@@ -1,21 +1,26 @@
 package com.openclassrooms.mddapi.controller;
 
+import com.openclassrooms.mddapi.config.CurrentUser;
+import com.openclassrooms.mddapi.model.dto.AuthenticatedUserDTO;
 import com.openclassrooms.mddapi.model.dto.CommentDTO;
-import com.openclassrooms.mddapi.model.dto.UserDTO;
+import com.openclassrooms.mddapi.model.dto.CursorPageDTO;
 import com.openclassrooms.mddapi.services.CommentService;
-import com.openclassrooms.mddapi.services.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -39,10 +44,13 @@ import static com.openclassrooms.mddapi.config.Constants.*;
  * <p>
  * Chaque réponse est encapsulée dans un {@code Map<Object, Object>} contenant les clés comme
  * {@code "comments"}, {@code "article"}, {@code "user"}, et {@code "message"}.
+ * Les listes sont paginées par curseur : la réponse contient aussi {@code "nextCursor"}, à renvoyer
+ * dans le paramètre {@code after} pour obtenir la page suivante, et {@code "total"}, le nombre total
+ * de commentaires de la liste.
  * </p>
  *
  * <p>
- * L’accès à certaines méthodes requiert un utilisateur authentifié via un {@link Jwt}.
+ * L’accès à certaines méthodes requiert un utilisateur authentifié, reçu via {@link CurrentUser}.
  * </p>
  *
  * @author PA-SCHAMING
@@ -56,138 +64,230 @@ import static com.openclassrooms.mddapi.config.Constants.*;
 @Tag(name = "Comments Controller", description = "comments actions services")
 public class CommentsController {
 
-    /** Service métier gérant les utilisateurs. */
-    private final UserService userService;
 
     /** Service métier gérant les commentaires. */
     private final CommentService commentService;
 
+    /** Délai d’expiration de l’export NDJSON. */
+    @Value("${mdd.export.timeout:30m}")
+    private Duration exportTimeout;
+
     /**
-     * Récupère la liste de tous les commentaires présents en base.
+     * Récupère une page de tous les commentaires présents en base.
      *
-     * @return {@link ResponseEntity} contenant une map avec la clé {@code "comments"} et un message de succès.
+     * @param limit taille de page souhaitée (bornée côté serveur)
+     * @param after curseur renvoyé par la page précédente, absent pour la première page
+     * @return {@link ResponseEntity} contenant une map avec les clés {@code "comments"}, {@code "nextCursor"},
+     *         {@code "total"} et un message de succès. Retourne 400 si le curseur est invalide.
      */
-    @Operation(summary = "get all comments method", description = "get all comments in database")
+    @Operation(summary = "get all comments method", description = "get a page of all comments in database, oldest first")
     @ApiResponse(responseCode = "200", description = "request ok")
+    @ApiResponse(responseCode = "400", description = "invalid cursor")
     @ApiResponse(responseCode = "500", description = "error")
     @GetMapping()
-    public ResponseEntity<Map<Object, Object>> getComments() {
+    public ResponseEntity<Map<Object, Object>> getComments(@RequestParam(name = "limit", required = false) Integer limit,
+                                                           @RequestParam(name = "after", required = false) String after) {
         Map<Object, Object> model = new HashMap<>();
-        model.put(COMMENTS, commentService.getAllComments());
-        model.put(MESSAGE, "All comments !");
-        return ok(model);
+        try {
+            putPage(model, commentService.getComments(after, limit));
+            model.put(MESSAGE, "All comments !");
+            return ok(model);
+        } catch (IllegalArgumentException e) {
+            log.error(e.getMessage());
+            model.put(MESSAGE, INVALID_CURSOR);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(model);
+        }
+    }
+
+    /**
+     * Exporte l’ensemble des commentaires au format NDJSON (un commentaire JSON par ligne).
+     * <p>
+     * La réponse est écrite en flux, au fil de la lecture en base : la mémoire utilisée
+     * ne dépend pas du nombre de commentaires. Réservé au rôle {@code OPS} ; la réponse expire
+     * après {@code mdd.export.timeout}.
+     * </p>
+     *
+     * @param request la requête, qui porte le délai d’expiration de l’export
+     * @return {@link ResponseEntity} dont le corps est écrit en flux dans la réponse.
+     */
+    @Operation(summary = "export all comments", description = "stream every comment in database as NDJSON")
+    @ApiResponse(responseCode = "200", description = "request ok")
+    @ApiResponse(responseCode = "403", description = "OPS role required")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportComments(WebRequest request) {
+        request.setAttribute(ASYNC_TIMEOUT_ATTRIBUTE, exportTimeout, RequestAttributes.SCOPE_REQUEST);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(commentService::exportComments);
     }
 
     /**
-     * Récupère tous les commentaires associés à un article donné.
+     * Récupère une page des commentaires associés à un article donné.
+     * <p>
+     * La réponse porte un ETag : si le client renvoie la même valeur dans {@code If-None-Match},
+     * un 304 est renvoyé sans lire ni sérialiser les commentaires. Les commentaires de l’utilisateur
+     * connecté encore en attente d’écriture figurent sur la dernière page.
+     * </p>
      *
-     * @param id identifiant de l’article
-     * @return {@link ResponseEntity} contenant la clé {@code "comments"} si l’article existe.
-     *         Retourne un code 404 si l’article n’existe pas.
+     * @param userLoggedIn utilisateur authentifié
+     * @param id      identifiant de l’article
+     * @param limit   taille de page souhaitée (bornée côté serveur)
+     * @param after   curseur renvoyé par la page précédente, absent pour la première page
+     * @param request la requête, pour l’évaluation de {@code If-None-Match}
+     * @return {@link ResponseEntity} contenant les clés {@code "comments"}, {@code "nextCursor"} et {@code "total"}
+     *         si l’article existe. Retourne un code 304 si la page n’a pas changé, 400 si le curseur est invalide,
+     *         404 si l’article n’existe pas.
      */
-    @Operation(summary = "get comments of an article", description = "get all comments of a specific article")
+    @Operation(summary = "get comments of an article", description = "get a page of comments of a specific article, oldest first")
     @ApiResponse(responseCode = "200", description = "request ok")
+    @ApiResponse(responseCode = "304", description = "not modified")
+    @ApiResponse(responseCode = "400", description = "invalid cursor")
     @ApiResponse(responseCode = "404", description = "article not found")
     @GetMapping("/{id}")
-    public ResponseEntity<Map<Object, Object>> getCommentsOfArticleId(@PathVariable(name = "id") int id) {
+    public ResponseEntity<Map<Object, Object>> getCommentsOfArticleId(@CurrentUser AuthenticatedUserDTO userLoggedIn,
+                                                                      @PathVariable(name = "id") int id,
+                                                                      @RequestParam(name = "limit", required = false) Integer limit,
+                                                                      @RequestParam(name = "after", required = false) String after,
+                                                                      WebRequest request) {
+        String etag = commentService.getCommentsOfArticleVersion(userLoggedIn, id, after, limit);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         Map<Object, Object> model = new HashMap<>();
         try {
-            model.put(COMMENTS, commentService.getAllCommentsOfArticle(id));
-            return ok(model);
+            putPage(model, commentService.getCommentsOfArticle(userLoggedIn, id, after, limit));
+            return ResponseEntity.ok().eTag(etag).body(model);
         } catch (NoSuchElementException _) {
             model.put(MESSAGE, "article not found");
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(model);
+        } catch (IllegalArgumentException e) {
+            log.error(e.getMessage());
+            model.put(MESSAGE, INVALID_CURSOR);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(model);
         }
     }
 
     /**
-     * Récupère tous les commentaires rédigés par un utilisateur spécifique.
+     * Récupère une page des commentaires rédigés par un utilisateur spécifique.
      *
-     * @param id identifiant de l’utilisateur
-     * @return {@link ResponseEntity} contenant la clé {@code "comments"} si l’utilisateur existe.
-     *         Retourne 404 si aucun utilisateur correspondant n’est trouvé.
+     * @param id    identifiant de l’utilisateur
+     * @param limit taille de page souhaitée (bornée côté serveur)
+     * @param after curseur renvoyé par la page précédente, absent pour la première page
+     * @return {@link ResponseEntity} contenant les clés {@code "comments"}, {@code "nextCursor"} et {@code "total"}
+     *         si l’utilisateur existe. Retourne 400 si le curseur est invalide,
+     *         404 si aucun utilisateur correspondant n’est trouvé.
      */
-    @Operation(summary = "get comments of a user", description = "get all comments of a specific user")
+    @Operation(summary = "get comments of a user", description = "get a page of comments of a specific user, oldest first")
     @ApiResponse(responseCode = "200", description = "request ok")
+    @ApiResponse(responseCode = "400", description = "invalid cursor")
     @ApiResponse(responseCode = "404", description = "user not found")
     @GetMapping("/author/{id}")
-    public ResponseEntity<Map<Object, Object>> getCommentsOfUserId(@PathVariable(name = "id") int id) {
+    public ResponseEntity<Map<Object, Object>> getCommentsOfUserId(@PathVariable(name = "id") int id,
+                                                                   @RequestParam(name = "limit", required = false) Integer limit,
+                                                                   @RequestParam(name = "after", required = false) String after) {
         Map<Object, Object> model = new HashMap<>();
         model.put("user", id);
         try {
-            model.put(COMMENTS, commentService.getAllCommentsOfUser(id));
+            putPage(model, commentService.getCommentsOfUser(id, after, limit));
             log.info("get comments of user id :" + id);
             return ok(model);
         } catch (NoSuchElementException e) {
             log.error(e.getMessage());
             model.put(MESSAGE, e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(model);
+        } catch (IllegalArgumentException e) {
+            log.error(e.getMessage());
+            model.put(MESSAGE, INVALID_CURSOR);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(model);
         }
     }
 
     /**
-     * Récupère les commentaires postés par l’utilisateur connecté sur un article précis.
+     * Récupère une page des commentaires postés par l’utilisateur connecté sur un article précis.
      *
-     * @param principal jeton JWT de l’utilisateur authentifié
+     * @param userLoggedIn utilisateur authentifié
      * @param articleId identifiant de l’article concerné (passé en paramètre de requête)
-     * @return {@link ResponseEntity} contenant la clé {@code "comments"} si des commentaires existent.
-     *         Retourne 404 si aucun commentaire trouvé ou article inexistant.
+     * @param limit     taille de page souhaitée (bornée côté serveur)
+     * @param after     curseur renvoyé par la page précédente, absent pour la première page
+     * @return {@link ResponseEntity} contenant les clés {@code "comments"}, {@code "nextCursor"} et {@code "total"}
+     *         si des commentaires existent. Retourne 400 si le curseur est invalide,
+     *         404 si aucun commentaire trouvé ou article inexistant.
      */
-    @Operation(summary = "get comments of user and article", description = "get all comments from the logged-in user for a given article")
+    @Operation(summary = "get comments of user and article", description = "get a page of comments from the logged-in user for a given article")
     @ApiResponse(responseCode = "200", description = "request ok")
+    @ApiResponse(responseCode = "400", description = "invalid cursor")
     @ApiResponse(responseCode = "404", description = "not found")
     @GetMapping("/user/article/")
-    public ResponseEntity<Map<Object, Object>> getCommentsOfUserIdAndArticleId(@AuthenticationPrincipal Jwt principal,
-                                                                               @Valid @RequestParam("article") int articleId) {
+    public ResponseEntity<Map<Object, Object>> getCommentsOfUserIdAndArticleId(@CurrentUser AuthenticatedUserDTO userLoggedIn,
+                                                                               @Valid @RequestParam("article") int articleId,
+                                                                               @RequestParam(name = "limit", required = false) Integer limit,
+                                                                               @RequestParam(name = "after", required = false) String after) {
 
-        UserDTO userLoggedIn = userService.getUserByEmail(principal.getClaimAsString("sub"));
         int userId = userLoggedIn.getId();
         Map<Object, Object> model = new HashMap<>();
         model.put("user", userId);
         model.put("article", articleId);
 
         try {
-            model.put(COMMENTS, commentService.getAllCommentsOfUserAndArticle(userId, articleId));
+            putPage(model, commentService.getCommentsOfUserAndArticle(userLoggedIn, articleId, after, limit));
             return ok(model);
         } catch (NoSuchElementException e) {
             log.error(e.getMessage());
             model.put(MESSAGE, e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(model);
+        } catch (IllegalArgumentException e) {
+            log.error(e.getMessage());
+            model.put(MESSAGE, INVALID_CURSOR);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(model);
         }
     }
 
     /**
      * Ajoute un nouveau commentaire à un article.
      * L’utilisateur doit être authentifié pour publier.
+     * En écriture différée, le commentaire est accepté (202) avant d’être écrit en base : il n’a pas encore
+     * d’identifiant, mais apparaît déjà dans les lectures de son auteur.
      *
-     * @param principal jeton JWT de l’utilisateur authentifié
+     * @param userLoggedIn utilisateur authentifié
      * @param articleId identifiant de l’article concerné
      * @param content   contenu textuel du commentaire
      * @return {@link ResponseEntity} contenant la clé {@code "comment saved"} avec le {@link CommentDTO} créé.
-     *         Retourne 404 si l’article n’existe pas.
+     *         Retourne 202 si le commentaire est en attente d’écriture, 404 si l’article n’existe pas,
+     *         503 si la file d’écriture est saturée ({@link ServerBusyHandler}).
      */
     @Operation(summary = "add comment to article", description = "add a new comment to a specific article")
     @ApiResponse(responseCode = "200", description = "request ok")
+    @ApiResponse(responseCode = "202", description = "comment accepted, written shortly")
     @ApiResponse(responseCode = "404", description = "article not found")
+    @ApiResponse(responseCode = "503", description = "too many comments waiting to be written, retry later")
     @PostMapping("/add/{id}")
-    public ResponseEntity<Map<Object, Object>> addCommentToArticle(@AuthenticationPrincipal Jwt principal,
+    public ResponseEntity<Map<Object, Object>> addCommentToArticle(@CurrentUser AuthenticatedUserDTO userLoggedIn,
                                                                    @PathVariable(name = "id") int articleId,
                                                                    @Valid @RequestBody String content) {
 
-        UserDTO userLoggedIn = userService.getUserByEmail(principal.getClaimAsString("sub"));
         int userId = userLoggedIn.getId();
         Map<Object, Object> model = new HashMap<>();
         model.put("user", userId);
         model.put("article", articleId);
 
         try {
-            CommentDTO commentDTO = commentService.addCommentToArticle(articleId, userId, content);
+            CommentDTO commentDTO = commentService.addCommentToArticle(articleId, userLoggedIn, content);
             model.put("comment saved", commentDTO);
-            return ok(model);
+            return ResponseEntity.status(commentDTO.getId() == 0 ? HttpStatus.ACCEPTED : HttpStatus.OK).body(model);
         } catch (NoSuchElementException e) {
             log.error(e.getMessage());
             model.put(MESSAGE, e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(model);
         }
     }
+
+    /**
+     * Ajoute une page de commentaires à la réponse.
+     *
+     * @param model la réponse en construction.
+     * @param page  la page lue.
+     */
+    private static void putPage(Map<Object, Object> model, CursorPageDTO<CommentDTO> page) {
+        model.put(COMMENTS, page.getItems());
+        model.put(NEXT_CURSOR, page.getNextCursor());
+        model.put(TOTAL, page.getTotal());
+    }
 }
@@ -0,0 +1,49 @@
+package com.openclassrooms.mddapi.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.openclassrooms.mddapi.config.Constants.*;
+
+/**
+ * Traduit en 503 les refus des pools et files bornés de l’application.
+ * <p>
+ * Le pool de calcul des mots de passe ({@code passwordHashingExecutor}) et la file d’écriture
+ * différée des commentaires refusent le travail au-delà de leur capacité par une
+ * {@link org.springframework.core.task.TaskRejectedException} (sous-classe de
+ * {@link RejectedExecutionException}). Levée par un contrôleur, ou par le traitement asynchrone
+ * qu’il renvoie, l’exception aboutit ici : la réponse indique au client de réessayer via
+ * l’en-tête {@code Retry-After}.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Slf4j
+@RestControllerAdvice
+public class ServerBusyHandler {
+
+    /**
+     * Construit la réponse renvoyée lorsqu’un pool ou une file bornée est saturé.
+     *
+     * @param e le refus du pool ou de la file.
+     * @return {@link ResponseEntity} 503 avec un en-tête {@code Retry-After}.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Map<Object, Object>> serverBusy(RejectedExecutionException e) {
+        log.warn("request rejected, server saturated: {}", e.getMessage());
+        Map<Object, Object> error = new HashMap<>();
+        error.put(MESSAGE, SERVER_BUSY);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(error);
+    }
+}
@@ -1,5 +1,7 @@
 package com.openclassrooms.mddapi.controller;
 
+import com.openclassrooms.mddapi.config.CurrentUser;
+import com.openclassrooms.mddapi.model.dto.ThemeDTO;
 import com.openclassrooms.mddapi.model.dto.UserDTO;
 import com.openclassrooms.mddapi.services.ThemeService;
 import com.openclassrooms.mddapi.services.UserService;
@@ -10,11 +12,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static com.openclassrooms.mddapi.config.Constants.*;
@@ -32,8 +34,8 @@ import static org.springframework.http.ResponseEntity.ok;
  * </p>
  *
  * <p>
- * Les endpoints nécessitant l’authentification utilisent un {@link Jwt}
- * afin d’identifier l’utilisateur connecté via la claim {@code sub}.
+ * Les endpoints nécessitant l’authentification reçoivent l’utilisateur connecté via {@link CurrentUser},
+ * résolu à partir de la claim {@code sub} du JWT.
  * </p>
  *
  * <p>
@@ -60,25 +62,36 @@ public class ThemeController {
 
     /**
      * Récupère la liste de tous les thèmes disponibles dans la base de données.
+     * <p>
+     * La liste est lue une seule fois ; son ETag en est l’empreinte : si le client renvoie la même valeur
+     * dans {@code If-None-Match}, un 304 est renvoyé sans sérialiser la liste.
+     * </p>
      *
+     * @param request la requête, pour l’évaluation de {@code If-None-Match}
      * @return {@link ResponseEntity} contenant la clé {@code "themes"} et la liste correspondante.
-     *         Retourne le code HTTP 200 en cas de succès.
+     *         Retourne le code HTTP 200 en cas de succès, 304 si la liste n’a pas changé.
      */
     @Operation(summary = "get all themes", description = "Retrieve all available themes from the database")
     @ApiResponse(responseCode = "200", description = "request ok")
+    @ApiResponse(responseCode = "304", description = "not modified")
     @ApiResponse(responseCode = "500", description = "error")
     @GetMapping()
-    public ResponseEntity<Map<Object, Object>> getThemes() {
+    public ResponseEntity<Map<Object, Object>> getThemes(WebRequest request) {
+        List<ThemeDTO> themes = themeService.getAllThemes();
+        String etag = themeService.getThemesVersion(themes);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         Map<Object, Object> model = new HashMap<>();
-        model.put("themes", themeService.getAllThemes());
-        return ok(model);
+        model.put("themes", themes);
+        return ResponseEntity.ok().eTag(etag).body(model);
     }
 
     /**
      * Permet à l’utilisateur authentifié de suivre un thème.
      *
      * @param themeId   identifiant du thème à suivre
-     * @param principal jeton JWT de l’utilisateur authentifié
+     * @param userLoggedIn utilisateur authentifié
      * @return {@link ResponseEntity} contenant la clé {@code "user"} avec l’utilisateur mis à jour.
      *         Retourne le code 403 si une erreur se produit.
      */
@@ -87,9 +100,8 @@ public class ThemeController {
     @ApiResponse(responseCode = "403", description = "forbidden or unexpected error")
     @GetMapping("/follow/{id}")
     public ResponseEntity<Map<Object, Object>> follow(@PathVariable(name = "id") int themeId,
-                                                      @AuthenticationPrincipal Jwt principal) {
+                                                      @CurrentUser UserDTO userLoggedIn) {
 
-        UserDTO userLoggedIn = userService.getUserByEmail(principal.getClaimAsString("sub"));
         Map<Object, Object> model = new HashMap<>();
 
         try {
@@ -108,7 +120,7 @@ public class ThemeController {
      * Permet à l’utilisateur authentifié d’arrêter de suivre un thème.
      *
      * @param themeId   identifiant du thème à ne plus suivre
-     * @param principal jeton JWT de l’utilisateur authentifié
+     * @param userLoggedIn utilisateur authentifié
      * @return {@link ResponseEntity} contenant la clé {@code "user"} avec l’utilisateur mis à jour.
      *         Retourne le code 403 si une erreur survient.
      */
@@ -117,9 +129,8 @@ public class ThemeController {
     @ApiResponse(responseCode = "403", description = "forbidden or unexpected error")
     @GetMapping("/unfollow/{id}")
     public ResponseEntity<Map<Object, Object>> unFollow(@PathVariable(name = "id") int themeId,
-                                                        @AuthenticationPrincipal Jwt principal) {
+                                                        @CurrentUser UserDTO userLoggedIn) {
 
-        UserDTO userLoggedIn = userService.getUserByEmail(principal.getClaimAsString("sub"));
         Map<Object, Object> model = new HashMap<>();
 
         try {
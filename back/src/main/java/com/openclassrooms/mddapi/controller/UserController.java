@@ -1,5 +1,6 @@
 package com.openclassrooms.mddapi.controller;
 
+import com.openclassrooms.mddapi.config.CurrentUser;
 import com.openclassrooms.mddapi.model.dto.UserDTO;
 import com.openclassrooms.mddapi.services.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -9,15 +10,15 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static com.openclassrooms.mddapi.config.Constants.MESSAGE;
 import static com.openclassrooms.mddapi.config.Constants.THEMES;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.springframework.http.ResponseEntity.ok;
 
 /**
@@ -33,8 +34,8 @@ import static org.springframework.http.ResponseEntity.ok;
  * </p>
  *
  * <p>
- * Les endpoints nécessitant l'identité courante utilisent un {@link Jwt} (claim {@code sub})
- * pour retrouver l'utilisateur connecté.
+ * Les endpoints nécessitant l'identité courante reçoivent l'utilisateur connecté via {@link CurrentUser},
+ * résolu à partir de la claim {@code sub} du JWT.
  * </p>
  *
  * <p>
@@ -92,17 +93,16 @@ public class UserController {
     /**
      * Récupère la liste des thèmes suivis par l'utilisateur actuellement connecté.
      *
-     * @param principal jeton JWT de l'utilisateur authentifié
+     * @param userLoggedIn utilisateur authentifié
      * @return {@link ResponseEntity} contenant la clé {@code THEMES} et un {@code MESSAGE}
      */
     @Operation(summary = "get followed themes of current user", description = "retrieve all themes followed by the logged-in user")
     @ApiResponse(responseCode = "200", description = "request ok")
     @ApiResponse(responseCode = "500", description = "error")
     @GetMapping("/followed")
-    public ResponseEntity<Map<Object, Object>> getfollowedThemeOfUser(@AuthenticationPrincipal Jwt principal) {
+    public ResponseEntity<Map<Object, Object>> getfollowedThemeOfUser(@CurrentUser UserDTO userLoggedIn) {
 
         Map<Object, Object> model = new HashMap<>();
-        UserDTO userLoggedIn = userService.getUserByEmail(principal.getClaimAsString("sub"));
         model.put(THEMES, userLoggedIn.getFollowedThemes());
         model.put(MESSAGE, "All themes of user:" + userLoggedIn.getEmail());
         return ok(model);
@@ -111,19 +111,16 @@ public class UserController {
     /**
      * Récupère un utilisateur par identifiant.
      *
-     * @param id        identifiant de l'utilisateur à récupérer (format chaîne, parsé en entier)
-     * @param principal jeton JWT de l'utilisateur authentifié (non utilisé ici mais disponible pour contrôle/traçage)
+     * @param id identifiant de l'utilisateur à récupérer (format chaîne, parsé en entier)
      * @return {@link ResponseEntity} contenant la clé {@code "user"} avec l'utilisateur trouvé (ou {@code null} s'il n'existe pas)
      */
     @Operation(summary = "get user by id", description = "retrieve a user by its id")
     @ApiResponse(responseCode = "200", description = "request ok")
     @ApiResponse(responseCode = "500", description = "error")
     @GetMapping("/{id}")
-    public ResponseEntity<Map<Object, Object>> getUser(@PathVariable("id") String id,
-                                                       @AuthenticationPrincipal Jwt principal) {
+    public ResponseEntity<Map<Object, Object>> getUser(@PathVariable("id") String id) {
 
         Map<Object, Object> model = new HashMap<>();
-        UserDTO userLoggedIn = userService.getUserByEmail(principal.getClaimAsString("sub"));
         model.put("user", userService.getUserById(Integer.parseInt(id)));
 
         return ok(model);
@@ -137,33 +134,38 @@ public class UserController {
      *   <li><b>200</b> avec la clé {@code "user"} si la mise à jour réussit</li>
      *   <li><b>403</b> si l'utilisateur connecté tente de modifier un autre utilisateur</li>
      *   <li><b>403</b> si une erreur survient durant la mise à jour</li>
+     *   <li><b>503</b> si le pool de chiffrement des mots de passe est saturé ({@link ServerBusyHandler})</li>
      * </ul>
      *
+     * <p>Un nouveau mot de passe est chiffré sans bloquer le thread de traitement de la requête.</p>
+     *
      * @param userDto   données à jour de l'utilisateur
-     * @param principal jeton JWT de l'utilisateur authentifié
-     * @return {@link ResponseEntity} contenant l'utilisateur mis à jour ou une erreur
+     * @param userLoggedIn utilisateur authentifié
+     * @return la {@link ResponseEntity} à venir, contenant l'utilisateur mis à jour ou une erreur
      */
     @Operation(summary = "update user", description = "update user")
     @ApiResponse(responseCode = "200", description = "request ok")
     @ApiResponse(responseCode = "500", description = "error")
     @PutMapping("/update")
-    public ResponseEntity<Map<Object, Object>> updateUser(@RequestBody UserDTO userDto,
-                                                          @AuthenticationPrincipal Jwt principal) {
-        Map<Object, Object> model = new HashMap<>();
-        UserDTO userLoggedIn = userService.getUserByEmail(principal.getClaimAsString("sub"));
-        try {
-            if (userDto.getId() == userLoggedIn.getId()) {
-                model.put("user", userService.updateUser(userDto));
-                return ok(model);
-            } else {
-                Map<Object, Object> error = new HashMap<>();
-                error.put(MESSAGE, "you're not able to modify this user");
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
-            }
-        } catch (Exception e) {
+    public CompletableFuture<ResponseEntity<Map<Object, Object>>> updateUser(@RequestBody UserDTO userDto,
+                                                                             @CurrentUser UserDTO userLoggedIn) {
+        if (userDto.getId() != userLoggedIn.getId()) {
             Map<Object, Object> error = new HashMap<>();
-            error.put("message", "error with registration");
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+            error.put(MESSAGE, "you're not able to modify this user");
+            return completedFuture(ResponseEntity.status(HttpStatus.FORBIDDEN).body(error));
         }
+
+        return userService.updateUser(userDto)
+                .thenApply(updated -> {
+                    Map<Object, Object> model = new HashMap<>();
+                    model.put("user", updated);
+                    return ok(model);
+                })
+                .exceptionally(e -> {
+                    log.error(e.getMessage());
+                    Map<Object, Object> error = new HashMap<>();
+                    error.put("message", "error with registration");
+                    return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+                });
     }
 }
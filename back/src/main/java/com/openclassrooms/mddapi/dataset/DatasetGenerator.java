@@ -0,0 +1,261 @@
+package com.openclassrooms.mddapi.dataset;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Générateur de jeu de données synthétique, à l’échelle de la production, pour les campagnes de mesure.
+ * <p>
+ * Lancé par le profil {@code dataset}, il remplit les tables {@code user}, {@code theme},
+ * {@code follow}, {@code article} et {@code comment} par insertions JDBC en lots, puis arrête l’application :
+ * <pre>
+ * java -jar mdd-api.jar --spring.profiles.active=dataset --dataset.users=1000000 --dataset.articles=5000000
+ * </pre>
+ * </p>
+ *
+ * <p>
+ * Les données reproduisent les déséquilibres observés :
+ * <ul>
+ *     <li>popularité des thèmes selon une loi de Zipf (abonnements et articles) ;</li>
+ *     <li>auteurs en loi de puissance : quelques utilisateurs écrivent la plupart des articles ;</li>
+ *     <li>rafales de commentaires : une part des commentaires se concentre sur quelques articles « chauds ».</li>
+ * </ul>
+ * La génération est déterministe : une même graine ({@code dataset.seed}) produit les mêmes lignes,
+ * les dates étant calculées à partir du jour du lancement.
+ * Les identifiants sont attribués à la suite des lignes existantes. Tous les utilisateurs générés ont
+ * le mot de passe {@code dataset.password}.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@Profile("dataset")
+@RequiredArgsConstructor
+public class DatasetGenerator implements ApplicationRunner {
+
+    /** Période couverte par les dates de création des articles. */
+    private static final long HISTORY_MILLIS = TimeUnit.DAYS.toMillis(365);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final BCryptPasswordEncoder passwordEncoder;
+
+    private final ConfigurableApplicationContext context;
+
+    @Value("${dataset.seed:42}")
+    private long seed;
+
+    @Value("${dataset.users:100000}")
+    private int users;
+
+    @Value("${dataset.themes:200}")
+    private int themes;
+
+    @Value("${dataset.follows-per-user:8}")
+    private int followsPerUser;
+
+    @Value("${dataset.articles:500000}")
+    private int articles;
+
+    @Value("${dataset.comments:2000000}")
+    private int comments;
+
+    @Value("${dataset.theme-skew:1.1}")
+    private double themeSkew;
+
+    @Value("${dataset.author-skew:1.2}")
+    private double authorSkew;
+
+    @Value("${dataset.hot-article-ratio:0.001}")
+    private double hotArticleRatio;
+
+    @Value("${dataset.hot-comment-share:0.5}")
+    private double hotCommentShare;
+
+    @Value("${dataset.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${dataset.password:password}")
+    private String password;
+
+    @Value("${dataset.exit:true}")
+    private boolean exit;
+
+    /**
+     * Génère l’ensemble du jeu de données, puis arrête l’application si {@code dataset.exit} est actif.
+     *
+     * @param args arguments de la ligne de commande (les paramètres sont lus dans la configuration).
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int firstUser = nextId("MDD.`user`");
+        int firstTheme = nextId("MDD.theme");
+        int firstArticle = nextId("MDD.article");
+        long now = LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        ZipfSampler themeSampler = new ZipfSampler(themes, themeSkew);
+        ZipfSampler authorSampler = new ZipfSampler(users, authorSkew);
+
+        insertThemes(firstTheme);
+        insertUsers(firstUser);
+        insertFollows(random.split(), firstUser, firstTheme, themeSampler);
+        insertArticles(random.split(), firstArticle, firstUser, firstTheme, themeSampler, authorSampler, now);
+        insertComments(random.split(), firstArticle, firstUser, now);
+
+        if (exit) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+    private void insertThemes(int firstId) {
+        BatchWriter batch = new BatchWriter("theme",
+                "insert into MDD.theme (id, name, description) values (?, ?, ?)");
+        for (int i = 0; i < themes; i++) {
+            batch.add(firstId + i, "Thème " + (firstId + i), "Thème généré n°" + (firstId + i));
+        }
+        batch.finish();
+    }
+
+    private void insertUsers(int firstId) {
+        String hash = passwordEncoder.encode(password);
+        BatchWriter batch = new BatchWriter("user",
+                "insert into MDD.`user` (id, name, email, username, password) values (?, ?, ?, ?, ?)");
+        for (int i = 0; i < users; i++) {
+            int id = firstId + i;
+            batch.add(id, "User " + id, "user" + id + "@dataset.mdd", "user" + id, hash);
+        }
+        batch.finish();
+    }
+
+    /**
+     * Abonne chaque utilisateur à 1 à {@code 2 × follows-per-user} thèmes distincts, tirés selon leur popularité.
+     */
+    private void insertFollows(SplittableRandom random, int firstUser, int firstTheme, ZipfSampler themeSampler) {
+        BatchWriter batch = new BatchWriter("follow", "insert into follow (user_id, theme_id) values (?, ?)");
+        int maxFollows = Math.min(themes, Math.max(1, 2 * followsPerUser));
+        Set<Integer> followed = new HashSet<>();
+        for (int i = 0; i < users; i++) {
+            int count = 1 + random.nextInt(maxFollows);
+            followed.clear();
+            for (int attempt = 0; followed.size() < count && attempt < count * 20; attempt++) {
+                followed.add(themeSampler.sample(random));
+            }
+            for (int theme : followed) {
+                batch.add(firstUser + i, firstTheme + theme);
+            }
+        }
+        batch.finish();
+    }
+
+    private void insertArticles(SplittableRandom random, int firstId, int firstUser, int firstTheme,
+                                ZipfSampler themeSampler, ZipfSampler authorSampler, long now) {
+        BatchWriter batch = new BatchWriter("article",
+                "insert into MDD.article (id, title, theme_id, content, user_id, created_at) values (?, ?, ?, ?, ?, ?)");
+        for (int i = 0; i < articles; i++) {
+            int id = firstId + i;
+            batch.add(id, "Article " + id,
+                    firstTheme + themeSampler.sample(random),
+                    "Contenu de l’article " + id + ". " + "Lorem ipsum dolor sit amet. ".repeat(1 + random.nextInt(20)),
+                    firstUser + authorSampler.sample(random),
+                    new Timestamp(articleCreatedAt(i, now)));
+        }
+        batch.finish();
+    }
+
+    /**
+     * Répartit les commentaires : une part {@code hot-comment-share} sur les articles chauds
+     * (une fraction {@code hot-article-ratio} des articles, répartie sur toute la période), le reste
+     * uniformément ; chaque commentaire
+     * est daté après son article.
+     */
+    private void insertComments(SplittableRandom random, int firstArticle, int firstUser, long now) {
+        BatchWriter batch = new BatchWriter("comment",
+                "insert into MDD.comment (content, author_id, article_id, created_at) values (?, ?, ?, ?)");
+        int hotArticles = Math.max(1, (int) (articles * hotArticleRatio));
+        for (int i = 0; i < comments; i++) {
+            int article = random.nextDouble() < hotCommentShare
+                    ? random.nextInt(hotArticles) * (articles / hotArticles)
+                    : random.nextInt(articles);
+            long articleCreatedAt = articleCreatedAt(article, now);
+            long createdAt = articleCreatedAt + (long) (random.nextDouble() * (now - articleCreatedAt));
+            batch.add("Commentaire " + i, firstUser + random.nextInt(users), firstArticle + article,
+                    new Timestamp(createdAt));
+        }
+        batch.finish();
+    }
+
+    /**
+     * Date de création du {@code index}-ième article généré : les articles sont répartis sur
+     * l’année écoulée, dans l’ordre de leurs identifiants.
+     */
+    private long articleCreatedAt(int index, long now) {
+        return now - HISTORY_MILLIS + (long) ((double) index / articles * HISTORY_MILLIS);
+    }
+
+    private int nextId(String table) {
+        Integer max = jdbcTemplate.queryForObject("select max(id) from " + table, Integer.class);
+        return max == null ? 1 : max + 1;
+    }
+
+    /**
+     * Accumule les lignes d’une table et les insère par lots de {@code dataset.batch-size}.
+     */
+    private final class BatchWriter {
+
+        private final String table;
+        private final String sql;
+        private final List<Object[]> rows = new ArrayList<>(batchSize);
+        private final long start = System.nanoTime();
+        private long written;
+
+        BatchWriter(String table, String sql) {
+            this.table = table;
+            this.sql = sql;
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+            if (rows.size() == batchSize) {
+                flush();
+            }
+        }
+
+        void finish() {
+            flush();
+            double seconds = Math.max((System.nanoTime() - start) / 1e9, 1e-3);
+            log.info("{}: {} rows in {} s ({} rows/s)", table, written,
+                    String.format("%.1f", seconds), Math.round(written / seconds));
+        }
+
+        private void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.batchUpdate(sql, rows);
+            written += rows.size();
+            rows.clear();
+        }
+    }
+}
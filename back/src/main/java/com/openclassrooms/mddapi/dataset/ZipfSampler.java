@@ -0,0 +1,49 @@
+package com.openclassrooms.mddapi.dataset;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Tire des rangs {@code 0..n-1} selon une loi de Zipf : le rang {@code k} a une probabilité
+ * proportionnelle à {@code 1 / (k + 1)^s}.
+ * <p>
+ * La fonction de répartition est précalculée une fois ; chaque tirage est une recherche dichotomique.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+class ZipfSampler {
+
+    /** Fonction de répartition cumulée, normalisée à 1. */
+    private final double[] cdf;
+
+    /**
+     * Précalcule la répartition de {@code n} rangs pour l’exposant {@code s}.
+     *
+     * @param n nombre de rangs.
+     * @param s exposant de la loi (0 : uniforme ; plus il est grand, plus les premiers rangs dominent).
+     */
+    ZipfSampler(int n, double s) {
+        cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1.0, s);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= sum;
+        }
+    }
+
+    /**
+     * Tire un rang.
+     *
+     * @param random générateur aléatoire.
+     * @return un rang entre {@code 0} et {@code n - 1}.
+     */
+    int sample(SplittableRandom random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+    }
+}
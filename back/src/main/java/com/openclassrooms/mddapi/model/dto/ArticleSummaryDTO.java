@@ -0,0 +1,61 @@
+package com.openclassrooms.mddapi.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Représente le résumé d’un article, renvoyé par les endpoints de liste (fil d’actualité, articles d’un thème…).
+ * <p>
+ * Contrairement à {@link ArticleDTO}, le résumé ne porte pas le contenu complet de l’article
+ * (jusqu’à 2500 caractères) mais seulement un extrait de
+ * {@link com.openclassrooms.mddapi.config.Constants#EXCERPT_LENGTH} caractères, tronqué par la base de données :
+ * les lignes lues, les octets transférés et le JSON produit sont ainsi nettement plus légers.
+ * Le contenu complet n’est chargé que par la consultation d’un article.
+ * </p>
+ *
+ * <p>
+ * Les instances sont construites directement par les requêtes JPQL de
+ * {@link com.openclassrooms.mddapi.repositories.ArticleDAO} ; l’ordre des champs est donc celui
+ * attendu par ces requêtes.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class ArticleSummaryDTO implements Serializable {
+
+    /** Identifiant unique de la classe pour la sérialisation. */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** Identifiant unique de l’article. */
+    private int id;
+
+    /** Titre de l’article. */
+    private String title;
+
+    /** Identifiant du thème auquel l’article est associé. */
+    private int themeId;
+
+    /** Identifiant de l’auteur de l’article. */
+    private int authorId;
+
+    /** Nom d’utilisateur (username) de l’auteur. */
+    private String authorUsername;
+
+    /** Date de création de l’article. */
+    private Date createdAt;
+
+    /** Début du contenu de l’article. */
+    private String excerpt;
+}
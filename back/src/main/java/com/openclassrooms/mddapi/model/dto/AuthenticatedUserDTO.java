@@ -0,0 +1,36 @@
+package com.openclassrooms.mddapi.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Représente l’utilisateur authentifié d’une requête, réduit à son identité.
+ * <p>
+ * Contrairement à {@link UserDTO}, cet objet ne porte ni mot de passe ni thèmes suivis. Il est construit
+ * à partir de l’utilisateur du cache {@code principals}, vérifié contre les claims {@code sub} et {@code uid}
+ * du jeton : son nom d’utilisateur est le nom courant, et non celui de l’émission du jeton.
+ * </p>
+ *
+ * <p>
+ * Il est immuable : {@link Getter} et {@link AllArgsConstructor} de Lombok
+ * génèrent les accesseurs et le constructeur.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class AuthenticatedUserDTO {
+
+    /** Identifiant de l’utilisateur. */
+    private final int id;
+
+    /** Adresse e-mail de l’utilisateur (claim {@code sub}). */
+    private final String email;
+
+    /** Nom d’utilisateur courant. */
+    private final String username;
+}
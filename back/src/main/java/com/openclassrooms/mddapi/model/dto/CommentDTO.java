@@ -51,4 +51,7 @@ public class CommentDTO {
 
     /** Date de création du commentaire. */
     private Date createdAt;
+
+    /** Nom d’utilisateur de l’auteur du commentaire. */
+    private String authorUsername;
 }
@@ -0,0 +1,56 @@
+package com.openclassrooms.mddapi.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Représente une page de résultats paginée par curseur (pagination « keyset »).
+ * <p>
+ * Contrairement à une pagination par {@code OFFSET}, la page suivante est désignée
+ * par un curseur opaque encodant la position du dernier élément renvoyé
+ * (date de création et identifiant). Le coût de lecture d’une page reste ainsi
+ * constant, quelle que soit la profondeur de défilement.
+ * </p>
+ *
+ * <p>
+ * Annotée avec les annotations Lombok :
+ * <ul>
+ *     <li>{@link Data} — génère automatiquement les getters, setters, equals, hashCode et toString,</li>
+ *     <li>{@link Builder} — permet la création fluide d’instances via un builder,</li>
+ *     <li>{@link NoArgsConstructor} et {@link AllArgsConstructor} — fournissent les constructeurs nécessaires.</li>
+ * </ul>
+ * </p>
+ *
+ * @param <T> le type des éléments de la page.
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class CursorPageDTO<T> {
+
+    /** Éléments de la page courante. */
+    private List<T> items;
+
+    /** Curseur à transmettre pour obtenir la page suivante, {@code null} s’il n’y en a pas. */
+    private String nextCursor;
+
+    /** Nombre total d’éléments de la liste parcourue, {@code null} s’il n’est pas calculé. */
+    private Long total;
+
+    /**
+     * Construit une page sans total.
+     *
+     * @param items      éléments de la page courante.
+     * @param nextCursor curseur de la page suivante, {@code null} s’il n’y en a pas.
+     */
+    public CursorPageDTO(List<T> items, String nextCursor) {
+        this(items, nextCursor, null);
+    }
+}
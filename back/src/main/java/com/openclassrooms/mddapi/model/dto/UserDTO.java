@@ -1,6 +1,6 @@
 package com.openclassrooms.mddapi.model.dto;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -61,8 +61,8 @@ public class UserDTO implements Serializable {
     /** Nom d’utilisateur (pseudo) visible dans l’application. */
     private String username;
 
-    /** Mot de passe de l’utilisateur. Peut être masqué lors de la sérialisation JSON. */
-    @JsonIgnore
+    /** Mot de passe de l’utilisateur. Lu à l’inscription et à la mise à jour du profil, jamais renvoyé en JSON. */
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
 
     /** Liste des thèmes suivis par l’utilisateur. */
@@ -32,7 +32,11 @@ import java.util.Date;
  */
 @Entity
 @Data
-@Table(name = "article", schema = "MDD")
+@Table(name = "article", schema = "MDD", indexes = {
+        @Index(name = "idx_article_theme_created", columnList = "theme_id, created_at, id"),
+        @Index(name = "idx_article_created", columnList = "created_at, id"),
+        @Index(name = "idx_article_theme_version", columnList = "theme_id, updateAt, created_at")
+})
 public class Article {
 
     /** Identifiant unique de l’article (clé primaire auto-incrémentée). */
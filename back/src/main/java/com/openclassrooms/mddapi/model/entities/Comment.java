@@ -32,7 +32,11 @@ import java.util.Date;
  */
 @Entity
 @Data
-@Table(name = "comment", schema = "MDD")
+@Table(name = "comment", schema = "MDD", indexes = {
+        @Index(name = "idx_comment_article_created", columnList = "article_id, created_at, id"),
+        @Index(name = "idx_comment_author_created", columnList = "author_id, created_at, id"),
+        @Index(name = "idx_comment_created", columnList = "created_at, id")
+})
 public class Comment implements Serializable {
 
     /** Identifiant unique du commentaire (clé primaire auto-incrémentée). */
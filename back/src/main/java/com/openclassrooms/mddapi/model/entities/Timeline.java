@@ -0,0 +1,37 @@
+package com.openclassrooms.mddapi.model.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * Représente l’état du fil d’actualité matérialisé d’un utilisateur.
+ * <p>
+ * Cette entité est mappée à la table {@code timeline} du schéma {@code MDD}.
+ * Sa présence indique que les entrées de {@link TimelineEntry} de l’utilisateur
+ * ont été construites et sont tenues à jour à l’écriture (fan-out) : elles font
+ * alors foi pour la lecture du fil.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "timeline", schema = "MDD")
+public class Timeline {
+
+    /** Identifiant de l’utilisateur propriétaire du fil. */
+    @Id
+    @Column(name = "user_id")
+    private int userId;
+
+    /** Date à laquelle le fil a été (re)construit. */
+    @Column(name = "materialized_at")
+    private Date materializedAt;
+}
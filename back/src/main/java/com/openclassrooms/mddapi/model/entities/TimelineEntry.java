@@ -0,0 +1,91 @@
+package com.openclassrooms.mddapi.model.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.util.Date;
+
+/**
+ * Représente une entrée du fil d’actualité matérialisé d’un utilisateur.
+ * <p>
+ * Cette entité est mappée à la table {@code timeline_entry} du schéma {@code MDD}.
+ * Chaque entrée référence un article publié dans un thème suivi par l’utilisateur ;
+ * le thème et la date de création de l’article y sont recopiés afin de pouvoir
+ * trier le fil et le purger lors d’un désabonnement sans jointure.
+ * </p>
+ *
+ * <p>
+ * L’entité implémente {@link Persistable} : les entrées créées par l’application sont
+ * toujours nouvelles, ce qui permet à Spring Data de les insérer directement
+ * sans {@code SELECT} préalable.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@IdClass(TimelineEntryId.class)
+@Table(name = "timeline_entry", schema = "MDD", indexes = {
+        @Index(name = "idx_timeline_entry_user_created", columnList = "user_id, created_at, article_id"),
+        @Index(name = "idx_timeline_entry_article", columnList = "article_id")
+})
+public class TimelineEntry implements Persistable<TimelineEntryId> {
+
+    /** Identifiant de l’utilisateur propriétaire du fil. */
+    @Id
+    @Column(name = "user_id")
+    private int userId;
+
+    /** Identifiant de l’article. */
+    @Id
+    @Column(name = "article_id")
+    private int articleId;
+
+    /** Identifiant du thème de l’article. */
+    @Column(name = "theme_id")
+    private int themeId;
+
+    /** Date de création de l’article, utilisée pour le tri du fil. */
+    @Column(name = "created_at")
+    private Date createdAt;
+
+    /** Indique si l’entrée n’a pas encore été persistée. */
+    @Transient
+    private boolean newEntry = true;
+
+    /**
+     * Crée une entrée de fil pour un article.
+     *
+     * @param userId    l’identifiant de l’utilisateur propriétaire du fil.
+     * @param articleId l’identifiant de l’article.
+     * @param themeId   l’identifiant du thème de l’article.
+     * @param createdAt la date de création de l’article.
+     */
+    public TimelineEntry(int userId, int articleId, int themeId, Date createdAt) {
+        this.userId = userId;
+        this.articleId = articleId;
+        this.themeId = themeId;
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public TimelineEntryId getId() {
+        return new TimelineEntryId(userId, articleId);
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntry;
+    }
+
+    /** Marque l’entrée comme persistée après chargement ou insertion. */
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntry = false;
+    }
+}
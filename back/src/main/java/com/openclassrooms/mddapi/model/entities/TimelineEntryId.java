@@ -0,0 +1,31 @@
+package com.openclassrooms.mddapi.model.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Clé composite d’une {@link TimelineEntry} : un article apparaît au plus une fois
+ * dans le fil d’un utilisateur.
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimelineEntryId implements Serializable {
+
+    /** Identifiant unique de la classe pour la sérialisation. */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** Identifiant de l’utilisateur propriétaire du fil. */
+    private int userId;
+
+    /** Identifiant de l’article présent dans le fil. */
+    private int articleId;
+}
@@ -0,0 +1,32 @@
+package com.openclassrooms.mddapi.model.projections;
+
+import java.util.Date;
+
+/**
+ * Projection décrivant la version d’un ensemble de lignes (articles d’un thème, commentaires d’un article…).
+ * <p>
+ * Elle est obtenue par une seule requête d’agrégat, couverte par un index, et sert à calculer
+ * l’ETag d’une réponse sans exécuter la requête complète ni sérialiser son contenu :
+ * toute création, modification ou suppression d’une ligne fait évoluer au moins une de ses valeurs.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+public interface ContentVersion {
+
+    /**
+     * @return le nombre de lignes de l’ensemble.
+     */
+    Long getCount();
+
+    /**
+     * @return le plus grand identifiant de l’ensemble, ou {@code null} s’il est vide.
+     */
+    Integer getMaxId();
+
+    /**
+     * @return la date de dernière création ou modification, ou {@code null} si elle n’est pas suivie.
+     */
+    Date getLastModified();
+}
@@ -1,10 +1,20 @@
 package com.openclassrooms.mddapi.repositories;
 
+import com.openclassrooms.mddapi.model.dto.ArticleSummaryDTO;
 import com.openclassrooms.mddapi.model.entities.Article;
+import com.openclassrooms.mddapi.model.projections.ContentVersion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
+import static com.openclassrooms.mddapi.config.Constants.EXCERPT_LENGTH;
+
 /**
  * Interface de gestion des opérations de persistance pour les entités {@link Article}.
  * <p>
@@ -42,6 +52,29 @@ public interface ArticleDAO extends JpaRepository<Article, Integer> {
      */
     List<Article> findAll();
 
+    /**
+     * Projection commune aux requêtes de liste : le résumé de l’article, joint à son auteur pour renseigner
+     * directement le nom d’utilisateur. Le contenu est tronqué par la base à
+     * {@link com.openclassrooms.mddapi.config.Constants#EXCERPT_LENGTH} caractères.
+     */
+    String ARTICLE_SUMMARY = "select new com.openclassrooms.mddapi.model.dto.ArticleSummaryDTO("
+            + "a.id, a.title, a.themeId, a.authorId, author.username, a.createdAt, "
+            + "substring(a.content, 1, " + EXCERPT_LENGTH + ")) ";
+
+    /**
+     * Récupère une tranche (page sans comptage total) des résumés de l’ensemble des articles.
+     * <p>
+     * Contrairement à {@link #findAll()}, seule la page demandée est chargée, et aucune
+     * requête {@code COUNT} n’est exécutée : la présence d’une page suivante est déduite
+     * de la lecture d’un élément supplémentaire.
+     * </p>
+     *
+     * @param pageable la page, sa taille et le tri souhaités.
+     * @return la tranche de résumés correspondante.
+     */
+    @Query(ARTICLE_SUMMARY + "from Article a left join User author on author.id = a.authorId")
+    Slice<ArticleSummaryDTO> findSummariesBy(Pageable pageable);
+
     /**
      * Supprime un article en fonction de son identifiant.
      *
@@ -50,10 +83,118 @@ public interface ArticleDAO extends JpaRepository<Article, Integer> {
     void deleteById(Integer id);
 
     /**
-     * Récupère la liste des articles associés à un thème donné.
+     * Récupère, avec le nom d’utilisateur de leur auteur, les résumés des articles associés à un thème donné.
      *
      * @param themeId l’identifiant du thème.
-     * @return une liste d’articles appartenant au thème spécifié.
+     * @return une liste de résumés des articles appartenant au thème spécifié.
+     */
+    @Query(ARTICLE_SUMMARY + "from Article a left join User author on author.id = a.authorId "
+            + "where a.themeId = :themeId")
+    List<ArticleSummaryDTO> findSummariesByThemeId(@Param("themeId") int themeId);
+
+    /**
+     * Projection commune aux requêtes du fil d’actualité : articles des thèmes suivis par
+     * {@code :userId}, joints à leur auteur pour renseigner directement le nom d’utilisateur.
+     */
+    String FOLLOWED_ARTICLES = ARTICLE_SUMMARY
+            + "from User u join u.followedThemes t "
+            + "join Article a on a.themeId = t.id "
+            + "left join User author on author.id = a.authorId "
+            + "where u.id = :userId ";
+
+    /** Tri du fil d’actualité : du plus récent au plus ancien, l’identifiant départageant les égalités. */
+    String NEWEST_FIRST = "order by a.createdAt desc, a.id desc";
+
+    /**
+     * Récupère, en une seule requête, la première page du fil d’actualité d’un utilisateur.
+     * <p>
+     * La requête joint la table de jointure {@code follow}, la table {@code article}
+     * et la table {@code user} (auteur) : les articles sont renvoyés directement sous forme
+     * de {@link ArticleSummaryDTO}, triés du plus récent au plus ancien, avec le nom d’utilisateur
+     * de l’auteur déjà renseigné.
+     * </p>
+     *
+     * @param userId   l’identifiant de l’utilisateur connecté.
+     * @param pageable la taille de page (seule la limite est utilisée, sans {@code OFFSET}).
+     * @return les articles les plus récents des thèmes suivis.
+     */
+    @Query(FOLLOWED_ARTICLES + NEWEST_FIRST)
+    List<ArticleSummaryDTO> findFollowedArticles(@Param("userId") int userId, Pageable pageable);
+
+    /**
+     * Récupère une page du fil d’actualité située strictement après un curseur {@code (createdAt, id)}.
+     * <p>
+     * La condition de continuation s’appuie sur l’index {@code (theme_id, created_at, id)} :
+     * le coût d’une page reste constant quelle que soit la profondeur de défilement,
+     * contrairement à une pagination par {@code OFFSET}.
+     * </p>
+     *
+     * @param userId    l’identifiant de l’utilisateur connecté.
+     * @param createdAt la date de création du dernier article de la page précédente.
+     * @param id        l’identifiant du dernier article de la page précédente.
+     * @param pageable  la taille de page (seule la limite est utilisée).
+     * @return les articles suivants, du plus récent au plus ancien.
+     */
+    @Query(FOLLOWED_ARTICLES
+            + "and (a.createdAt < :createdAt or (a.createdAt = :createdAt and a.id < :id)) "
+            + NEWEST_FIRST)
+    List<ArticleSummaryDTO> findFollowedArticlesBefore(@Param("userId") int userId,
+                                                       @Param("createdAt") Date createdAt,
+                                                       @Param("id") int id,
+                                                       Pageable pageable);
+
+    /**
+     * Récupère les articles des thèmes suivis publiés après un identifiant donné, du plus ancien au plus récent.
+     * <p>
+     * Utilisée pour reprendre un flux d’articles interrompu ({@code Last-Event-ID}).
+     * </p>
+     *
+     * @param userId   l’identifiant de l’utilisateur connecté.
+     * @param id       l’identifiant du dernier article reçu.
+     * @param pageable la limite du nombre d’articles à lire.
+     * @return les articles publiés depuis, par identifiant croissant.
+     */
+    @Query(FOLLOWED_ARTICLES + "and a.id > :id order by a.id")
+    List<ArticleSummaryDTO> findFollowedArticlesAfterId(@Param("userId") int userId,
+                                                        @Param("id") int id,
+                                                        Pageable pageable);
+
+    /**
+     * Récupère, avec le nom d’utilisateur de leur auteur, les résumés des articles correspondant à une liste d’identifiants.
+     * <p>
+     * Utilisée pour hydrater une page du fil matérialisé ou des résultats de recherche : l’ordre n’est pas garanti
+     * et doit être rétabli par l’appelant.
+     * </p>
+     *
+     * @param ids les identifiants des articles.
+     * @return les résumés des articles trouvés.
+     */
+    @Query(ARTICLE_SUMMARY + "from Article a left join User author on author.id = a.authorId "
+            + "where a.id in :ids")
+    List<ArticleSummaryDTO> findSummariesByIds(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Calcule la version de l’ensemble des articles d’une liste de thèmes.
+     * <p>
+     * Requête d’agrégat unique, couverte par l’index {@code (theme_id, updateAt, created_at)}.
+     * </p>
+     *
+     * @param themeIds les identifiants des thèmes (non vide).
+     * @return le nombre d’articles, le plus grand identifiant et la date de dernière modification.
+     */
+    @Query("select count(a) as count, max(a.id) as maxId, max(coalesce(a.updatedAt, a.createdAt)) as lastModified "
+            + "from Article a where a.themeId in :themeIds")
+    ContentVersion findVersionOfThemes(@Param("themeIds") Collection<Integer> themeIds);
+
+    /**
+     * Calcule la version de l’ensemble des articles.
+     * <p>
+     * Sert à vérifier, au démarrage, que l’index de recherche conservé sur disque correspond encore à la base.
+     * </p>
+     *
+     * @return le nombre d’articles, le plus grand identifiant et la date de dernière modification.
      */
-    List<Article> findArticlesByThemeId(int themeId);
+    @Query("select count(a) as count, max(a.id) as maxId, max(coalesce(a.updatedAt, a.createdAt)) as lastModified "
+            + "from Article a")
+    ContentVersion findVersion();
 }
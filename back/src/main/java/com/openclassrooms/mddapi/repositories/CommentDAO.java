@@ -1,10 +1,18 @@
 package com.openclassrooms.mddapi.repositories;
 
 import com.openclassrooms.mddapi.model.entities.Comment;
+import com.openclassrooms.mddapi.model.projections.ContentVersion;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Date;
 import java.util.List;
 
+import static com.openclassrooms.mddapi.config.Constants.COMMENTS_TOTAL_CACHE;
+
 /**
  * Interface de gestion des opérations de persistance pour les entités {@link Comment}.
  * <p>
@@ -23,6 +31,12 @@ import java.util.List;
  */
 public interface CommentDAO extends JpaRepository<Comment, Long> {
 
+    /** Condition de continuation d’une page après un curseur {@code (createdAt, id)}. */
+    String AFTER_CURSOR = "(c.createdAt > :createdAt or (c.createdAt = :createdAt and c.id > :id)) ";
+
+    /** Ordre de lecture des pages : du plus ancien au plus récent, comme une conversation. */
+    String OLDEST_FIRST = "order by c.createdAt, c.id";
+
     /**
      * Récupère la liste de tous les commentaires publiés par un auteur spécifique.
      *
@@ -58,4 +72,164 @@ public interface CommentDAO extends JpaRepository<Comment, Long> {
      * @return le commentaire persistant sauvegardé.
      */
     Comment save(Comment comment);
+
+    /**
+     * Calcule la version de l’ensemble des commentaires d’un article.
+     * <p>
+     * Requête d’agrégat unique, couverte par l’index {@code (article_id, created_at, id)}.
+     * </p>
+     *
+     * @param articleId l’identifiant de l’article.
+     * @return le nombre de commentaires, le plus grand identifiant et la date du dernier commentaire.
+     */
+    @Query("select count(c) as count, max(c.id) as maxId, max(c.createdAt) as lastModified "
+            + "from Comment c where c.articleId = :articleId")
+    ContentVersion findVersionOfArticle(@Param("articleId") int articleId);
+
+    /**
+     * Récupère la première page des commentaires d’un article.
+     *
+     * @param articleId l’identifiant de l’article.
+     * @param pageable  la taille de page (seule la limite est utilisée, sans {@code OFFSET}).
+     * @return les commentaires les plus anciens de l’article.
+     */
+    @Query("select c from Comment c where c.articleId = :articleId " + OLDEST_FIRST)
+    List<Comment> findPageOfArticle(@Param("articleId") int articleId, Pageable pageable);
+
+    /**
+     * Récupère une page des commentaires d’un article située strictement après un curseur {@code (createdAt, id)}.
+     * <p>
+     * La condition de continuation s’appuie sur l’index {@code (article_id, created_at, id)} :
+     * le coût d’une page reste constant quelle que soit sa profondeur.
+     * </p>
+     *
+     * @param articleId l’identifiant de l’article.
+     * @param createdAt la date de création du dernier commentaire de la page précédente.
+     * @param id        l’identifiant du dernier commentaire de la page précédente.
+     * @param pageable  la taille de page (seule la limite est utilisée).
+     * @return les commentaires suivants.
+     */
+    @Query("select c from Comment c where c.articleId = :articleId and " + AFTER_CURSOR + OLDEST_FIRST)
+    List<Comment> findPageOfArticleAfter(@Param("articleId") int articleId,
+                                         @Param("createdAt") Date createdAt,
+                                         @Param("id") int id,
+                                         Pageable pageable);
+
+    /**
+     * Récupère la première page des commentaires d’un auteur.
+     *
+     * @param authorId l’identifiant de l’auteur.
+     * @param pageable la taille de page (seule la limite est utilisée).
+     * @return les commentaires les plus anciens de l’auteur.
+     */
+    @Query("select c from Comment c where c.authorId = :authorId " + OLDEST_FIRST)
+    List<Comment> findPageOfAuthor(@Param("authorId") int authorId, Pageable pageable);
+
+    /**
+     * Récupère une page des commentaires d’un auteur située strictement après un curseur,
+     * par l’index {@code (author_id, created_at, id)}.
+     *
+     * @param authorId  l’identifiant de l’auteur.
+     * @param createdAt la date de création du dernier commentaire de la page précédente.
+     * @param id        l’identifiant du dernier commentaire de la page précédente.
+     * @param pageable  la taille de page (seule la limite est utilisée).
+     * @return les commentaires suivants.
+     */
+    @Query("select c from Comment c where c.authorId = :authorId and " + AFTER_CURSOR + OLDEST_FIRST)
+    List<Comment> findPageOfAuthorAfter(@Param("authorId") int authorId,
+                                        @Param("createdAt") Date createdAt,
+                                        @Param("id") int id,
+                                        Pageable pageable);
+
+    /**
+     * Récupère la première page des commentaires d’un auteur sur un article.
+     *
+     * @param authorId  l’identifiant de l’auteur.
+     * @param articleId l’identifiant de l’article.
+     * @param pageable  la taille de page (seule la limite est utilisée).
+     * @return les commentaires les plus anciens de l’auteur sur cet article.
+     */
+    @Query("select c from Comment c where c.authorId = :authorId and c.articleId = :articleId " + OLDEST_FIRST)
+    List<Comment> findPageOfAuthorAndArticle(@Param("authorId") int authorId,
+                                             @Param("articleId") int articleId,
+                                             Pageable pageable);
+
+    /**
+     * Récupère une page des commentaires d’un auteur sur un article située strictement après un curseur.
+     *
+     * @param authorId  l’identifiant de l’auteur.
+     * @param articleId l’identifiant de l’article.
+     * @param createdAt la date de création du dernier commentaire de la page précédente.
+     * @param id        l’identifiant du dernier commentaire de la page précédente.
+     * @param pageable  la taille de page (seule la limite est utilisée).
+     * @return les commentaires suivants.
+     */
+    @Query("select c from Comment c where c.authorId = :authorId and c.articleId = :articleId and "
+            + AFTER_CURSOR + OLDEST_FIRST)
+    List<Comment> findPageOfAuthorAndArticleAfter(@Param("authorId") int authorId,
+                                                  @Param("articleId") int articleId,
+                                                  @Param("createdAt") Date createdAt,
+                                                  @Param("id") int id,
+                                                  Pageable pageable);
+
+    /**
+     * Récupère la première page de l’ensemble des commentaires.
+     *
+     * @param pageable la taille de page (seule la limite est utilisée).
+     * @return les commentaires les plus anciens.
+     */
+    @Query("select c from Comment c " + OLDEST_FIRST)
+    List<Comment> findPage(Pageable pageable);
+
+    /**
+     * Récupère une page de l’ensemble des commentaires située strictement après un curseur,
+     * par l’index {@code (created_at, id)}.
+     *
+     * @param createdAt la date de création du dernier commentaire de la page précédente.
+     * @param id        l’identifiant du dernier commentaire de la page précédente.
+     * @param pageable  la taille de page (seule la limite est utilisée).
+     * @return les commentaires suivants.
+     */
+    @Query("select c from Comment c where " + AFTER_CURSOR + OLDEST_FIRST)
+    List<Comment> findPageAfter(@Param("createdAt") Date createdAt, @Param("id") int id, Pageable pageable);
+
+    /**
+     * Compte les commentaires d’un article, par un parcours de l’index {@code (article_id, created_at, id)}
+     * limité à l’article, sans lire la table.
+     *
+     * @param articleId l’identifiant de l’article.
+     * @return le nombre de commentaires de l’article.
+     */
+    long countByArticleId(int articleId);
+
+    /**
+     * Compte les commentaires d’un auteur, par l’index {@code (author_id, created_at, id)}.
+     *
+     * @param authorId l’identifiant de l’auteur.
+     * @return le nombre de commentaires de l’auteur.
+     */
+    long countByAuthorId(int authorId);
+
+    /**
+     * Compte les commentaires d’un auteur sur un article, par l’index {@code (article_id, created_at, id)}.
+     *
+     * @param authorId  l’identifiant de l’auteur.
+     * @param articleId l’identifiant de l’article.
+     * @return le nombre de commentaires correspondants.
+     */
+    long countByAuthorIdAndArticleId(int authorId, int articleId);
+
+    /**
+     * Compte l’ensemble des commentaires.
+     * <p>
+     * Ce comptage parcourt tout un index : son résultat est conservé dans le cache {@code commentsTotal}
+     * pendant {@code mdd.cache.comments-total.ttl}, et n’est donc recalculé qu’une fois par période,
+     * quel que soit le nombre de lectures.
+     * </p>
+     *
+     * @return le nombre total de commentaires, éventuellement en retard d’une période.
+     */
+    @Cacheable(COMMENTS_TOTAL_CACHE)
+    @Query("select count(c) from Comment c")
+    long countAll();
 }
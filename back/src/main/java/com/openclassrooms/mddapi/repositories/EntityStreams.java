@@ -0,0 +1,67 @@
+package com.openclassrooms.mddapi.repositories;
+
+import com.openclassrooms.mddapi.model.entities.Article;
+import com.openclassrooms.mddapi.model.entities.Comment;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+/**
+ * Lecture en flux de tables entières (exports NDJSON, reconstruction de l’index de recherche).
+ * <p>
+ * Les entités sont chargées en lecture seule, avec la taille de bloc {@code mdd.export.fetch-size}.
+ * Sa valeur par défaut, {@link Integer#MIN_VALUE}, fait lire le résultat en flux par MySQL Connector/J,
+ * ligne à ligne, pour ces seules requêtes : l’URL de connexion n’active pas {@code useCursorFetch},
+ * qui imposerait des requêtes préparées côté serveur à toute l’application. Tant que le flux est ouvert,
+ * sa connexion ne peut exécuter aucune autre requête.
+ * </p>
+ *
+ * <p>
+ * Les flux doivent être consommés dans une transaction, puis fermés.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Component
+public class EntityStreams {
+
+    /** Contexte de persistance de la transaction en cours. */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** Taille des blocs de lignes lus par le pilote JDBC. */
+    @Value("${mdd.export.fetch-size:" + Integer.MIN_VALUE + "}")
+    private int fetchSize;
+
+    /**
+     * Parcourt l’ensemble des articles par ordre d’identifiant, sans les charger tous en mémoire.
+     *
+     * @return le flux des articles.
+     */
+    public Stream<Article> articles() {
+        return stream("select a from Article a order by a.id", Article.class);
+    }
+
+    /**
+     * Parcourt l’ensemble des commentaires par ordre d’identifiant, sans les charger tous en mémoire.
+     *
+     * @return le flux des commentaires.
+     */
+    public Stream<Comment> comments() {
+        return stream("select c from Comment c order by c.id", Comment.class);
+    }
+
+    private <E> Stream<E> stream(String query, Class<E> type) {
+        return entityManager.createQuery(query, type)
+                .setHint(HINT_FETCH_SIZE, fetchSize)
+                .setHint(HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
@@ -0,0 +1,17 @@
+package com.openclassrooms.mddapi.repositories;
+
+import com.openclassrooms.mddapi.model.entities.Timeline;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Interface de gestion des opérations de persistance pour les entités {@link Timeline}.
+ * <p>
+ * Une ligne par utilisateur dont le fil d’actualité a été matérialisé.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+public interface TimelineDAO extends JpaRepository<Timeline, Integer> {
+    // Les opérations CRUD standard suffisent.
+}
@@ -0,0 +1,164 @@
+package com.openclassrooms.mddapi.repositories;
+
+import com.openclassrooms.mddapi.model.entities.TimelineEntry;
+import com.openclassrooms.mddapi.model.entities.TimelineEntryId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Interface de gestion des opérations de persistance pour les entités {@link TimelineEntry}.
+ * <p>
+ * Elle fournit la lecture du fil matérialisé d’un utilisateur, son alimentation (construction,
+ * publication, abonnement) et les purges (désabonnement, suppression d’article, dépassement de capacité).
+ * </p>
+ *
+ * <p>
+ * Les insertions sont des {@code insert … select} : une seule requête par opération, quel que soit
+ * le nombre d’abonnés. Elles n’insèrent que les entrées encore absentes du fil, et peuvent donc être
+ * rejouées après un conflit avec une écriture concurrente du même article.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+public interface TimelineEntryDAO extends JpaRepository<TimelineEntry, TimelineEntryId> {
+
+    /**
+     * Récupère les entrées les plus récentes du fil d’un utilisateur.
+     *
+     * @param userId   l’identifiant de l’utilisateur.
+     * @param pageable la limite du nombre d’entrées à lire.
+     * @return les entrées, de la plus récente à la plus ancienne.
+     */
+    List<TimelineEntry> findByUserIdOrderByCreatedAtDescArticleIdDesc(int userId, Pageable pageable);
+
+    /**
+     * Récupère les identifiants des abonnés à un thème dont le fil est matérialisé.
+     * <p>
+     * Les abonnés dont le fil n’est pas encore matérialisé sont ignorés : leur fil sera
+     * construit à la première lecture et contiendra alors l’article publié.
+     * </p>
+     *
+     * @param themeId l’identifiant du thème.
+     * @return les identifiants des utilisateurs à alimenter.
+     */
+    @Query("select u.id from User u join u.followedThemes t "
+            + "where t.id = :themeId and exists (select 1 from Timeline tl where tl.userId = u.id)")
+    List<Integer> findMaterializedFollowerIds(@Param("themeId") int themeId);
+
+    /**
+     * Ajoute un article au fil de chacun des abonnés de son thème dont le fil est matérialisé.
+     *
+     * @param articleId l’identifiant de l’article publié.
+     * @param themeId   l’identifiant du thème de l’article.
+     * @param createdAt la date de création de l’article.
+     * @return le nombre d’entrées insérées.
+     */
+    @Modifying
+    @Query("insert into TimelineEntry (userId, articleId, themeId, createdAt) "
+            + "select u.id, :articleId, :themeId, :createdAt from User u join u.followedThemes t "
+            + "where t.id = :themeId and exists (select 1 from Timeline tl where tl.userId = u.id) "
+            + "and not exists (select 1 from TimelineEntry x where x.userId = u.id and x.articleId = :articleId)")
+    int fanOut(@Param("articleId") int articleId, @Param("themeId") int themeId, @Param("createdAt") Date createdAt);
+
+    /**
+     * Construit le fil d’un utilisateur à partir des articles les plus récents de ses thèmes suivis.
+     *
+     * @param userId   l’identifiant de l’utilisateur.
+     * @param capacity le nombre maximal d’entrées du fil.
+     * @return le nombre d’entrées insérées.
+     */
+    @Modifying
+    @Query("insert into TimelineEntry (userId, articleId, themeId, createdAt) "
+            + "select u.id, a.id, a.themeId, a.createdAt from User u join u.followedThemes t "
+            + "join Article a on a.themeId = t.id "
+            + "where u.id = :userId "
+            + "and not exists (select 1 from TimelineEntry x where x.userId = u.id and x.articleId = a.id) "
+            + "order by a.createdAt desc, a.id desc limit :capacity")
+    int fillFromFollowedThemes(@Param("userId") int userId, @Param("capacity") int capacity);
+
+    /**
+     * Ajoute au fil d’un utilisateur les articles les plus récents d’un thème (abonnement).
+     *
+     * @param userId   l’identifiant de l’utilisateur.
+     * @param themeId  l’identifiant du thème suivi.
+     * @param capacity le nombre maximal d’articles à ajouter.
+     * @return le nombre d’entrées insérées.
+     */
+    @Modifying
+    @Query("insert into TimelineEntry (userId, articleId, themeId, createdAt) "
+            + "select :userId, a.id, a.themeId, a.createdAt from Article a "
+            + "where a.themeId = :themeId "
+            + "and not exists (select 1 from TimelineEntry x where x.userId = :userId and x.articleId = a.id) "
+            + "order by a.createdAt desc, a.id desc limit :capacity")
+    int fillFromTheme(@Param("userId") int userId, @Param("themeId") int themeId, @Param("capacity") int capacity);
+
+    /**
+     * Récupère, parmi les abonnés d’un thème, ceux dont le fil dépasse sa capacité.
+     *
+     * @param themeId  l’identifiant du thème.
+     * @param capacity le nombre maximal d’entrées d’un fil.
+     * @return les identifiants des utilisateurs dont le fil est à purger.
+     */
+    @Query("select e.userId from TimelineEntry e "
+            + "where e.userId in (select u.id from User u join u.followedThemes t where t.id = :themeId) "
+            + "group by e.userId having count(e) > :capacity")
+    List<Integer> findFollowerIdsOverCapacity(@Param("themeId") int themeId, @Param("capacity") long capacity);
+
+    /**
+     * Supprime toutes les entrées du fil d’un utilisateur.
+     *
+     * @param userId l’identifiant de l’utilisateur.
+     */
+    @Modifying
+    @Query("delete from TimelineEntry e where e.userId = :userId")
+    void deleteByUserId(@Param("userId") int userId);
+
+    /**
+     * Supprime du fil d’un utilisateur les articles d’un thème (désabonnement).
+     *
+     * @param userId  l’identifiant de l’utilisateur.
+     * @param themeId l’identifiant du thème.
+     */
+    @Modifying
+    @Query("delete from TimelineEntry e where e.userId = :userId and e.themeId = :themeId")
+    void deleteByUserIdAndThemeId(@Param("userId") int userId, @Param("themeId") int themeId);
+
+    /**
+     * Récupère les utilisateurs dont le fil contient un article, par l’index {@code idx_timeline_entry_article}.
+     *
+     * @param articleId l’identifiant de l’article.
+     * @return les identifiants des utilisateurs concernés.
+     */
+    @Query("select e.userId from TimelineEntry e where e.articleId = :articleId")
+    List<Integer> findUserIdsByArticleId(@Param("articleId") int articleId);
+
+    /**
+     * Supprime un article de tous les fils (suppression ou changement de thème de l’article).
+     *
+     * @param articleId l’identifiant de l’article.
+     */
+    @Modifying
+    @Query("delete from TimelineEntry e where e.articleId = :articleId")
+    void deleteByArticleId(@Param("articleId") int articleId);
+
+    /**
+     * Supprime les entrées d’un fil situées au-delà d’une position donnée (dépassement de capacité).
+     *
+     * @param userId    l’identifiant de l’utilisateur.
+     * @param createdAt la date de création de la dernière entrée conservée.
+     * @param articleId l’identifiant de la dernière entrée conservée.
+     */
+    @Modifying
+    @Query("delete from TimelineEntry e where e.userId = :userId "
+            + "and (e.createdAt < :createdAt or (e.createdAt = :createdAt and e.articleId < :articleId))")
+    void deleteOlderThan(@Param("userId") int userId,
+                         @Param("createdAt") Date createdAt,
+                         @Param("articleId") int articleId);
+}
@@ -0,0 +1,41 @@
+package com.openclassrooms.mddapi.services;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Report des effets de bord d’une écriture après la validation de sa transaction.
+ * <p>
+ * Les traitements qui publient une écriture hors de la base (fils en mémoire, traitements asynchrones)
+ * ne doivent voir que des données validées : exécutés dans la transaction, ils pourraient précéder
+ * la validation ou survivre à une annulation. Partagé par les services et les canaux temps réel
+ * ({@code services.stream}).
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    /**
+     * Exécute un traitement après la validation de la transaction en cours, ou immédiatement
+     * s’il n’y en a pas. Le traitement n’est pas exécuté si la transaction est annulée.
+     *
+     * @param action le traitement à exécuter.
+     */
+    public static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,8 +1,14 @@
 package com.openclassrooms.mddapi.services;
 
 import com.openclassrooms.mddapi.model.dto.ArticleDTO;
+import com.openclassrooms.mddapi.model.dto.ArticleSummaryDTO;
+import com.openclassrooms.mddapi.model.dto.AuthenticatedUserDTO;
+import com.openclassrooms.mddapi.model.dto.CursorPageDTO;
 import com.openclassrooms.mddapi.model.dto.UserDTO;
+import org.springframework.data.domain.Slice;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 /**
@@ -29,27 +35,45 @@ import java.util.List;
 public interface ArticleService {
 
     /**
-     * Récupère la liste complète des articles disponibles.
+     * Récupère une page de l’ensemble des articles disponibles.
      *
-     * @return une liste de {@link ArticleDTO}.
+     * @param page le numéro de page (à partir de 0).
+     * @param size la taille de page demandée, bornée côté serveur.
+     * @param sort le tri souhaité sous la forme {@code propriete[,asc|desc]},
+     *             ou {@code null} pour le tri par défaut (du plus récent au plus ancien).
+     * @return une tranche de résumés d’articles ({@link ArticleSummaryDTO}).
+     * @throws IllegalArgumentException si le tri demandé n’est pas autorisé.
      */
-    List<ArticleDTO> getArticles();
+    Slice<ArticleSummaryDTO> getArticles(int page, Integer size, String sort);
+
+    /**
+     * Recherche des articles par texte intégral (titre et contenu), du plus pertinent au moins pertinent.
+     *
+     * @param text     le texte recherché.
+     * @param themeIds les thèmes auxquels restreindre la recherche, ou {@code null} pour tous les thèmes.
+     * @param page     le numéro de page (à partir de 0).
+     * @param size     la taille de page demandée, bornée côté serveur.
+     * @return une tranche de résumés d’articles ({@link ArticleSummaryDTO}).
+     * @throws IllegalArgumentException si le texte est vide ou si la page est trop profonde.
+     */
+    Slice<ArticleSummaryDTO> searchArticles(String text, List<Integer> themeIds, int page, Integer size);
 
     /**
      * Récupère tous les articles appartenant à un thème donné.
      *
      * @param id l’identifiant du thème.
-     * @return une liste d’articles liés à ce thème.
+     * @return une liste de résumés des articles liés à ce thème.
      */
-    List<ArticleDTO> getAllArticlesOfTheme(int id);
+    List<ArticleSummaryDTO> getAllArticlesOfTheme(int id);
 
     /**
      * Enregistre un nouvel article dans la base de données.
      *
      * @param article les informations de l’article à enregistrer.
+     * @param author  l’utilisateur authentifié, auteur de l’article.
      * @return l’article sauvegardé sous forme de {@link ArticleDTO}.
      */
-    ArticleDTO save(ArticleDTO article,int authorId);
+    ArticleDTO save(ArticleDTO article, AuthenticatedUserDTO author);
 
     /**
      * Met à jour un article existant, si l’utilisateur est bien son auteur.
@@ -86,10 +110,31 @@ public interface ArticleService {
     boolean checkArticle(int id);
 
     /**
-     * Récupère les articles liés aux thèmes suivis par un utilisateur.
+     * Récupère une page du fil d’actualité d’un utilisateur, paginée par curseur {@code (createdAt, id)}.
+     *
+     * @param user  l’utilisateur dont on veut les articles suivis.
+     * @param after le curseur renvoyé par la page précédente, ou {@code null} pour la première page.
+     * @param limit la taille de page demandée, bornée côté serveur.
+     * @return la page d’articles et le curseur de la page suivante.
+     * @throws IllegalArgumentException si le curseur est invalide.
+     */
+    CursorPageDTO<ArticleSummaryDTO> getFollowedArticlesPage(UserDTO user, String after, Integer limit);
+
+    /**
+     * Calcule la version d’une page du fil d’un utilisateur, sans la construire.
+     *
+     * @param user  l’utilisateur dont on souhaite lire le fil.
+     * @param after le curseur de la page demandée, ou {@code null} pour la première page.
+     * @param limit la taille de page demandée.
+     * @return l’étiquette de version (ETag) de la page.
+     */
+    String getFollowedArticlesVersion(UserDTO user, String after, Integer limit);
+
+    /**
+     * Exporte l’ensemble des articles au format NDJSON, en flux, sans les charger tous en mémoire.
      *
-     * @param user l’utilisateur dont on veut les articles suivis.
-     * @return une liste d’articles correspondant aux thèmes suivis.
+     * @param out le flux de sortie dans lequel écrire les articles.
+     * @throws IOException en cas d’erreur d’écriture.
      */
-    List<ArticleDTO> getAllFollowedArticles(UserDTO user);
+    void exportArticles(OutputStream out) throws IOException;
 }
@@ -1,8 +1,11 @@
 package com.openclassrooms.mddapi.services;
 
+import com.openclassrooms.mddapi.model.dto.AuthenticatedUserDTO;
 import com.openclassrooms.mddapi.model.dto.CommentDTO;
+import com.openclassrooms.mddapi.model.dto.CursorPageDTO;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  * Service définissant les opérations métier liées à la gestion des commentaires.
@@ -13,6 +16,8 @@ import java.util.List;
  *     <li>Récupérer les commentaires associés à un article ou à un utilisateur,</li>
  *     <li>Ajouter un commentaire à un article existant.</li>
  * </ul>
+ * Les listes sont paginées par curseur {@code (createdAt, id)}, du plus ancien au plus récent,
+ * et accompagnées de leur nombre total d’éléments.
  * </p>
  *
  * <p>
@@ -25,44 +30,78 @@ import java.util.List;
 public interface CommentService {
 
     /**
-     * Récupère la liste complète de tous les commentaires.
+     * Récupère une page de l’ensemble des commentaires.
      *
-     * @return une liste de {@link CommentDTO}.
+     * @param after le curseur renvoyé par la page précédente, ou {@code null} pour la première page.
+     * @param limit la taille de page demandée, bornée côté serveur.
+     * @return la page de {@link CommentDTO}, le curseur de la page suivante et le nombre total de commentaires.
+     * @throws IllegalArgumentException si le curseur est invalide.
      */
-    List<CommentDTO> getAllComments();
+    CursorPageDTO<CommentDTO> getComments(String after, Integer limit);
 
     /**
-     * Récupère tous les commentaires liés à un article spécifique.
+     * Récupère une page des commentaires liés à un article spécifique.
      *
-     * @param id l’identifiant de l’article.
-     * @return une liste de {@link CommentDTO} associés à cet article.
+     * @param reader l’utilisateur authentifié, dont les commentaires en attente d’écriture sont inclus.
+     * @param id     l’identifiant de l’article.
+     * @param after  le curseur renvoyé par la page précédente, ou {@code null} pour la première page.
+     * @param limit  la taille de page demandée, bornée côté serveur.
+     * @return la page de {@link CommentDTO} associés à cet article et leur nombre total.
+     * @throws IllegalArgumentException si le curseur est invalide.
      */
-    List<CommentDTO> getAllCommentsOfArticle(int id);
+    CursorPageDTO<CommentDTO> getCommentsOfArticle(AuthenticatedUserDTO reader, int id, String after, Integer limit);
 
     /**
-     * Récupère tous les commentaires publiés par un utilisateur donné.
+     * Récupère une page des commentaires publiés par un utilisateur donné.
      *
-     * @param id l’identifiant de l’utilisateur.
-     * @return une liste de {@link CommentDTO} appartenant à cet utilisateur.
+     * @param id    l’identifiant de l’utilisateur.
+     * @param after le curseur renvoyé par la page précédente, ou {@code null} pour la première page.
+     * @param limit la taille de page demandée, bornée côté serveur.
+     * @return la page de {@link CommentDTO} appartenant à cet utilisateur et leur nombre total.
+     * @throws IllegalArgumentException si le curseur est invalide.
      */
-    List<CommentDTO> getAllCommentsOfUser(int id);
+    CursorPageDTO<CommentDTO> getCommentsOfUser(int id, String after, Integer limit);
 
     /**
-     * Récupère tous les commentaires publiés par un utilisateur sur un article spécifique.
+     * Récupère une page des commentaires publiés par un utilisateur sur un article spécifique.
      *
-     * @param userId    l’identifiant de l’utilisateur.
+     * @param user      l’utilisateur authentifié, dont les commentaires en attente d’écriture sont inclus.
      * @param articleId l’identifiant de l’article.
-     * @return une liste de {@link CommentDTO} correspondant aux critères donnés.
+     * @param after     le curseur renvoyé par la page précédente, ou {@code null} pour la première page.
+     * @param limit     la taille de page demandée, bornée côté serveur.
+     * @return la page de {@link CommentDTO} correspondant aux critères donnés et leur nombre total.
+     * @throws IllegalArgumentException si le curseur est invalide.
      */
-    List<CommentDTO> getAllCommentsOfUserAndArticle(int userId, int articleId);
+    CursorPageDTO<CommentDTO> getCommentsOfUserAndArticle(AuthenticatedUserDTO user, int articleId,
+                                                          String after, Integer limit);
 
     /**
      * Ajoute un nouveau commentaire à un article.
      *
      * @param articleId identifiant de l’article concerné.
-     * @param userId    identifiant de l’auteur du commentaire.
+     * @param author    l’utilisateur authentifié, auteur du commentaire.
      * @param content   contenu du commentaire.
-     * @return le commentaire ajouté sous forme de {@link CommentDTO}.
+     * @return le commentaire ajouté sous forme de {@link CommentDTO}, sans identifiant s’il est en attente
+     *         d’écriture différée.
      */
-    CommentDTO addCommentToArticle(int articleId, int userId, String content);
+    CommentDTO addCommentToArticle(int articleId, AuthenticatedUserDTO author, String content);
+
+    /**
+     * Exporte l’ensemble des commentaires au format NDJSON, en flux, sans les charger tous en mémoire.
+     *
+     * @param out le flux de sortie dans lequel écrire les commentaires.
+     * @throws IOException en cas d’erreur d’écriture.
+     */
+    void exportComments(OutputStream out) throws IOException;
+
+    /**
+     * Calcule la version d’une page des commentaires d’un article, sans les charger.
+     *
+     * @param reader    l’utilisateur authentifié qui lit les commentaires.
+     * @param articleId l’identifiant de l’article.
+     * @param after     le curseur de la page demandée, ou {@code null} pour la première page.
+     * @param limit     la taille de page demandée.
+     * @return l’étiquette de version (ETag) de la page.
+     */
+    String getCommentsOfArticleVersion(AuthenticatedUserDTO reader, int articleId, String after, Integer limit);
 }
@@ -3,6 +3,7 @@ package com.openclassrooms.mddapi.services;
 import com.openclassrooms.mddapi.config.CustomUserDetailsService;
 import com.openclassrooms.mddapi.model.dto.UserDTO;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
 import org.springframework.security.oauth2.jwt.JwsHeader;
 import org.springframework.security.oauth2.jwt.JwtClaimsSet;
@@ -12,6 +13,12 @@ import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+
+import static com.openclassrooms.mddapi.config.Constants.CLAIM_ROLES;
+import static com.openclassrooms.mddapi.config.Constants.CLAIM_UID;
+import static com.openclassrooms.mddapi.config.Constants.ROLE_OPS;
 
 /**
  * Service responsable de la génération des tokens JWT pour l’authentification.
@@ -26,7 +33,12 @@ import java.time.temporal.ChronoUnit;
  *     <li><strong>issuer</strong> — l’émetteur du token,</li>
  *     <li><strong>issuedAt</strong> — la date de génération,</li>
  *     <li><strong>expiresAt</strong> — la date d’expiration (valide 24h),</li>
- *     <li><strong>subject</strong> — l’identifiant principal de l’utilisateur (ici, son e-mail).</li>
+ *     <li><strong>subject</strong> — l’identifiant principal de l’utilisateur (ici, son e-mail),</li>
+ *     <li><strong>uid</strong> — l’identifiant numérique de l’utilisateur à l’émission, qui permet de refuser
+ *     un jeton dont l’adresse a été réattribuée à un autre compte ; le nom d’utilisateur n’est pas porté
+ *     par le jeton, il est lu dans le cache des utilisateurs authentifiés, à jour après un renommage,</li>
+ *     <li><strong>roles</strong> — le rôle {@code OPS} pour les adresses listées dans
+ *     {@code mdd.security.ops-emails}, qui donne accès aux endpoints de l’actuator.</li>
  * </ul>
  * </p>
  *
@@ -48,6 +60,9 @@ public class JWTService {
     /** Composant Spring Security responsable de l’encodage des tokens JWT. */
     private final JwtEncoder jwtEncoder;
 
+    /** Adresses e-mail des comptes d’exploitation, qui reçoivent le rôle {@code OPS}. */
+    @Value("${mdd.security.ops-emails:}")
+    private Set<String> opsEmails = Set.of();
 
     /**
      * Génère un token JWT pour un utilisateur donné.
@@ -66,6 +81,12 @@ public class JWTService {
                 .issuedAt(now)
                 .expiresAt(now.plus(1, ChronoUnit.DAYS))
                 .subject(userDto.getEmail())
+                .claim(CLAIM_UID, userDto.getId())
+                .claims(c -> {
+                    if (opsEmails.contains(userDto.getEmail())) {
+                        c.put(CLAIM_ROLES, List.of(ROLE_OPS));
+                    }
+                })
                 .build();
 
         JwtEncoderParameters jwtEncoderParameters =
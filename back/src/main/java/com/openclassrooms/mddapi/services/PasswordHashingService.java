@@ -0,0 +1,74 @@
+package com.openclassrooms.mddapi.services;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Service exécutant les calculs BCrypt (vérification et chiffrement des mots de passe)
+ * sur un pool de threads dédié et borné.
+ * <p>
+ * Un calcul BCrypt de coût par défaut occupe le processeur une centaine de millisecondes :
+ * exécuté sur les threads de Tomcat, un afflux de connexions les bloquerait tous au détriment
+ * des autres endpoints. Le pool {@code passwordHashingExecutor} limite le nombre de calculs
+ * simultanés et la taille de sa file d’attente ; au-delà, la tâche est refusée par une
+ * {@link TaskRejectedException}, traduite en 503 par {@link com.openclassrooms.mddapi.controller.ServerBusyHandler}.
+ * </p>
+ *
+ * @see com.openclassrooms.mddapi.config.AsyncConfig
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Service
+public class PasswordHashingService {
+
+    /** Pool dédié aux calculs BCrypt. */
+    private final Executor executor;
+
+    /** Encodeur BCrypt des mots de passe. */
+    private final BCryptPasswordEncoder passwordEncoder;
+
+    /**
+     * Construit le service à partir du pool dédié et de l’encodeur de mots de passe.
+     *
+     * @param executor        le pool {@code passwordHashingExecutor}.
+     * @param passwordEncoder l’encodeur BCrypt de l’application.
+     */
+    public PasswordHashingService(@Qualifier("passwordHashingExecutor") Executor executor,
+                                  BCryptPasswordEncoder passwordEncoder) {
+        this.executor = executor;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    /**
+     * Exécute un traitement comportant un calcul BCrypt (typiquement une authentification) sur le pool dédié.
+     *
+     * @param task le traitement à exécuter.
+     * @param <T>  le type du résultat.
+     * @return le résultat, disponible à la fin du traitement.
+     * @throws TaskRejectedException si le pool et sa file d’attente sont saturés.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    /**
+     * Chiffre un mot de passe sur le pool dédié.
+     * <p>
+     * Le thread appelant n’attend pas le calcul : la suite du traitement s’enchaîne sur le résultat.
+     * </p>
+     *
+     * @param rawPassword le mot de passe en clair.
+     * @return le mot de passe chiffré, disponible à la fin du calcul.
+     * @throws TaskRejectedException si le pool et sa file d’attente sont saturés.
+     */
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+}
@@ -33,9 +33,17 @@ public interface ThemeService {
     ThemeDTO getThemeById(Integer id);
 
     /**
-     * Récupère la liste de tous les thèmes existants dans la base de données.
+     * Récupère la liste de tous les thèmes existants dans la base de données, par ordre d’identifiant.
      *
      * @return une liste de {@link ThemeDTO}.
      */
     List<ThemeDTO> getAllThemes();
+
+    /**
+     * Calcule la version d’une liste de thèmes déjà lue, sans la sérialiser ni relire la base.
+     *
+     * @param themes la liste renvoyée par {@link #getAllThemes()}.
+     * @return l’étiquette de version (ETag) de la liste des thèmes.
+     */
+    String getThemesVersion(List<ThemeDTO> themes);
 }
@@ -0,0 +1,87 @@
+package com.openclassrooms.mddapi.services;
+
+import com.openclassrooms.mddapi.model.dto.ArticleDTO;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service gérant le fil d’actualité matérialisé de chaque utilisateur (« fan-out à l’écriture »).
+ * <p>
+ * Plutôt que de reconstruire le fil à chaque lecture à partir des thèmes suivis,
+ * l’identifiant de chaque nouvel article est poussé dans le fil de chacun des abonnés
+ * du thème. Le fil de chaque utilisateur est une liste bornée, conservée en mémoire
+ * et adossée à une table durable ; la lecture d’une page coûte alors O(taille de page).
+ * </p>
+ *
+ * <p>
+ * L’implémentation par défaut de cette interface est
+ * {@link com.openclassrooms.mddapi.services.impl.TimelineServiceImpl}.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+public interface TimelineService {
+
+    /**
+     * Lit une page du fil matérialisé d’un utilisateur.
+     * <p>
+     * Le fil étant borné, une page située au-delà des entrées conservées ne peut pas
+     * être servie : un {@link Optional#empty()} est alors renvoyé et l’appelant doit
+     * se replier sur une lecture directe en base.
+     * </p>
+     *
+     * @param userId    l’identifiant de l’utilisateur.
+     * @param createdAt la date de création du dernier article de la page précédente, ou {@code null}.
+     * @param articleId l’identifiant du dernier article de la page précédente, ou {@code null}.
+     * @param limit     le nombre maximal d’identifiants à renvoyer.
+     * @return les identifiants des articles de la page, du plus récent au plus ancien,
+     *         ou {@link Optional#empty()} si la page dépasse le fil conservé.
+     */
+    Optional<List<Integer>> findPage(int userId, Date createdAt, Integer articleId, int limit);
+
+    /**
+     * Renvoie la version du fil en mémoire d’un utilisateur.
+     * <p>
+     * La version change à chaque modification du fil sur cette instance (chargement, publication,
+     * (dés)abonnement, suppression d’article) ; elle sert à calculer l’ETag du fil, dont la mise à jour
+     * est asynchrone et peut donc être en retard sur la base.
+     * </p>
+     *
+     * @param userId l’identifiant de l’utilisateur.
+     * @return la version du fil.
+     */
+    String getVersion(int userId);
+
+    /**
+     * Pousse un nouvel article dans le fil de chacun des abonnés de son thème (asynchrone).
+     *
+     * @param article l’article publié.
+     */
+    void publish(ArticleDTO article);
+
+    /**
+     * Complète le fil d’un utilisateur avec les articles récents d’un thème qu’il vient de suivre (asynchrone).
+     *
+     * @param userId  l’identifiant de l’utilisateur.
+     * @param themeId l’identifiant du thème suivi.
+     */
+    void follow(int userId, int themeId);
+
+    /**
+     * Retire du fil d’un utilisateur les articles d’un thème qu’il ne suit plus (asynchrone).
+     *
+     * @param userId  l’identifiant de l’utilisateur.
+     * @param themeId l’identifiant du thème abandonné.
+     */
+    void unfollow(int userId, int themeId);
+
+    /**
+     * Retire un article de tous les fils, par exemple après sa suppression.
+     *
+     * @param articleId l’identifiant de l’article.
+     */
+    void removeArticle(int articleId);
+}
@@ -2,6 +2,8 @@ package com.openclassrooms.mddapi.services;
 
 import com.openclassrooms.mddapi.model.dto.UserDTO;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Service définissant les opérations métier liées à la gestion des utilisateurs.
  * <p>
@@ -44,12 +46,13 @@ public interface UserService {
     UserDTO getUserByUsername(String username);
 
     /**
-     * Crée un nouvel utilisateur dans la base de données.
+     * Crée un nouvel utilisateur dans la base de données, une fois son mot de passe chiffré.
      *
      * @param userDto l’objet {@link UserDTO} représentant le nouvel utilisateur.
-     * @return le {@link UserDTO} sauvegardé (sans le mot de passe).
+     * @return le {@link UserDTO} sauvegardé (sans le mot de passe), disponible une fois l’utilisateur enregistré.
+     * @throws org.springframework.core.task.TaskRejectedException si le pool de chiffrement est saturé.
      */
-    UserDTO saveUser(UserDTO userDto);
+    CompletableFuture<UserDTO> saveUser(UserDTO userDto);
 
     /**
      * Récupère un utilisateur à partir de son identifiant unique.
@@ -67,12 +70,13 @@ public interface UserService {
     void deleteUserById(int id);
 
     /**
-     * Met à jour les informations d’un utilisateur existant.
+     * Met à jour les informations d’un utilisateur existant, après chiffrement de son nouveau mot de passe le cas échéant.
      *
      * @param userDto l’objet {@link UserDTO} contenant les nouvelles informations.
-     * @return le {@link UserDTO} mis à jour (sans le mot de passe).
+     * @return le {@link UserDTO} mis à jour (sans le mot de passe), disponible une fois la mise à jour enregistrée.
+     * @throws org.springframework.core.task.TaskRejectedException si le pool de chiffrement est saturé.
      */
-    UserDTO updateUser(UserDTO userDto);
+    CompletableFuture<UserDTO> updateUser(UserDTO userDto);
 
     /**
      * Vérifie si un utilisateur existe à partir de son identifiant.
@@ -99,4 +103,15 @@ public interface UserService {
      * @return le {@link UserDTO} mis à jour.
      */
     UserDTO removeThemeToFollowed(UserDTO user, int themeId);
+
+    /**
+     * Renvoie la version des noms d’utilisateur, qui évolue à chaque renommage ou suppression d’un utilisateur.
+     * <p>
+     * Les réponses qui affichent le nom de leurs auteurs (fil d’actualité, commentaires) l’incluent
+     * dans leur ETag : un renommage invalide ainsi les copies conservées par les clients.
+     * </p>
+     *
+     * @return la version courante des noms d’utilisateur.
+     */
+    long getUsernamesVersion();
 }
@@ -1,22 +1,49 @@
 package com.openclassrooms.mddapi.services.impl;
 
 import com.openclassrooms.mddapi.model.dto.ArticleDTO;
+import com.openclassrooms.mddapi.model.dto.ArticleSummaryDTO;
+import com.openclassrooms.mddapi.model.dto.AuthenticatedUserDTO;
+import com.openclassrooms.mddapi.model.dto.CursorPageDTO;
 import com.openclassrooms.mddapi.model.dto.ThemeDTO;
 import com.openclassrooms.mddapi.model.dto.UserDTO;
-import com.openclassrooms.mddapi.model.entities.Article;
+import com.openclassrooms.mddapi.model.entities.User;
 import com.openclassrooms.mddapi.model.mappers.ArticleMapper;
+import com.openclassrooms.mddapi.model.projections.ContentVersion;
 import com.openclassrooms.mddapi.repositories.ArticleDAO;
+import com.openclassrooms.mddapi.repositories.EntityStreams;
+import com.openclassrooms.mddapi.services.AfterCommit;
 import com.openclassrooms.mddapi.services.ArticleService;
 import com.openclassrooms.mddapi.services.ThemeService;
+import com.openclassrooms.mddapi.services.TimelineService;
 import com.openclassrooms.mddapi.services.UserService;
+import com.openclassrooms.mddapi.services.loader.BatchLoader;
+import com.openclassrooms.mddapi.services.loader.DataLoaderRegistry;
+import com.openclassrooms.mddapi.services.search.ArticleSearchIndex;
+import com.openclassrooms.mddapi.services.stream.FollowedArticleStream;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static com.openclassrooms.mddapi.config.Constants.ARTICLES_BY_THEME_CACHE;
 
 /**
  * Implémentation du service {@link ArticleService} pour la gestion des articles.
@@ -26,7 +53,10 @@ import java.util.NoSuchElementException;
  *     <li>Création, lecture, mise à jour et suppression d’articles</li>
  *     <li>Récupération des articles par thème</li>
  *     <li>Récupération des articles liés aux thèmes suivis par un utilisateur</li>
+ *     <li>Recherche plein texte dans les articles</li>
  * </ul>
+ * Les listes renvoient des résumés ({@link ArticleSummaryDTO}) : seule la consultation d’un article
+ * ({@link #getArticle(int)}) charge son contenu complet.
  * </p>
  *
  * <p>
@@ -35,7 +65,12 @@ import java.util.NoSuchElementException;
  *     <li>{@link ArticleDAO} pour les opérations de persistance,</li>
  *     <li>{@link ArticleMapper} pour la conversion entre entités et DTOs,</li>
  *     <li>{@link UserService} pour les informations sur les auteurs,</li>
- *     <li>{@link ThemeService} pour les informations de thème.</li>
+ *     <li>{@link ThemeService} pour les informations de thème,</li>
+ *     <li>{@link TimelineService} pour les fils d’actualité matérialisés,</li>
+ *     <li>{@link DataLoaderRegistry} pour le chargement groupé des auteurs,</li>
+ *     <li>{@link CacheManager} pour l’invalidation du cache des articles par thème,</li>
+ *     <li>{@link ArticleSearchIndex} pour la recherche plein texte,</li>
+ *     <li>{@link FollowedArticleStream} pour la diffusion en direct des nouveaux articles.</li>
  * </ul>
  * </p>
  *
@@ -46,6 +81,12 @@ import java.util.NoSuchElementException;
 @Service
 public class ArticleServiceImpl implements ArticleService {
 
+    /**
+     * Propriétés sur lesquelles le tri de la liste globale des articles est autorisé : chacune doit être
+     * couverte par un index {@code (propriete, id)}, sans quoi chaque page trierait toute la table.
+     */
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("createdAt");
+
     /** DAO permettant d’effectuer les opérations CRUD sur les articles. */
     private final ArticleDAO articleDAO;
 
@@ -59,52 +100,162 @@ public class ArticleServiceImpl implements ArticleService {
     /** Service de gestion des thèmes. */
     private final ThemeService themeService;
 
+    /** Service des fils d’actualité matérialisés. */
+    private final TimelineService timelineService;
+
+    /** Chargeurs par lots de la requête courante. */
+    private final DataLoaderRegistry dataLoaders;
+
+    /** Lecture en flux de la table des articles, pour l’export. */
+    private final EntityStreams entityStreams;
+
+    /** Écriture en flux des exports NDJSON. */
+    private final NdjsonExporter exporter;
+
+    /** Gestionnaire des caches, pour l’invalidation ciblée des articles par thème. */
+    private final CacheManager cacheManager;
+
+    /** Index de recherche plein texte des articles. */
+    private final ArticleSearchIndex searchIndex;
+
+    /** Flux SSE des nouveaux articles des thèmes suivis. */
+    private final FollowedArticleStream articleStream;
+
     /**
-     * Récupère la liste de tous les articles disponibles.
+     * Récupère une page de l’ensemble des articles disponibles.
+     * <p>
+     * La taille de page est bornée côté serveur et seul un tri sur une propriété autorisée
+     * est accepté ; par défaut, les articles sont triés par date de création décroissante,
+     * tri couvert par l’index {@code (created_at, id)}.
+     * </p>
      *
-     * @return une liste de {@link ArticleDTO}.
+     * @param page le numéro de page (à partir de 0).
+     * @param size la taille de page demandée.
+     * @param sort le tri souhaité ({@code propriete[,asc|desc]}), ou {@code null}.
+     * @return une tranche de résumés d’articles, avec le nom d’utilisateur de l’auteur renseigné.
+     * @throws IllegalArgumentException si le tri demandé n’est pas autorisé.
      */
     @Override
-    public List<ArticleDTO> getArticles() {
-        List<Article> articles = articleDAO.findAll();
-        List<ArticleDTO> articlesDTO = new ArrayList<>();
-        articles.forEach(article -> articlesDTO.add(mapper.fromArticleToDto(article)));
-        return articlesDTO;
+    public Slice<ArticleSummaryDTO> getArticles(int page, Integer size, String sort) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Pagination.pageSize(size), parseSort(sort));
+        return articleDAO.findSummariesBy(pageable);
     }
 
     /**
-     * Récupère tous les articles appartenant à un thème spécifique.
+     * Convertit le paramètre de tri reçu du client en {@link Sort}.
+     * <p>
+     * L’identifiant est toujours ajouté en second critère afin de garantir un ordre stable
+     * entre deux pages.
+     * </p>
+     *
+     * @param sort le tri demandé ({@code propriete[,asc|desc]}), ou {@code null}.
+     * @return le {@link Sort} correspondant.
+     * @throws IllegalArgumentException si la propriété ou la direction n’est pas autorisée.
+     */
+    private Sort parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.by(Sort.Direction.DESC, "createdAt", "id");
+        }
+        String[] parts = sort.split(",");
+        String property = parts[0].trim();
+        if (!SORTABLE_PROPERTIES.contains(property)) {
+            throw new IllegalArgumentException("Sort on " + property + " is not allowed");
+        }
+        Sort.Direction direction = parts.length > 1 ? Sort.Direction.fromString(parts[1].trim()) : Sort.Direction.DESC;
+        return Sort.by(direction, property).and(Sort.by(direction, "id"));
+    }
+
+    /**
+     * Récupère les résumés de tous les articles appartenant à un thème spécifique.
+     * <p>
+     * Les résumés et le nom de leur auteur sont lus par une seule requête jointe, sans le contenu complet.
+     * La liste est conservée dans le cache {@code articlesByTheme}, invalidé pour le thème
+     * concerné à chaque création, modification ou suppression d’article, et vidé au renommage
+     * ou à la suppression d’un utilisateur ; elle est donc renvoyée non modifiable.
+     * </p>
      *
      * @param id l’identifiant du thème.
-     * @return une liste d’articles associés au thème.
+     * @return une liste non modifiable de résumés des articles associés au thème.
      */
     @Override
-    public List<ArticleDTO> getAllArticlesOfTheme(int id) {
-        List<Article> articles = articleDAO.findArticlesByThemeId(id);
-        List<ArticleDTO> articlesDTO = new ArrayList<>();
-        articles.forEach(article -> articlesDTO.add(mapper.fromArticleToDto(article)));
-        articlesDTO.forEach(article ->
-                article.setAuthorUsername(userService.getUserById(article.getAuthorId()).getUsername()));
-        return articlesDTO;
+    @Cacheable(cacheNames = ARTICLES_BY_THEME_CACHE, key = "#id")
+    public List<ArticleSummaryDTO> getAllArticlesOfTheme(int id) {
+        return List.copyOf(articleDAO.findSummariesByThemeId(id));
+    }
+
+    /**
+     * Retire du cache {@code articlesByTheme} la liste des articles d’un thème, après la validation
+     * de la transaction en cours : retirée avant, elle pourrait être relue et remise en cache
+     * dans son état précédent.
+     *
+     * @param themeId l’identifiant du thème dont la liste a changé.
+     */
+    private void evictTheme(int themeId) {
+        AfterCommit.run(() -> {
+            Cache cache = cacheManager.getCache(ARTICLES_BY_THEME_CACHE);
+            if (cache != null) {
+                cache.evict(themeId);
+            }
+        });
+    }
+
+    /**
+     * Pousse un article dans les fils matérialisés une fois la transaction en cours validée,
+     * afin que la diffusion asynchrone ne lise que des articles validés.
+     *
+     * @param article l’article publié.
+     */
+    private void publishToTimelines(ArticleDTO article) {
+        AfterCommit.run(() -> timelineService.publish(article));
+    }
+
+    /**
+     * Renseigne le nom d’utilisateur de l’auteur de chaque article.
+     * <p>
+     * Les identifiants des auteurs sont collectés puis résolus par un seul {@code findAllById}
+     * via le {@link BatchLoader} d’utilisateurs de la requête courante.
+     * </p>
+     *
+     * @param articles les articles à compléter.
+     */
+    private void fillAuthorUsernames(List<ArticleDTO> articles) {
+        BatchLoader<Integer, User> users = dataLoaders.users();
+        articles.forEach(article -> users.load(article.getAuthorId(),
+                author -> article.setAuthorUsername(author == null ? null : author.getUsername())));
+        users.dispatch();
     }
 
     /**
      * Enregistre un nouvel article dans la base de données.
+     * <p>
+     * L’auteur est l’utilisateur authentifié, résolu par le cache {@code principals} : son nom
+     * d’utilisateur est repris tel quel, sans relire la table des utilisateurs. Les fils d’actualité,
+     * l’index de recherche et le cache des articles par thème ne sont mis à jour qu’après la validation
+     * de l’insertion.
+     * </p>
      *
      * @param article les informations de l’article à sauvegarder.
+     * @param author  l’utilisateur authentifié, auteur de l’article.
      * @return l’article sauvegardé sous forme de {@link ArticleDTO}.
      */
     @Override
-    public ArticleDTO save(ArticleDTO article, int authorId) {
+    @Transactional
+    public ArticleDTO save(ArticleDTO article, AuthenticatedUserDTO author) {
         ThemeDTO theme = themeService.getThemeById(article.getThemeId());
         ArticleDTO articleDTO = new ArticleDTO();
         articleDTO.setThemeId(theme.getId());
         articleDTO.setTitle(article.getTitle());
         articleDTO.setContent(article.getContent());
-        articleDTO.setAuthorId(authorId);
+        articleDTO.setAuthorId(author.getId());
         articleDTO.setCreatedAt(new Date());
 
-        return mapper.fromArticleToDto(articleDAO.save(mapper.fromDtoToArticle(articleDTO)));
+        ArticleDTO saved = mapper.fromArticleToDto(articleDAO.save(mapper.fromDtoToArticle(articleDTO)));
+        saved.setAuthorUsername(author.getUsername());
+        evictTheme(saved.getThemeId());
+        publishToTimelines(saved);
+        AfterCommit.run(() -> searchIndex.index(saved));
+        articleStream.publish(saved);
+        return saved;
     }
 
     /**
@@ -117,15 +268,26 @@ public class ArticleServiceImpl implements ArticleService {
      * @throws NoSuchElementException si l’utilisateur n’est pas l’auteur de l’article.
      */
     @Override
+    @Transactional
     public ArticleDTO updateArticle(int id, ArticleDTO articleDTO, UserDTO userDTO) {
         ArticleDTO articleToUpdate = mapper.fromArticleToDto(articleDAO.findById(id));
         UserDTO articleUser = userService.getUserById(articleDTO.getAuthorId());
         if (userDTO.getEmail().equals(articleUser.getEmail())) {
+            int previousThemeId = articleToUpdate.getThemeId();
             articleToUpdate.setContent(articleDTO.getContent());
             articleToUpdate.setAuthorId(articleDTO.getAuthorId());
             articleToUpdate.setThemeId(articleDTO.getThemeId());
             articleToUpdate.setUpdatedAt(new Date());
-            return mapper.fromArticleToDto(articleDAO.save(mapper.fromDtoToArticle(articleToUpdate)));
+            ArticleDTO updated = mapper.fromArticleToDto(articleDAO.save(mapper.fromDtoToArticle(articleToUpdate)));
+            evictTheme(previousThemeId);
+            evictTheme(updated.getThemeId());
+            AfterCommit.run(() -> searchIndex.index(updated));
+            if (previousThemeId != updated.getThemeId()) {
+                // L’article change de thème : il quitte les fils des anciens abonnés.
+                timelineService.removeArticle(id);
+                publishToTimelines(updated);
+            }
+            return updated;
         } else {
             throw new NoSuchElementException("vous n'êtes pas l'auteur de l'article");
         }
@@ -142,7 +304,7 @@ public class ArticleServiceImpl implements ArticleService {
     public ArticleDTO getArticle(int id) {
         if (checkArticle(id)) {
             ArticleDTO article = mapper.fromArticleToDto(articleDAO.findById(id));
-            article.setAuthorUsername(userService.getUserById(article.getAuthorId()).getUsername());
+            fillAuthorUsernames(List.of(article));
             return article;
         } else {
             throw new NoSuchElementException("Article with id " + id + " not found");
@@ -157,11 +319,15 @@ public class ArticleServiceImpl implements ArticleService {
      * @throws NoSuchElementException si l’article n’existe pas ou si l’utilisateur n’en est pas l’auteur.
      */
     @Override
+    @Transactional
     public void deleteArticle(int id, UserDTO userDTO) {
         ArticleDTO articleToDelete = mapper.fromArticleToDto(articleDAO.findById(id));
         UserDTO articleUser = userService.getUserById(articleToDelete.getAuthorId());
         if (articleDAO.existsById(id) && userDTO.getEmail().equals(articleUser.getEmail())) {
             articleDAO.deleteById(id);
+            evictTheme(articleToDelete.getThemeId());
+            timelineService.removeArticle(id);
+            AfterCommit.run(() -> searchIndex.remove(id));
         } else {
             throw new NoSuchElementException("vous n'êtes pas l'auteur de l'article");
         }
@@ -179,21 +345,131 @@ public class ArticleServiceImpl implements ArticleService {
     }
 
     /**
-     * Récupère tous les articles liés aux thèmes suivis par un utilisateur.
+     * Récupère une page du fil d’actualité d’un utilisateur, paginée par curseur.
+     * <p>
+     * La page est lue en priorité dans le fil matérialisé de l’utilisateur ({@link TimelineService}),
+     * ce qui ne coûte qu’une requête d’hydratation par identifiants. Au-delà des entrées conservées
+     * dans le fil, la page est lue directement en base par pagination « keyset ».
+     * Dans les deux cas, un élément supplémentaire est lu pour savoir s’il existe une page suivante,
+     * sans requête de comptage.
+     * </p>
+     *
+     * @param user  l’utilisateur dont on souhaite récupérer les articles suivis.
+     * @param after le curseur de la page précédente, ou {@code null} pour la première page.
+     * @param limit la taille de page demandée.
+     * @return la page d’articles et le curseur de la page suivante.
+     */
+    @Override
+    public CursorPageDTO<ArticleSummaryDTO> getFollowedArticlesPage(UserDTO user, String after, Integer limit) {
+        int size = Pagination.pageSize(limit);
+        KeysetCursor cursor = after == null || after.isBlank() ? null : KeysetCursor.decode(after);
+
+        List<ArticleSummaryDTO> articles = timelineService
+                .findPage(user.getId(),
+                        cursor == null ? null : cursor.getCreatedAt(),
+                        cursor == null ? null : cursor.getId(),
+                        size + 1)
+                .map(this::findSummaries)
+                .orElseGet(() -> {
+                    Pageable pageable = PageRequest.of(0, size + 1);
+                    return cursor == null
+                            ? articleDAO.findFollowedArticles(user.getId(), pageable)
+                            : articleDAO.findFollowedArticlesBefore(user.getId(), cursor.getCreatedAt(), cursor.getId(), pageable);
+                });
+
+        String nextCursor = null;
+        if (articles.size() > size) {
+            articles = new ArrayList<>(articles.subList(0, size));
+            ArticleSummaryDTO last = articles.get(size - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPageDTO<>(articles, nextCursor);
+    }
+
+    /**
+     * Calcule la version d’une page du fil d’un utilisateur.
+     * <p>
+     * La version combine les thèmes suivis, l’agrégat des articles de ces thèmes (une seule requête,
+     * couverte par l’index {@code (theme_id, updateAt, created_at)}), la version du fil matérialisé,
+     * dont la mise à jour asynchrone peut être en retard sur la base, et la version des noms
+     * d’utilisateur, que les résumés affichent pour leur auteur.
+     * </p>
+     *
+     * @param user  l’utilisateur dont on souhaite lire le fil.
+     * @param after le curseur de la page demandée, ou {@code null} pour la première page.
+     * @param limit la taille de page demandée.
+     * @return l’étiquette de version (ETag) de la page.
+     */
+    @Override
+    public String getFollowedArticlesVersion(UserDTO user, String after, Integer limit) {
+        List<Integer> themeIds = user.getFollowedThemes() == null
+                ? List.of()
+                : user.getFollowedThemes().stream().map(ThemeDTO::getId).sorted().toList();
+        ContentVersion version = themeIds.isEmpty() ? null : articleDAO.findVersionOfThemes(themeIds);
+        return ContentVersions.tag("feed", version, user.getId(), themeIds, after, Pagination.pageSize(limit),
+                timelineService.getVersion(user.getId()), userService.getUsernamesVersion());
+    }
+
+    /**
+     * Recherche des articles par texte intégral, classés par pertinence (BM25).
+     * <p>
+     * L’index ({@link ArticleSearchIndex}) fournit les identifiants de la page, un élément supplémentaire
+     * indiquant s’il existe une page suivante ; les résumés sont ensuite lus en une seule requête.
+     * </p>
      *
-     * @param user l’utilisateur dont on souhaite récupérer les articles suivis.
-     * @return une liste de {@link ArticleDTO} appartenant aux thèmes suivis.
+     * @param text     le texte recherché.
+     * @param themeIds les thèmes auxquels restreindre la recherche, ou {@code null} pour tous les thèmes.
+     * @param page     le numéro de page (à partir de 0).
+     * @param size     la taille de page demandée.
+     * @return une tranche de résumés d’articles, du plus pertinent au moins pertinent.
+     * @throws IllegalArgumentException si le texte est vide ou si la page est trop profonde.
      */
     @Override
-    public List<ArticleDTO> getAllFollowedArticles(UserDTO user) {
-        List<ThemeDTO> followedThemes = user.getFollowedThemes();
-        List<ArticleDTO> followedArticles = new ArrayList<>();
+    public Slice<ArticleSummaryDTO> searchArticles(String text, List<Integer> themeIds, int page, Integer size) {
+        int pageSize = Pagination.pageSize(size);
+        int number = Math.max(page, 0);
+        List<Integer> ids = searchIndex.search(text, themeIds, number * pageSize, pageSize + 1);
+        boolean hasNext = ids.size() > pageSize;
+        List<ArticleSummaryDTO> articles = findSummaries(hasNext ? ids.subList(0, pageSize) : ids);
+        return new SliceImpl<>(articles, PageRequest.of(number, pageSize), hasNext);
+    }
 
-        for (ThemeDTO themeDTO : followedThemes) {
-            List<ArticleDTO> articlesOfTheme = this.getAllArticlesOfTheme(themeDTO.getId());
-            followedArticles.addAll(articlesOfTheme);
+    /**
+     * Hydrate, en une requête, les résumés d’une liste d’articles (page du fil matérialisé, résultats
+     * de recherche) en conservant l’ordre de la liste.
+     *
+     * @param ids les identifiants des articles, dans l’ordre souhaité.
+     * @return les résumés correspondants, dans le même ordre.
+     */
+    private List<ArticleSummaryDTO> findSummaries(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
         }
+        Map<Integer, ArticleSummaryDTO> byId = new HashMap<>();
+        articleDAO.findSummariesByIds(ids).forEach(article -> byId.put(article.getId(), article));
+        List<ArticleSummaryDTO> articles = new ArrayList<>(ids.size());
+        ids.forEach(id -> {
+            ArticleSummaryDTO article = byId.get(id);
+            if (article != null) {
+                articles.add(article);
+            }
+        });
+        return articles;
+    }
 
-        return followedArticles;
+    /**
+     * Exporte l’ensemble des articles au format NDJSON.
+     * <p>
+     * Les articles sont lus en flux ({@link EntityStreams#articles()}) et écrits un à un
+     * dans le flux de sortie : ni la liste des entités ni celle des DTOs ne sont construites.
+     * </p>
+     *
+     * @param out le flux de sortie dans lequel écrire les articles.
+     * @throws IOException en cas d’erreur d’écriture.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportArticles(OutputStream out) throws IOException {
+        exporter.export(entityStreams.articles(), mapper::fromArticleToDto, out);
     }
 }
@@ -1,27 +1,44 @@
 package com.openclassrooms.mddapi.services.impl;
 
+import com.openclassrooms.mddapi.model.dto.AuthenticatedUserDTO;
 import com.openclassrooms.mddapi.model.dto.CommentDTO;
+import com.openclassrooms.mddapi.model.dto.CursorPageDTO;
 import com.openclassrooms.mddapi.model.entities.Comment;
+import com.openclassrooms.mddapi.model.entities.User;
 import com.openclassrooms.mddapi.model.mappers.CommentMapper;
 import com.openclassrooms.mddapi.repositories.CommentDAO;
+import com.openclassrooms.mddapi.repositories.EntityStreams;
 import com.openclassrooms.mddapi.services.ArticleService;
 import com.openclassrooms.mddapi.services.CommentService;
 import com.openclassrooms.mddapi.services.UserService;
+import com.openclassrooms.mddapi.services.loader.BatchLoader;
+import com.openclassrooms.mddapi.services.loader.DataLoaderRegistry;
+import com.openclassrooms.mddapi.services.stream.ArticleCommentChannel;
+import com.openclassrooms.mddapi.services.writer.CommentWriteBehind;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Implémentation du service {@link CommentService} pour la gestion des commentaires.
  * <p>
  * Cette classe contient la logique métier associée aux commentaires :
  * <ul>
- *     <li>Création et récupération des commentaires liés à un article ou un utilisateur,</li>
+ *     <li>Création et récupération paginée des commentaires liés à un article ou un utilisateur,</li>
  *     <li>Vérification de l’existence d’un utilisateur ou d’un article avant ajout,</li>
  *     <li>Gestion des erreurs liées aux absences de commentaires ou d’entités.</li>
  * </ul>
@@ -32,10 +49,18 @@ import java.util.NoSuchElementException;
  * <ul>
  *     <li>{@link CommentDAO} pour les opérations de persistance,</li>
  *     <li>{@link CommentMapper} pour la conversion entité/DTO,</li>
- *     <li>{@link UserService} et {@link ArticleService} pour les validations croisées.</li>
+ *     <li>{@link UserService} et {@link ArticleService} pour les validations croisées,</li>
+ *     <li>{@link DataLoaderRegistry} pour le chargement groupé des auteurs,</li>
+ *     <li>{@link CommentWriteBehind} pour l’écriture différée des commentaires, lorsqu’elle est activée,</li>
+ *     <li>{@link ArticleCommentChannel} pour la diffusion en direct des commentaires écrits.</li>
  * </ul>
  * </p>
  *
+ * <p>
+ * En écriture différée, un commentaire accepté n’est pas encore en base : les lectures d’un article faites
+ * par son auteur l’ajoutent en fin de dernière page tant qu’il est en attente.
+ * </p>
+ *
  * @author PA-SCHAMING
  * @version 1.0
  */
@@ -56,131 +81,324 @@ public class CommentServiceImpl implements CommentService {
     /** Service de gestion des articles. */
     private final ArticleService articleService;
 
+    /** Chargeurs par lots de la requête courante. */
+    private final DataLoaderRegistry dataLoaders;
+
+    /** Lecture en flux de la table des commentaires, pour l’export. */
+    private final EntityStreams entityStreams;
+
+    /** Écriture en flux des exports NDJSON. */
+    private final NdjsonExporter exporter;
+
+    /** File d’écriture différée des commentaires. */
+    private final CommentWriteBehind writeBehind;
+
+    /** Canal temps réel des commentaires de chaque article. */
+    private final ArticleCommentChannel commentChannel;
 
     /**
-     * Récupère tous les commentaires présents dans la base de données.
+     * Récupère une page de l’ensemble des commentaires.
+     * <p>
+     * Le total provient du cache {@code commentsTotal} ({@link CommentDAO#countAll()}) : il peut être
+     * en retard de quelques secondes sur les dernières créations.
+     * </p>
      *
-     * @return une liste de {@link CommentDTO}.
+     * @param after le curseur de la page précédente, ou {@code null} pour la première page.
+     * @param limit la taille de page demandée.
+     * @return la page de {@link CommentDTO}.
+     * @throws IllegalArgumentException si le curseur est invalide.
      */
     @Override
-    public List<CommentDTO> getAllComments() {
-        List<Comment> comments = commentDAO.findAll();
-        List<CommentDTO> commentDTOS = new ArrayList<>();
-        comments.forEach(comment -> commentDTOS.add(mapper.fromCommentToCommentDTO(comment)));
-        return commentDTOS;
+    public CursorPageDTO<CommentDTO> getComments(String after, Integer limit) {
+        return readPage(after, limit,
+                commentDAO::findPage,
+                (cursor, pageable) -> commentDAO.findPageAfter(cursor.getCreatedAt(), cursor.getId(), pageable),
+                this::toDtos,
+                commentDAO.countAll());
     }
 
     /**
-     * Récupère tous les commentaires associés à un article.
+     * Récupère une page des commentaires associés à un article.
+     * <p>
+     * La page et le total sont lus par l’index {@code (article_id, created_at, id)} : le coût ne dépend
+     * que de la taille de page, et non du nombre de commentaires de l’article. Les commentaires du lecteur
+     * encore en attente d’écriture sont ajoutés à la dernière page.
+     * </p>
      *
-     * @param id l’identifiant de l’article.
-     * @return une liste de {@link CommentDTO} liés à cet article.
-     * @throws NoSuchElementException si l’article n’existe pas.
+     * @param reader l’utilisateur authentifié qui lit les commentaires.
+     * @param id     l’identifiant de l’article.
+     * @param after  le curseur de la page précédente, ou {@code null} pour la première page.
+     * @param limit  la taille de page demandée.
+     * @return la page de {@link CommentDTO} liés à cet article.
+     * @throws NoSuchElementException   si l’article n’existe pas.
+     * @throws IllegalArgumentException si le curseur est invalide.
      */
     @Override
-    public List<CommentDTO> getAllCommentsOfArticle(int id) {
+    public CursorPageDTO<CommentDTO> getCommentsOfArticle(AuthenticatedUserDTO reader, int id, String after, Integer limit) {
         if (articleService.checkArticle(id)) {
-            List<Comment> comments = commentDAO.findAllByArticleId(id);
-            List<CommentDTO> commentDTOS = new ArrayList<>();
-            comments.forEach(comment -> commentDTOS.add(mapper.fromCommentToCommentDTO(comment)));
-            return commentDTOS;
+            List<CommentWriteBehind.Pending> pending = pendingOf(reader, id);
+            return withPending(readPage(after, limit,
+                    pageable -> commentDAO.findPageOfArticle(id, pageable),
+                    (cursor, pageable) -> commentDAO.findPageOfArticleAfter(id, cursor.getCreatedAt(), cursor.getId(), pageable),
+                    this::toDtos,
+                    commentDAO.countByArticleId(id)), pending, reader);
         } else {
             throw new NoSuchElementException("Article with id " + id + " not found");
         }
     }
 
     /**
-     * Récupère tous les commentaires publiés par un utilisateur spécifique.
+     * Calcule la version d’une page des commentaires d’un article par une seule requête d’agrégat,
+     * couverte par l’index {@code (article_id, created_at, id)}, le nombre de commentaires du lecteur
+     * en attente d’écriture et la version des noms d’utilisateur, que les commentaires affichent pour leur auteur.
+     *
+     * @param reader    l’utilisateur authentifié qui lit les commentaires.
+     * @param articleId l’identifiant de l’article.
+     * @param after     le curseur de la page demandée, ou {@code null} pour la première page.
+     * @param limit     la taille de page demandée.
+     * @return l’étiquette de version (ETag) de la page.
+     */
+    @Override
+    public String getCommentsOfArticleVersion(AuthenticatedUserDTO reader, int articleId, String after, Integer limit) {
+        int pending = pendingOf(reader, articleId).size();
+        return ContentVersions.tag("comments", commentDAO.findVersionOfArticle(articleId), articleId,
+                after, Pagination.pageSize(limit), pending, userService.getUsernamesVersion());
+    }
+
+    /**
+     * Récupère une page des commentaires publiés par un utilisateur, par l’index {@code (author_id, created_at, id)}.
      *
-     * @param id l’identifiant de l’utilisateur.
-     * @return une liste de {@link CommentDTO} appartenant à cet utilisateur.
-     * @throws NoSuchElementException si l’utilisateur n’existe pas ou n’a pas de commentaires.
+     * @param id    l’identifiant de l’utilisateur.
+     * @param after le curseur de la page précédente, ou {@code null} pour la première page.
+     * @param limit la taille de page demandée.
+     * @return la page de {@link CommentDTO} appartenant à cet utilisateur.
+     * @throws NoSuchElementException   si l’utilisateur n’existe pas ou n’a pas de commentaires.
+     * @throws IllegalArgumentException si le curseur est invalide.
      */
     @Override
-    public List<CommentDTO> getAllCommentsOfUser(int id) {
+    public CursorPageDTO<CommentDTO> getCommentsOfUser(int id, String after, Integer limit) {
         if (userService.checkId(id)) {
-            List<Comment> comments = commentDAO.findAllByAuthorId(id);
-            return checkNoComments(comments, id);
+            long total = commentDAO.countByAuthorId(id);
+            if (total == 0) {
+                throw new NoSuchElementException("User with id : " + id + " has no comments");
+            }
+            return readPage(after, limit,
+                    pageable -> commentDAO.findPageOfAuthor(id, pageable),
+                    (cursor, pageable) -> commentDAO.findPageOfAuthorAfter(id, cursor.getCreatedAt(), cursor.getId(), pageable),
+                    this::toDtos,
+                    total);
         } else {
             throw new NoSuchElementException("User with id : " + id + " not found");
         }
     }
 
     /**
-     * Récupère tous les commentaires d’un utilisateur sur un article spécifique.
+     * Récupère une page des commentaires de l’utilisateur authentifié sur un article spécifique.
+     * <p>
+     * L’utilisateur provient du jeton : il n’est pas relu en base, et son nom d’utilisateur
+     * est reporté sur chacun de ses commentaires. Ses commentaires encore en attente d’écriture
+     * sont ajoutés à la dernière page.
+     * </p>
      *
-     * @param userId    l’identifiant de l’utilisateur.
+     * @param user      l’utilisateur authentifié.
      * @param articleId l’identifiant de l’article.
-     * @return une liste de {@link CommentDTO} correspondant aux critères.
-     * @throws NoSuchElementException si l’utilisateur ou l’article n’existent pas.
+     * @param after     le curseur de la page précédente, ou {@code null} pour la première page.
+     * @param limit     la taille de page demandée.
+     * @return la page de {@link CommentDTO} correspondant aux critères.
+     * @throws NoSuchElementException   si l’article n’existe pas ou si l’utilisateur ne l’a pas commenté.
+     * @throws IllegalArgumentException si le curseur est invalide.
      */
     @Override
-    public List<CommentDTO> getAllCommentsOfUserAndArticle(int userId, int articleId) {
-        if (userService.checkId(userId) && articleService.checkArticle(articleId)) {
-            List<Comment> comments = commentDAO.findAllByAuthorIdAndArticleId(userId, articleId);
-            return checkNoCommentsOrArticle(comments, userId, articleId);
+    public CursorPageDTO<CommentDTO> getCommentsOfUserAndArticle(AuthenticatedUserDTO user, int articleId,
+                                                                 String after, Integer limit) {
+        if (articleService.checkArticle(articleId)) {
+            List<CommentWriteBehind.Pending> pending = pendingOf(user, articleId);
+            long total = commentDAO.countByAuthorIdAndArticleId(user.getId(), articleId);
+            if (total == 0 && pending.isEmpty()) {
+                throw new NoSuchElementException("User with id: " + user.getId() + " has no comments on article: " + articleId);
+            }
+            return withPending(readPage(after, limit,
+                    pageable -> commentDAO.findPageOfAuthorAndArticle(user.getId(), articleId, pageable),
+                    (cursor, pageable) -> commentDAO.findPageOfAuthorAndArticleAfter(
+                            user.getId(), articleId, cursor.getCreatedAt(), cursor.getId(), pageable),
+                    comments -> comments.stream().map(comment -> toDto(comment, user)).toList(),
+                    total), pending, user);
         } else {
-            throw new NoSuchElementException("User " + userId + " or article " + articleId + " not found");
+            throw new NoSuchElementException("User " + user.getId() + " or article " + articleId + " not found");
         }
     }
 
     /**
-     * Ajoute un nouveau commentaire à un article si l’utilisateur et l’article existent.
+     * Ajoute un nouveau commentaire à un article si celui-ci existe.
+     * <p>
+     * L’auteur est celui décrit par le jeton : la table des utilisateurs n’est pas lue.
+     * En écriture différée, le commentaire est seulement déposé dans la file d’écriture : il est renvoyé
+     * sans identifiant ({@code id} à 0).
+     * Une fois écrit en base, le commentaire est publié sur le canal temps réel de l’article.
+     * </p>
      *
      * @param articleId identifiant de l’article commenté.
-     * @param userId    identifiant de l’auteur du commentaire.
+     * @param author    l’utilisateur authentifié, auteur du commentaire.
      * @param content   contenu textuel du commentaire.
      * @return le commentaire ajouté sous forme de {@link CommentDTO}.
-     * @throws NoSuchElementException si l’article ou l’utilisateur n’existent pas.
+     * @throws NoSuchElementException si l’article n’existe pas.
+     * @throws org.springframework.core.task.TaskRejectedException si la file d’écriture différée est saturée.
      */
     @Override
-    public CommentDTO addCommentToArticle(int articleId, int userId, String content) {
+    public CommentDTO addCommentToArticle(int articleId, AuthenticatedUserDTO author, String content) {
         CommentDTO commentDTO = new CommentDTO();
-        if (userService.checkId(userId) && articleService.checkArticle(articleId)) {
-            commentDTO.setAuthorId(userId);
+        if (articleService.checkArticle(articleId)) {
+            commentDTO.setAuthorId(author.getId());
             commentDTO.setArticleId(articleId);
             commentDTO.setContent(content);
             commentDTO.setCreatedAt(new Date());
-            return mapper.fromCommentToCommentDTO(commentDAO.save(mapper.fromDtoToComment(commentDTO)));
+            Comment comment = mapper.fromDtoToComment(commentDTO);
+            if (writeBehind.isEnabled()) {
+                CommentDTO accepted = toDto(comment, author);
+                writeBehind.accept(comment, () -> commentChannel.publish(toDto(comment, author)));
+                return accepted;
+            }
+            CommentDTO saved = toDto(commentDAO.save(comment), author);
+            commentChannel.publish(saved);
+            return saved;
         } else {
             throw new NoSuchElementException("Article with id " + articleId + " not found");
         }
     }
 
     /**
-     * Vérifie si un utilisateur possède des commentaires, sinon lève une exception.
+     * Exporte l’ensemble des commentaires au format NDJSON.
+     * <p>
+     * Les commentaires sont lus en flux ({@link EntityStreams#comments()}) et écrits un à un
+     * dans le flux de sortie : ni la liste des entités ni celle des DTOs ne sont construites.
+     * </p>
      *
-     * @param comments liste des commentaires à vérifier.
-     * @param userId   identifiant de l’utilisateur concerné.
-     * @return la liste convertie de {@link CommentDTO}.
-     * @throws NoSuchElementException si l’utilisateur n’a aucun commentaire.
+     * @param out le flux de sortie dans lequel écrire les commentaires.
+     * @throws IOException en cas d’erreur d’écriture.
      */
-    public List<CommentDTO> checkNoComments(List<Comment> comments, int userId) {
-        if (comments.isEmpty()) {
-            throw new NoSuchElementException("User with id : " + userId + " has no comments");
-        } else {
-            List<CommentDTO> commentDTOS = new ArrayList<>();
-            comments.forEach(comment -> commentDTOS.add(mapper.fromCommentToCommentDTO(comment)));
-            return commentDTOS;
+    @Override
+    @Transactional(readOnly = true)
+    public void exportComments(OutputStream out) throws IOException {
+        exporter.export(entityStreams.comments(), mapper::fromCommentToCommentDTO, out);
+    }
+
+    /**
+     * Lit une page de commentaires par pagination « keyset » {@code (createdAt, id)}.
+     * <p>
+     * Un élément supplémentaire est lu pour savoir s’il existe une page suivante ; le curseur
+     * renvoyé désigne le dernier commentaire de la page.
+     * </p>
+     *
+     * @param after     le curseur de la page précédente, ou {@code null} pour la première page.
+     * @param limit     la taille de page demandée.
+     * @param firstPage la lecture de la première page.
+     * @param nextPage  la lecture d’une page située après un curseur.
+     * @param converter la conversion des commentaires lus en DTOs.
+     * @param total     le nombre total de commentaires de la liste parcourue.
+     * @return la page de {@link CommentDTO}.
+     * @throws IllegalArgumentException si le curseur est invalide.
+     */
+    private CursorPageDTO<CommentDTO> readPage(String after, Integer limit,
+                                               Function<Pageable, List<Comment>> firstPage,
+                                               BiFunction<KeysetCursor, Pageable, List<Comment>> nextPage,
+                                               Function<List<Comment>, List<CommentDTO>> converter,
+                                               long total) {
+        int size = Pagination.pageSize(limit);
+        KeysetCursor cursor = after == null || after.isBlank() ? null : KeysetCursor.decode(after);
+        Pageable pageable = PageRequest.of(0, size + 1);
+        List<Comment> comments = cursor == null ? firstPage.apply(pageable) : nextPage.apply(cursor, pageable);
+
+        String nextCursor = null;
+        if (comments.size() > size) {
+            comments = comments.subList(0, size);
+            Comment last = comments.get(size - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
         }
+        return new CursorPageDTO<>(converter.apply(comments), nextCursor, total);
     }
 
     /**
-     * Vérifie si un utilisateur a commenté un article donné, sinon lève une exception.
+     * Renvoie les commentaires d’un lecteur sur un article encore en attente d’écriture.
+     * <p>
+     * À lire avant la page en base : un commentaire écrit entre-temps figure alors dans les deux,
+     * et {@link #withPending} l’écarte d’après son identifiant, publié après la validation de son insertion.
+     * </p>
      *
-     * @param comments  liste des commentaires à vérifier.
-     * @param userId    identifiant de l’utilisateur.
-     * @param articleId identifiant de l’article.
-     * @return la liste convertie de {@link CommentDTO}.
-     * @throws NoSuchElementException si aucun commentaire n’est trouvé pour cet utilisateur et cet article.
+     * @param reader    l’utilisateur authentifié, ou {@code null}.
+     * @param articleId l’identifiant de l’article.
+     * @return les commentaires en attente, du plus ancien au plus récent.
      */
-    public List<CommentDTO> checkNoCommentsOrArticle(List<Comment> comments, int userId, int articleId) {
-        if (comments.isEmpty()) {
-            throw new NoSuchElementException("User with id: " + userId + " has no comments on article: " + articleId);
-        } else {
-            List<CommentDTO> commentDTOS = new ArrayList<>();
-            comments.forEach(comment -> commentDTOS.add(mapper.fromCommentToCommentDTO(comment)));
-            return commentDTOS;
+    private List<CommentWriteBehind.Pending> pendingOf(AuthenticatedUserDTO reader, int articleId) {
+        if (reader == null || !writeBehind.isEnabled()) {
+            return List.of();
+        }
+        return writeBehind.pendingOf(reader.getId(), articleId);
+    }
+
+    /**
+     * Ajoute à la dernière page d’une liste les commentaires en attente d’écriture qui n’y figurent pas déjà,
+     * et les compte dans le total.
+     *
+     * @param page    la page lue en base.
+     * @param pending les commentaires en attente, lus avant la page.
+     * @param author  l’auteur des commentaires en attente.
+     * @return la page complétée.
+     */
+    private CursorPageDTO<CommentDTO> withPending(CursorPageDTO<CommentDTO> page,
+                                                  List<CommentWriteBehind.Pending> pending,
+                                                  AuthenticatedUserDTO author) {
+        if (pending.isEmpty() || page.getNextCursor() != null) {
+            return page;
+        }
+        Set<Integer> read = page.getItems().stream().map(CommentDTO::getId).collect(Collectors.toSet());
+        List<CommentDTO> items = new ArrayList<>(page.getItems());
+        long total = page.getTotal();
+        for (CommentWriteBehind.Pending entry : pending) {
+            int id = entry.getId();
+            if (id != 0 && read.contains(id)) {
+                continue;
+            }
+            CommentDTO commentDTO = toDto(entry.getComment(), author);
+            commentDTO.setId(id);
+            items.add(commentDTO);
+            total++;
         }
+        return new CursorPageDTO<>(items, null, total);
+    }
+
+    /**
+     * Convertit des commentaires en DTOs en renseignant le nom d’utilisateur de leurs auteurs.
+     * <p>
+     * Les auteurs sont résolus par un seul {@code findAllById}, via le {@link BatchLoader}
+     * d’utilisateurs de la requête courante, quel que soit le nombre de commentaires.
+     * </p>
+     *
+     * @param comments les commentaires à convertir.
+     * @return la liste de {@link CommentDTO} correspondante.
+     */
+    private List<CommentDTO> toDtos(List<Comment> comments) {
+        BatchLoader<Integer, User> users = dataLoaders.users();
+        List<CommentDTO> commentDTOS = new ArrayList<>();
+        comments.forEach(comment -> {
+            CommentDTO commentDTO = mapper.fromCommentToCommentDTO(comment);
+            users.load(commentDTO.getAuthorId(),
+                    author -> commentDTO.setAuthorUsername(author == null ? null : author.getUsername()));
+            commentDTOS.add(commentDTO);
+        });
+        users.dispatch();
+        return commentDTOS;
+    }
+
+    /**
+     * Convertit un commentaire de l’utilisateur authentifié en DTO, sans résoudre son auteur en base.
+     *
+     * @param comment le commentaire à convertir.
+     * @param author  l’utilisateur authentifié, auteur du commentaire.
+     * @return le {@link CommentDTO} correspondant.
+     */
+    private CommentDTO toDto(Comment comment, AuthenticatedUserDTO author) {
+        CommentDTO commentDTO = mapper.fromCommentToCommentDTO(comment);
+        commentDTO.setAuthorUsername(author.getUsername());
+        return commentDTO;
     }
 }
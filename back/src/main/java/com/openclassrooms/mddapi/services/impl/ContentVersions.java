@@ -0,0 +1,44 @@
+package com.openclassrooms.mddapi.services.impl;
+
+import com.openclassrooms.mddapi.model.projections.ContentVersion;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.StringJoiner;
+
+/**
+ * Calcul des étiquettes de version (ETags) des réponses de lecture.
+ * <p>
+ * Une étiquette est l’empreinte de la {@link ContentVersion} des données lues
+ * et des paramètres de la requête qui déterminent le contenu de la réponse.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+final class ContentVersions {
+
+    private ContentVersions() {
+    }
+
+    /**
+     * Calcule l’étiquette d’une réponse.
+     *
+     * @param resource le nom de la ressource lue.
+     * @param version  la version des données lues, ou {@code null} si aucune donnée n’est lue.
+     * @param context  les paramètres de la requête influant sur le contenu.
+     * @return l’étiquette, en hexadécimal.
+     */
+    static String tag(String resource, ContentVersion version, Object... context) {
+        StringJoiner joiner = new StringJoiner("|").add(resource);
+        if (version != null) {
+            joiner.add(String.valueOf(version.getCount()))
+                    .add(String.valueOf(version.getMaxId()))
+                    .add(version.getLastModified() == null ? "" : String.valueOf(version.getLastModified().getTime()));
+        }
+        for (Object part : context) {
+            joiner.add(String.valueOf(part));
+        }
+        return DigestUtils.md5DigestAsHex(joiner.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
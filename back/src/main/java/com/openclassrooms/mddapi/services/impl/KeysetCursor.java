@@ -0,0 +1,57 @@
+package com.openclassrooms.mddapi.services.impl;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Curseur de pagination « keyset » basé sur le couple {@code (created_at, id)}.
+ * <p>
+ * Le curseur est exposé aux clients sous forme d’une chaîne opaque (Base64 URL-safe)
+ * et désigne le dernier élément d’une page : la page suivante commence strictement après lui.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Getter
+@AllArgsConstructor
+public class KeysetCursor {
+
+    /** Date de création du dernier élément renvoyé. */
+    private final Date createdAt;
+
+    /** Identifiant du dernier élément renvoyé, départage les dates identiques. */
+    private final int id;
+
+    /**
+     * Encode le curseur sous forme de chaîne opaque.
+     *
+     * @return le curseur encodé.
+     */
+    public String encode() {
+        String raw = createdAt.getTime() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Décode un curseur reçu d’un client.
+     *
+     * @param cursor la chaîne opaque transmise par le client.
+     * @return le {@link KeysetCursor} correspondant.
+     * @throws IllegalArgumentException si le curseur est mal formé.
+     */
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new KeysetCursor(new Date(Long.parseLong(raw.substring(0, separator))),
+                    Integer.parseInt(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor : " + cursor, e);
+        }
+    }
+}
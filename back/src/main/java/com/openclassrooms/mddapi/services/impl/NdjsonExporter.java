@@ -0,0 +1,81 @@
+package com.openclassrooms.mddapi.services.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Écrit un flux d’entités au format NDJSON (un objet JSON par ligne) directement dans un flux de sortie.
+ * <p>
+ * Chaque ligne lue est convertie en DTO, sérialisée puis détachée du contexte de persistance :
+ * la mémoire consommée reste constante quelle que soit la taille de la table exportée.
+ * </p>
+ *
+ * <p>
+ * Doit être appelé dans une transaction, le flux d’entités étant lu au fil de l’eau sur sa connexion JDBC
+ * ({@link com.openclassrooms.mddapi.repositories.EntityStreams}).
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Component
+class NdjsonExporter {
+
+    /** Nombre de lignes écrites entre deux envois au client. */
+    private static final int FLUSH_EVERY = 500;
+
+    /** Writer Jackson partagé, sans vidage du tampon après chaque objet. */
+    private final ObjectWriter writer;
+
+    /** Contexte de persistance dont les entités exportées sont détachées. */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Crée l’exporteur à partir de l’{@link ObjectMapper} configuré par Spring.
+     *
+     * @param objectMapper le mapper JSON de l’application.
+     */
+    NdjsonExporter(ObjectMapper objectMapper) {
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Exporte un flux d’entités, puis le ferme.
+     *
+     * @param rows   le flux des entités à exporter.
+     * @param mapper la conversion d’une entité en DTO.
+     * @param out    le flux de sortie de la réponse HTTP.
+     * @param <E>    le type des entités.
+     * @throws IOException en cas d’erreur d’écriture.
+     */
+    <E> void export(Stream<E> rows, Function<E, ?> mapper, OutputStream out) throws IOException {
+        try (Stream<E> stream = rows;
+             JsonGenerator generator = writer.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            Iterator<E> iterator = stream.iterator();
+            int written = 0;
+            while (iterator.hasNext()) {
+                E row = iterator.next();
+                writer.writeValue(generator, mapper.apply(row));
+                generator.writeRaw('\n');
+                entityManager.detach(row);
+                if (++written % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.openclassrooms.mddapi.services.impl;
+
+import static com.openclassrooms.mddapi.config.Constants.DEFAULT_PAGE_SIZE;
+import static com.openclassrooms.mddapi.config.Constants.MAX_PAGE_SIZE;
+
+/**
+ * Règles de pagination appliquées côté serveur.
+ * <p>
+ * Toute taille de page demandée par un client est ramenée dans l’intervalle
+ * {@code [1, MAX_PAGE_SIZE]} ; en l’absence de valeur, {@code DEFAULT_PAGE_SIZE} est utilisée.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+final class Pagination {
+
+    private Pagination() {
+    }
+
+    /**
+     * Calcule la taille de page effective à partir de la valeur demandée.
+     *
+     * @param requested la taille demandée par le client, éventuellement {@code null}.
+     * @return une taille de page comprise entre 1 et {@code MAX_PAGE_SIZE}.
+     */
+    static int pageSize(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(requested, MAX_PAGE_SIZE));
+    }
+}
@@ -6,6 +6,7 @@ import com.openclassrooms.mddapi.model.mappers.ThemeMapper;
 import com.openclassrooms.mddapi.repositories.ThemeDAO;
 import com.openclassrooms.mddapi.services.ThemeService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -50,26 +51,50 @@ public class ThemeServiceImpl implements ThemeService {
     /**
      * Récupère un thème à partir de son identifiant.
      *
+     * <p>
+     * Lecture directe par clé primaire : l’appelant ne résout qu’un thème à la fois,
+     * il n’y a rien à regrouper.
+     * </p>
+     *
      * @param id l’identifiant du thème recherché.
      * @return le {@link ThemeDTO} correspondant, ou {@code null} si le thème n’existe pas.
      */
     @Override
     public ThemeDTO getThemeById(Integer id) {
-        if (themeDAO.findById(id).isPresent()) {
-            return themeMapper.fromThemeToDto(themeDAO.findById(id).get());
-        } else {
-            return null;
-        }
+        return themeDAO.findById(id).map(themeMapper::fromThemeToDto).orElse(null);
+    }
+
+    /**
+     * Calcule la version d’une liste de thèmes à partir de leur contenu.
+     * <p>
+     * Les thèmes ne portant ni date ni compteur de version, un agrégat sur la clé primaire ne verrait pas
+     * la modification d’un nom ou d’une description : l’étiquette est l’empreinte des thèmes eux-mêmes.
+     * Elle est calculée sur la liste que la réponse renverra : une seule lecture de la table, que la réponse
+     * soit un 200 ou un 304 ; le 304 épargne la sérialisation et le transfert.
+     * </p>
+     *
+     * @param themes la liste renvoyée par {@link #getAllThemes()}.
+     * @return l’étiquette de version (ETag) de la liste des thèmes.
+     */
+    @Override
+    public String getThemesVersion(List<ThemeDTO> themes) {
+        List<Object> parts = new ArrayList<>();
+        themes.forEach(theme -> {
+            parts.add(theme.getId());
+            parts.add(theme.getName());
+            parts.add(theme.getDescription());
+        });
+        return ContentVersions.tag("themes", null, parts.toArray());
     }
 
     /**
-     * Récupère la liste complète de tous les thèmes disponibles.
+     * Récupère la liste complète de tous les thèmes disponibles, par ordre d’identifiant.
      *
      * @return une liste de {@link ThemeDTO} représentant tous les thèmes existants.
      */
     @Override
     public List<ThemeDTO> getAllThemes() {
-        List<Theme> themes = themeDAO.findAll();
+        List<Theme> themes = themeDAO.findAll(Sort.by("id"));
         List<ThemeDTO> themeDTOS = new ArrayList<>();
         themes.forEach(theme -> themeDTOS.add(themeMapper.fromThemeToDto(theme)));
         return themeDTOS;
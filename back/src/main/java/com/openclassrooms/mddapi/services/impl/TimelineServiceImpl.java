@@ -0,0 +1,380 @@
+package com.openclassrooms.mddapi.services.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.mddapi.model.dto.ArticleDTO;
+import com.openclassrooms.mddapi.model.entities.Timeline;
+import com.openclassrooms.mddapi.model.entities.TimelineEntry;
+import com.openclassrooms.mddapi.repositories.TimelineDAO;
+import com.openclassrooms.mddapi.repositories.TimelineEntryDAO;
+import com.openclassrooms.mddapi.services.AfterCommit;
+import com.openclassrooms.mddapi.services.TimelineService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Implémentation du service {@link TimelineService} : fil d’actualité matérialisé par utilisateur.
+ * <p>
+ * Chaque fil est un ensemble trié (du plus récent au plus ancien) borné à
+ * {@code mdd.timeline.capacity} entrées. Les fils des utilisateurs actifs sont conservés
+ * en mémoire dans un cache borné à {@code mdd.timeline.max-users} utilisateurs ;
+ * ils sont adossés aux tables {@code timeline} et {@code timeline_entry}.
+ * </p>
+ *
+ * <p>
+ * Un fil absent de la table {@code timeline} est construit à sa première lecture à partir
+ * des thèmes suivis, puis tenu à jour à l’écriture : publication d’un article, abonnement et désabonnement.
+ * La construction, qui enchaîne plusieurs transactions, a lieu hors du calcul du cache mémoire (elle y bloquerait
+ * les autres fils de la même case) ; deux premières lectures simultanées d’un même fil n’en lancent qu’une.
+ * La capacité est appliquée en base à chacune de ces écritures, y compris pour les fils qui ne sont pas en mémoire ;
+ * deux diffusions concurrentes pouvant chacune purger le fil sans voir l’entrée de l’autre, un fil durable peut
+ * dépasser sa capacité d’au plus {@code mdd.timeline.executor.pool-size} entrées, jusqu’à l’écriture suivante.
+ * </p>
+ *
+ * <p>
+ * Les fils en mémoire ne sont modifiés qu’après la validation de l’écriture en base, et par
+ * {@link Map#compute} : si le fil est en cours de chargement, la modification attend la fin du chargement
+ * au lieu d’être perdue. Un fil chargé avant la validation reçoit donc la modification ; un fil chargé
+ * après la lit en base.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@RequiredArgsConstructor
+@Service
+public class TimelineServiceImpl implements TimelineService {
+
+    /** Ordre du fil : du plus récent au plus ancien, l’identifiant départageant les égalités. */
+    private static final Comparator<TimelineEntry> NEWEST_FIRST = Comparator
+            .comparing(TimelineEntry::getCreatedAt, Comparator.nullsLast(Comparator.<Date>reverseOrder()))
+            .thenComparing(TimelineEntry::getArticleId, Comparator.reverseOrder());
+
+    /** DAO de l’état des fils matérialisés. */
+    private final TimelineDAO timelineDAO;
+
+    /** DAO des entrées des fils matérialisés. */
+    private final TimelineEntryDAO entryDAO;
+
+    /** Gestionnaire des transactions, pour la construction d’un fil en transactions distinctes. */
+    private final PlatformTransactionManager transactionManager;
+
+    /** Nombre maximal d’entrées conservées dans le fil d’un utilisateur. */
+    @Value("${mdd.timeline.capacity:500}")
+    private int capacity;
+
+    /** Nombre maximal de fils conservés en mémoire. */
+    @Value("${mdd.timeline.max-users:10000}")
+    private long maxUsers;
+
+    /** Fils des utilisateurs actifs, indexés par identifiant d’utilisateur. */
+    private Cache<Integer, NavigableSet<TimelineEntry>> timelines;
+
+    /** Version de chaque fil en mémoire, tirée de {@link #sequence} à chaque modification. */
+    private Cache<Integer, Long> versions;
+
+    /** Constructions de fils en cours, attendues par les autres lectures du même fil. */
+    private final Map<Integer, CompletableFuture<Void>> materializing = new ConcurrentHashMap<>();
+
+    /** Séquence des modifications des fils en mémoire. */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /** Démarrage de l’instance : distingue les versions de deux instances ou de deux démarrages. */
+    private final long epoch = System.currentTimeMillis();
+
+    /** Transactions indépendantes de celle de l’appelant, validées dès la fin de chaque écriture. */
+    private TransactionTemplate newTransaction;
+
+    /** Initialise le cache mémoire des fils. */
+    @PostConstruct
+    void init() {
+        timelines = Caffeine.newBuilder().maximumSize(maxUsers).build();
+        versions = Caffeine.newBuilder().maximumSize(maxUsers).build();
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Lit une page du fil matérialisé d’un utilisateur, en le chargeant si nécessaire.
+     *
+     * @param userId    l’identifiant de l’utilisateur.
+     * @param createdAt la date de création du dernier article de la page précédente, ou {@code null}.
+     * @param articleId l’identifiant du dernier article de la page précédente, ou {@code null}.
+     * @param limit     le nombre maximal d’identifiants à renvoyer.
+     * @return les identifiants de la page, ou {@link Optional#empty()} si la page dépasse le fil conservé.
+     */
+    @Override
+    public Optional<List<Integer>> findPage(int userId, Date createdAt, Integer articleId, int limit) {
+        NavigableSet<TimelineEntry> timeline = timelines.getIfPresent(userId);
+        if (timeline == null) {
+            ensureMaterialized(userId);
+            timeline = timelines.get(userId, this::load);
+        }
+        NavigableSet<TimelineEntry> window = createdAt == null
+                ? timeline
+                : timeline.tailSet(new TimelineEntry(userId, articleId, 0, createdAt), false);
+
+        List<Integer> ids = new ArrayList<>(limit);
+        for (TimelineEntry entry : window) {
+            if (ids.size() == limit) {
+                break;
+            }
+            ids.add(entry.getArticleId());
+        }
+        if (ids.size() < limit && timeline.size() >= capacity) {
+            // Des entrées plus anciennes ont pu être écartées du fil borné.
+            return Optional.empty();
+        }
+        return Optional.of(ids);
+    }
+
+    /**
+     * Renvoie la version du fil en mémoire d’un utilisateur.
+     *
+     * @param userId l’identifiant de l’utilisateur.
+     * @return la version du fil.
+     */
+    @Override
+    public String getVersion(int userId) {
+        Long version = versions.getIfPresent(userId);
+        return epoch + "." + (version == null ? 0 : version);
+    }
+
+    /**
+     * Pousse un nouvel article dans le fil de chacun des abonnés de son thème dont le fil est matérialisé,
+     * puis ramène à leur capacité les fils qui la dépassent.
+     *
+     * @param article l’article publié, déjà validé en base.
+     */
+    @Override
+    @Async("timelineExecutor")
+    public void publish(ArticleDTO article) {
+        int themeId = article.getThemeId();
+        List<Integer> followerIds = write(status -> {
+            entryDAO.fanOut(article.getId(), themeId, article.getCreatedAt());
+            entryDAO.findFollowerIdsOverCapacity(themeId, capacity).forEach(this::trim);
+            return entryDAO.findMaterializedFollowerIds(themeId);
+        });
+        followerIds.forEach(followerId -> update(followerId,
+                timeline -> push(timeline, new TimelineEntry(followerId, article.getId(), themeId, article.getCreatedAt()))));
+    }
+
+    /**
+     * Complète le fil d’un utilisateur avec les articles récents d’un thème qu’il vient de suivre.
+     * <p>
+     * Sans effet si le fil n’est pas encore matérialisé : il sera construit à la première lecture.
+     * </p>
+     *
+     * @param userId  l’identifiant de l’utilisateur.
+     * @param themeId l’identifiant du thème suivi.
+     */
+    @Override
+    @Async("timelineExecutor")
+    public void follow(int userId, int themeId) {
+        boolean materialized = write(status -> {
+            if (!timelineDAO.existsById(userId)) {
+                return false;
+            }
+            entryDAO.fillFromTheme(userId, themeId, capacity);
+            trim(userId);
+            return true;
+        });
+        if (materialized) {
+            // Le fil en mémoire est relu en base à la lecture suivante.
+            timelines.asMap().compute(userId, (id, timeline) -> {
+                touch(userId);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Retire du fil d’un utilisateur les articles d’un thème qu’il ne suit plus.
+     *
+     * @param userId  l’identifiant de l’utilisateur.
+     * @param themeId l’identifiant du thème abandonné.
+     */
+    @Override
+    @Async("timelineExecutor")
+    @Transactional
+    public void unfollow(int userId, int themeId) {
+        entryDAO.deleteByUserIdAndThemeId(userId, themeId);
+        AfterCommit.run(() -> update(userId, timeline -> timeline.removeIf(entry -> entry.getThemeId() == themeId)));
+    }
+
+    /**
+     * Retire un article de tous les fils, en base comme en mémoire.
+     * <p>
+     * Les fils qui contiennent l’article sont lus avant la suppression, par l’index
+     * {@code idx_timeline_entry_article} : seuls ces fils sont ensuite modifiés en mémoire.
+     * </p>
+     *
+     * @param articleId l’identifiant de l’article.
+     */
+    @Override
+    @Transactional
+    public void removeArticle(int articleId) {
+        List<Integer> userIds = entryDAO.findUserIdsByArticleId(articleId);
+        entryDAO.deleteByArticleId(articleId);
+        AfterCommit.run(() -> userIds.forEach(userId ->
+                update(userId, timeline -> timeline.removeIf(entry -> entry.getArticleId() == articleId))));
+    }
+
+    /**
+     * Construit le fil durable d’un utilisateur s’il n’est pas encore matérialisé.
+     * <p>
+     * Une seule construction est lancée par fil : une lecture simultanée du même fil attend sa fin
+     * plutôt que de charger un fil à moitié rempli.
+     * </p>
+     *
+     * @param userId l’identifiant de l’utilisateur.
+     */
+    private void ensureMaterialized(int userId) {
+        CompletableFuture<Void> construction = new CompletableFuture<>();
+        CompletableFuture<Void> running = materializing.putIfAbsent(userId, construction);
+        if (running != null) {
+            running.join();
+            return;
+        }
+        try {
+            if (!timelineDAO.existsById(userId)) {
+                materialize(userId);
+            }
+            construction.complete(null);
+        } catch (RuntimeException e) {
+            construction.completeExceptionally(e);
+            throw e;
+        } finally {
+            materializing.remove(userId, construction);
+        }
+    }
+
+    /**
+     * Charge en mémoire le fil durable d’un utilisateur.
+     * <p>
+     * Appelé par le calcul du cache : une seule lecture indexée, pendant laquelle les modifications
+     * du même fil attendent au lieu d’être perdues.
+     * </p>
+     *
+     * @param userId l’identifiant de l’utilisateur.
+     * @return le fil trié et borné de l’utilisateur.
+     */
+    private NavigableSet<TimelineEntry> load(int userId) {
+        NavigableSet<TimelineEntry> timeline = new ConcurrentSkipListSet<>(NEWEST_FIRST);
+        timeline.addAll(entryDAO.findByUserIdOrderByCreatedAtDescArticleIdDesc(userId, PageRequest.of(0, capacity)));
+        touch(userId);
+        return timeline;
+    }
+
+    /**
+     * Construit le fil durable d’un utilisateur à partir de ses thèmes suivis.
+     * <p>
+     * Le fil est déclaré matérialisé, et cette déclaration validée, avant d’être rempli : un article validé
+     * après la lecture des thèmes suivis est alors forcément poussé dans le fil par sa publication.
+     * Si le remplissage échoue, la déclaration est retirée et le fil sera reconstruit à la lecture suivante.
+     * </p>
+     *
+     * @param userId l’identifiant de l’utilisateur.
+     */
+    private void materialize(int userId) {
+        newTransaction.executeWithoutResult(status -> {
+            entryDAO.deleteByUserId(userId);
+            timelineDAO.save(new Timeline(userId, new Date()));
+        });
+        try {
+            write(status -> {
+                entryDAO.fillFromFollowedThemes(userId, capacity);
+                trim(userId);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            newTransaction.executeWithoutResult(status -> timelineDAO.deleteById(userId));
+            throw e;
+        }
+    }
+
+    /**
+     * Exécute une écriture du fil durable dans sa propre transaction, validée au retour.
+     * <p>
+     * Deux écritures concurrentes du même article dans un même fil (publication pendant une construction,
+     * par exemple) peuvent entrer en conflit sur la clé primaire : l’écriture perdante est rejouée une fois,
+     * et n’insère alors que les entrées encore absentes.
+     * </p>
+     *
+     * @param work l’écriture à exécuter.
+     * @return le résultat de l’écriture.
+     */
+    private <T> T write(TransactionCallback<T> work) {
+        try {
+            return newTransaction.execute(work);
+        } catch (DataIntegrityViolationException e) {
+            return newTransaction.execute(work);
+        }
+    }
+
+    /**
+     * Ramène le fil durable d’un utilisateur à sa capacité, en supprimant ses entrées les plus anciennes.
+     *
+     * @param userId l’identifiant de l’utilisateur.
+     */
+    private void trim(int userId) {
+        entryDAO.findByUserIdOrderByCreatedAtDescArticleIdDesc(userId, PageRequest.of(capacity - 1, 1))
+                .forEach(last -> entryDAO.deleteOlderThan(userId, last.getCreatedAt(), last.getArticleId()));
+    }
+
+    /**
+     * Modifie le fil en mémoire d’un utilisateur s’il y est présent, ou dès la fin de son chargement
+     * s’il est en cours de chargement.
+     *
+     * @param userId l’identifiant de l’utilisateur.
+     * @param change la modification à appliquer au fil.
+     */
+    private void update(int userId, Consumer<NavigableSet<TimelineEntry>> change) {
+        timelines.asMap().compute(userId, (id, timeline) -> {
+            if (timeline != null) {
+                change.accept(timeline);
+                touch(userId);
+            }
+            return timeline;
+        });
+    }
+
+    /**
+     * Attribue une nouvelle version au fil en mémoire d’un utilisateur.
+     *
+     * @param userId l’identifiant de l’utilisateur.
+     */
+    private void touch(int userId) {
+        versions.put(userId, sequence.incrementAndGet());
+    }
+
+    /**
+     * Ajoute une entrée à un fil en mémoire en respectant sa capacité.
+     *
+     * @param timeline le fil à compléter.
+     * @param entry    l’entrée à ajouter.
+     */
+    private void push(NavigableSet<TimelineEntry> timeline, TimelineEntry entry) {
+        timeline.add(entry);
+        while (timeline.size() > capacity) {
+            timeline.pollLast();
+        }
+    }
+}
@@ -5,17 +5,31 @@ import com.openclassrooms.mddapi.model.dto.UserDTO;
 import com.openclassrooms.mddapi.model.entities.User;
 import com.openclassrooms.mddapi.model.mappers.UserMapper;
 import com.openclassrooms.mddapi.repositories.UserDAO;
+import com.openclassrooms.mddapi.services.AfterCommit;
+import com.openclassrooms.mddapi.services.PasswordHashingService;
 import com.openclassrooms.mddapi.services.ThemeService;
+import com.openclassrooms.mddapi.services.TimelineService;
 import com.openclassrooms.mddapi.services.UserService;
+import com.openclassrooms.mddapi.services.stream.FollowedArticleStream;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.validation.ValidationException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.openclassrooms.mddapi.config.Constants.ARTICLES_BY_THEME_CACHE;
+import static com.openclassrooms.mddapi.config.Constants.PRINCIPALS_CACHE;
 
 /**
  * Implémentation du service {@link UserService} pour la gestion des utilisateurs.
@@ -33,8 +47,11 @@ import java.util.List;
  * <ul>
  *     <li>{@link UserDAO} pour la persistance des utilisateurs,</li>
  *     <li>{@link UserMapper} pour la conversion entre entités et DTOs,</li>
- *     <li>{@link BCryptPasswordEncoder} pour le chiffrement des mots de passe,</li>
- *     <li>{@link ThemeService} pour la gestion des thèmes suivis.</li>
+ *     <li>{@link PasswordHashingService} pour le chiffrement des mots de passe, sur un pool dédié,</li>
+ *     <li>{@link ThemeService} pour la gestion des thèmes suivis,</li>
+ *     <li>{@link TimelineService} pour la mise à jour des fils d’actualité lors des (dés)abonnements,</li>
+ *     <li>{@link CacheManager} pour l’invalidation du cache {@code principals} des utilisateurs authentifiés,
+ *     et du cache {@code articlesByTheme} qui reprend le nom des auteurs.</li>
  * </ul>
  * </p>
  *
@@ -49,8 +66,8 @@ import java.util.List;
 @Service
 public class UserServiceImpl implements UserService {
 
-    /** Encodeur de mot de passe utilisé pour le chiffrement avant persistance. */
-    private final BCryptPasswordEncoder bCryptPasswordEncoder;
+    /** Service de chiffrement des mots de passe avant persistance, exécuté sur un pool borné. */
+    private final PasswordHashingService passwordHashingService;
 
     /** DAO gérant les opérations de persistance sur les utilisateurs. */
     private final UserDAO userDao;
@@ -58,10 +75,28 @@ public class UserServiceImpl implements UserService {
     /** Service permettant de gérer les thèmes suivis par les utilisateurs. */
     private final ThemeService themeService;
 
+    /** Service des fils d’actualité matérialisés, complétés ou purgés lors des (dés)abonnements. */
+    private final TimelineService timelineService;
+
     /** Mapper responsable de la conversion entre entités {@link User} et DTOs {@link UserDTO}. */
     @Qualifier("userMapper")
     private final UserMapper mapper;
 
+    /** Gestionnaire des caches, pour l’invalidation du cache des utilisateurs authentifiés. */
+    private final CacheManager cacheManager;
+
+    /** Transactions des écritures achevées sur le pool de chiffrement, hors du thread de la requête. */
+    private final TransactionTemplate transaction;
+
+    /**
+     * Version des noms d’utilisateur. Initialisée à l’heure du démarrage, afin qu’une étiquette émise
+     * avant un redémarrage ne corresponde pas à une version postérieure.
+     */
+    private final AtomicLong usernamesVersion = new AtomicLong(System.currentTimeMillis());
+
+    /** Flux SSE des nouveaux articles, dont les connexions ouvertes suivent les (dés)abonnements. */
+    private final FollowedArticleStream articleStream;
+
     /**
      * Récupère un utilisateur par son identifiant.
      *
@@ -80,24 +115,31 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public void deleteUserById(int id) {
-        if (checkId(id)) {
+        User user = userDao.findById(id);
+        if (user != null) {
             userDao.deleteById(id);
+            evictPrincipal(user.getEmail());
+            usernameChanged();
         }
     }
 
     /**
      * Récupère un utilisateur à partir de son adresse e-mail.
+     * <p>
+     * Méthode appelée à chaque requête authentifiée pour résoudre la claim {@code sub} du JWT :
+     * le résultat est conservé dans le cache {@code principals}, invalidé par toute modification
+     * de l’utilisateur ou de ses abonnements. Le {@link UserDTO} renvoyé est partagé et ne doit pas être modifié.
+     * </p>
      *
      * @param email l’adresse e-mail recherchée.
      * @return le {@link UserDTO} correspondant ou {@code null} si non trouvé.
      */
     @Override
+    @Cacheable(cacheNames = PRINCIPALS_CACHE, key = "#email", unless = "#result == null")
+    @Transactional(readOnly = true)
     public UserDTO getUserByEmail(String email) {
-        if (checkEmail(email)) {
-            return mapper.fromUserToDto(userDao.findByEmail(email));
-        } else {
-            return null;
-        }
+        User user = userDao.findByEmail(email);
+        return user == null ? null : mapper.fromUserToDto(user);
     }
 
     /**
@@ -117,36 +159,76 @@ public class UserServiceImpl implements UserService {
 
     /**
      * Enregistre un nouvel utilisateur dans la base de données avec chiffrement du mot de passe.
+     * <p>
+     * Le chiffrement s’exécute sur le pool du {@link PasswordHashingService} ; l’enregistrement
+     * s’enchaîne sur le thread qui a terminé le calcul.
+     * </p>
      *
      * @param userDto les informations du nouvel utilisateur.
-     * @return le {@link UserDTO} enregistré (sans mot de passe).
+     * @return le {@link UserDTO} enregistré (sans mot de passe), disponible une fois l’utilisateur enregistré.
      */
     @Override
-    public UserDTO saveUser(UserDTO userDto) {
+    public CompletableFuture<UserDTO> saveUser(UserDTO userDto) {
         User user = mapper.fromDtoToUser(userDto);
-        user.setPassword(bCryptPasswordEncoder.encode(userDto.getPassword()));
-        userDao.save(user);
-        return mapper.fromUserToDtoWithoutPassword(userDao.findById(userDto.getId()));
+        return passwordHashingService.encode(userDto.getPassword()).thenApply(hash -> {
+            user.setPassword(hash);
+            return mapper.fromUserToDtoWithoutPassword(userDao.save(user));
+        });
     }
 
     /**
      * Met à jour les informations d’un utilisateur existant.
+     * <p>
+     * Un nouveau mot de passe est chiffré sur le pool du {@link PasswordHashingService}, puis la mise
+     * à jour s’enchaîne sur le thread qui a terminé le calcul ; sans nouveau mot de passe, elle est immédiate.
+     * </p>
      *
      * @param userDto les nouvelles informations de l’utilisateur.
-     * @return le {@link UserDTO} mis à jour (sans mot de passe).
+     * @return le {@link UserDTO} mis à jour (sans mot de passe), disponible une fois la mise à jour enregistrée.
      */
     @Override
-    public UserDTO updateUser(UserDTO userDto) {
-        UserDTO userToUpdate = mapper.fromUserToDto(userDao.findById(userDto.getId()));
-        if (userDto.getPassword()!=null) {
-            userToUpdate.setPassword(bCryptPasswordEncoder.encode(userDto.getPassword()));
+    public CompletableFuture<UserDTO> updateUser(UserDTO userDto) {
+        if (userDto.getPassword() == null) {
+            return CompletableFuture.completedFuture(update(userDto, null));
         }
-        userToUpdate.setEmail(userDto.getEmail());
-        userToUpdate.setUsername(userDto.getUsername());
-        userToUpdate.setName(userDto.getName());
+        return passwordHashingService.encode(userDto.getPassword()).thenApply(hash -> update(userDto, hash));
+    }
+
+    /**
+     * Applique les nouvelles informations à l’utilisateur et l’enregistre dans une transaction ;
+     * son entrée du cache {@code principals} est invalidée après la validation ; s’il change de nom
+     * d’utilisateur, les copies de son ancien nom le sont aussi.
+     * <p>
+     * La transaction est explicite : appelée depuis le pool de chiffrement, cette méthode ne profite
+     * pas de la session ouverte pour la requête, dont les thèmes suivis ont besoin.
+     * </p>
+     *
+     * @param userDto      les nouvelles informations de l’utilisateur.
+     * @param passwordHash le nouveau mot de passe chiffré, ou {@code null} pour conserver l’actuel.
+     * @return le {@link UserDTO} mis à jour (sans mot de passe).
+     */
+    private UserDTO update(UserDTO userDto, String passwordHash) {
+        return transaction.execute(status -> {
+            UserDTO userToUpdate = mapper.fromUserToDto(userDao.findById(userDto.getId()));
+            if (passwordHash != null) {
+                userToUpdate.setPassword(passwordHash);
+            }
+            String previousEmail = userToUpdate.getEmail();
+            boolean renamed = !Objects.equals(userToUpdate.getUsername(), userDto.getUsername());
+            userToUpdate.setEmail(userDto.getEmail());
+            userToUpdate.setUsername(userDto.getUsername());
+            userToUpdate.setName(userDto.getName());
 
-        userDao.save(mapper.fromDtoToUser(userToUpdate));
-        return mapper.fromUserToDtoWithoutPassword(userDao.findById(userDto.getId()));
+            userDao.save(mapper.fromDtoToUser(userToUpdate));
+            AfterCommit.run(() -> {
+                evictPrincipal(previousEmail);
+                evictPrincipal(userDto.getEmail());
+                if (renamed) {
+                    usernameChanged();
+                }
+            });
+            return mapper.fromUserToDtoWithoutPassword(userDao.findById(userDto.getId()));
+        });
     }
 
     /**
@@ -191,10 +273,12 @@ public class UserServiceImpl implements UserService {
     @Override
     public UserDTO addThemeToFollowed(UserDTO user, int themeId) {
         if (this.checkEmail(user.getEmail())) {
-            List<ThemeDTO> themes = user.getFollowedThemes();
+            List<ThemeDTO> themes = new ArrayList<>(user.getFollowedThemes());
             themes.add(themeService.getThemeById(themeId));
-            user.setFollowedThemes(themes);
-            userDao.save(mapper.fromDtoToUser(user));
+            userDao.save(mapper.fromDtoToUser(withFollowedThemes(user, themes)));
+            evictPrincipal(user.getEmail());
+            timelineService.follow(user.getId(), themeId);
+            articleStream.follow(user.getId(), themeId);
             return mapper.fromUserToDtoWithoutPassword(userDao.findById(user.getId()));
         } else {
             throw new ValidationException("error while adding theme");
@@ -212,13 +296,78 @@ public class UserServiceImpl implements UserService {
     @Override
     public UserDTO removeThemeToFollowed(UserDTO user, int themeId) {
         if (this.checkEmail(user.getEmail())) {
-            List<ThemeDTO> themes = user.getFollowedThemes();
-            themes.remove(themeService.getThemeById(themeId));
-            user.setFollowedThemes(themes);
-            userDao.save(mapper.fromDtoToUser(user));
+            List<ThemeDTO> themes = new ArrayList<>(user.getFollowedThemes());
+            themes.removeIf(theme -> theme.getId() == themeId);
+            userDao.save(mapper.fromDtoToUser(withFollowedThemes(user, themes)));
+            evictPrincipal(user.getEmail());
+            timelineService.unfollow(user.getId(), themeId);
+            articleStream.unfollow(user.getId(), themeId);
             return mapper.fromUserToDtoWithoutPassword(userDao.findById(user.getId()));
         } else {
             throw new ValidationException("error while adding theme");
         }
     }
+
+    /**
+     * Copie un utilisateur en remplaçant sa liste de thèmes suivis.
+     * <p>
+     * L’utilisateur reçu peut provenir du cache {@code principals} : il n’est jamais modifié sur place.
+     * </p>
+     *
+     * @param user   l’utilisateur à copier.
+     * @param themes la nouvelle liste de thèmes suivis.
+     * @return la copie de l’utilisateur.
+     */
+    private UserDTO withFollowedThemes(UserDTO user, List<ThemeDTO> themes) {
+        return UserDTO.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .username(user.getUsername())
+                .password(user.getPassword())
+                .followedThemes(themes)
+                .build();
+    }
+
+    /**
+     * Retire un utilisateur du cache {@code principals}.
+     *
+     * @param email l’adresse e-mail de l’utilisateur modifié.
+     */
+    private void evictPrincipal(String email) {
+        Cache cache = cacheManager.getCache(PRINCIPALS_CACHE);
+        if (cache != null && email != null) {
+            cache.evict(email);
+        }
+    }
+
+    /**
+     * Invalide les copies du nom d’un utilisateur renommé ou supprimé : le cache {@code articlesByTheme},
+     * dont les résumés portent le nom de leur auteur, est vidé et la version des noms d’utilisateur avance.
+     * <p>
+     * Les articles d’un auteur peuvent appartenir à n’importe quel thème : le cache est vidé en entier,
+     * ce qui reste rare (renommage ou suppression d’un utilisateur).
+     * </p>
+     */
+    private void usernameChanged() {
+        Cache cache = cacheManager.getCache(ARTICLES_BY_THEME_CACHE);
+        if (cache != null) {
+            cache.clear();
+        }
+        usernamesVersion.incrementAndGet();
+    }
+
+    /**
+     * Renvoie la version des noms d’utilisateur.
+     * <p>
+     * Tenue en mémoire, comme les caches qu’elle accompagne : elle avance à chaque renommage
+     * ou suppression fait par cette instance.
+     * </p>
+     *
+     * @return la version courante des noms d’utilisateur.
+     */
+    @Override
+    public long getUsernamesVersion() {
+        return usernamesVersion.get();
+    }
 }
@@ -0,0 +1,81 @@
+package com.openclassrooms.mddapi.services.loader;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Chargeur par lots d’entités liées (patron « DataLoader »).
+ * <p>
+ * Pendant l’assemblage des DTOs, les identifiants des entités liées sont collectés via
+ * {@link #load(Object, Consumer)} sans accès à la base ; l’appel à {@link #dispatch()}
+ * les résout ensuite en une seule requête, puis invoque les callbacks enregistrés.
+ * Les valeurs déjà résolues sont conservées : un identifiant n’est chargé qu’une fois
+ * pendant la durée de vie du chargeur.
+ * </p>
+ *
+ * <p>
+ * Un chargeur est destiné à être utilisé par un seul thread (celui de la requête HTTP),
+ * il n’est donc pas synchronisé.
+ * </p>
+ *
+ * @param <K> le type des identifiants.
+ * @param <V> le type des entités chargées.
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+public class BatchLoader<K, V> {
+
+    /** Fonction de chargement par lot : identifiants demandés vers entités trouvées. */
+    private final Function<Set<K>, Map<K, V>> batchFunction;
+
+    /** Entités déjà résolues (les identifiants introuvables sont associés à {@code null}). */
+    private final Map<K, V> resolved = new HashMap<>();
+
+    /** Callbacks en attente, par identifiant. */
+    private final Map<K, List<Consumer<V>>> pending = new LinkedHashMap<>();
+
+    /**
+     * Crée un chargeur à partir de sa fonction de chargement par lot.
+     *
+     * @param batchFunction la fonction résolvant un ensemble d’identifiants en une requête.
+     */
+    public BatchLoader(Function<Set<K>, Map<K, V>> batchFunction) {
+        this.batchFunction = batchFunction;
+    }
+
+    /**
+     * Demande le chargement d’une entité.
+     * <p>
+     * Si l’entité est déjà résolue, le callback est invoqué immédiatement ; sinon il le sera
+     * lors du prochain {@link #dispatch()}, avec {@code null} si l’entité n’existe pas.
+     * </p>
+     *
+     * @param key      l’identifiant de l’entité.
+     * @param callback le traitement à appliquer à l’entité chargée.
+     */
+    public void load(K key, Consumer<V> callback) {
+        if (resolved.containsKey(key)) {
+            callback.accept(resolved.get(key));
+        } else {
+            pending.computeIfAbsent(key, k -> new ArrayList<>()).add(callback);
+        }
+    }
+
+    /**
+     * Résout en une seule requête tous les identifiants en attente et invoque leurs callbacks.
+     */
+    public void dispatch() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<K, List<Consumer<V>>> batch = new LinkedHashMap<>(pending);
+        pending.clear();
+        Map<K, V> loaded = batchFunction.apply(batch.keySet());
+        batch.forEach((key, callbacks) -> {
+            V value = loaded.get(key);
+            resolved.put(key, value);
+            callbacks.forEach(callback -> callback.accept(value));
+        });
+    }
+}
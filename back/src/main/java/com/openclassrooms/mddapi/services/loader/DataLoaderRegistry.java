@@ -0,0 +1,70 @@
+package com.openclassrooms.mddapi.services.loader;
+
+import com.openclassrooms.mddapi.model.entities.User;
+import com.openclassrooms.mddapi.repositories.UserDAO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Point d’accès aux {@link BatchLoader} de la requête HTTP courante.
+ * <p>
+ * Le chargeur d’entités {@link User} est conservé dans les attributs
+ * de la requête : toutes les assemblées de DTOs d’une même requête partagent ainsi les entités
+ * déjà résolues, et chaque lot est résolu par un seul {@code findAllById}.
+ * Hors requête HTTP (traitement asynchrone, démarrage), un chargeur éphémère est renvoyé.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Component
+@RequiredArgsConstructor
+public class DataLoaderRegistry {
+
+    /** Clé de l’attribut de requête portant le chargeur d’utilisateurs. */
+    private static final String USERS = DataLoaderRegistry.class.getName() + ".users";
+
+    /** DAO des utilisateurs. */
+    private final UserDAO userDAO;
+
+    /**
+     * Renvoie le chargeur d’utilisateurs de la requête courante.
+     *
+     * @return le chargeur d’utilisateurs, indexés par identifiant.
+     */
+    public BatchLoader<Integer, User> users() {
+        return loader(USERS, ids -> {
+            Map<Integer, User> users = new HashMap<>();
+            userDAO.findAllById(ids).forEach(user -> users.put(user.getId(), user));
+            return users;
+        });
+    }
+
+    /**
+     * Récupère (ou crée) le chargeur stocké sous une clé dans la requête courante.
+     *
+     * @param key           la clé de l’attribut de requête.
+     * @param batchFunction la fonction de chargement par lot.
+     * @return le chargeur de la requête, ou un chargeur éphémère hors requête.
+     */
+    @SuppressWarnings("unchecked")
+    private <V> BatchLoader<Integer, V> loader(String key, Function<Set<Integer>, Map<Integer, V>> batchFunction) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return new BatchLoader<>(batchFunction);
+        }
+        BatchLoader<Integer, V> loader = (BatchLoader<Integer, V>) attributes.getAttribute(key, RequestAttributes.SCOPE_REQUEST);
+        if (loader == null) {
+            loader = new BatchLoader<>(batchFunction);
+            attributes.setAttribute(key, loader, RequestAttributes.SCOPE_REQUEST);
+        }
+        return loader;
+    }
+}
@@ -0,0 +1,335 @@
+package com.openclassrooms.mddapi.services.search;
+
+import com.openclassrooms.mddapi.model.dto.ArticleDTO;
+import com.openclassrooms.mddapi.model.entities.Article;
+import com.openclassrooms.mddapi.model.projections.ContentVersion;
+import com.openclassrooms.mddapi.repositories.ArticleDAO;
+import com.openclassrooms.mddapi.repositories.EntityStreams;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.fr.FrenchAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.similarities.BM25Similarity;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Index de recherche plein texte des articles (Lucene), embarqué dans l’application.
+ * <p>
+ * Le titre et le contenu de chaque article sont analysés en français et classés par BM25, le titre
+ * comptant double ; le thème est indexé pour filtrer les résultats. L’index est construit au démarrage
+ * à partir de {@link ArticleDAO}, puis tenu à jour à chaque création, modification ou suppression
+ * d’article.
+ * </p>
+ *
+ * <p>
+ * Les écritures sont visibles des recherches « en quasi temps réel » : le lecteur est rafraîchi toutes les
+ * {@code mdd.search.refresh-interval}. L’index est validé sur disque, dans le répertoire
+ * {@code mdd.search.directory}, toutes les {@code mdd.search.commit-interval} et à l’arrêt, avec la version
+ * de la table {@code article} ({@link ArticleDAO#findVersion()}) : au redémarrage, il n’est reconstruit que
+ * si cette version a changé entre-temps. Sans répertoire configuré, l’index est conservé en mémoire et
+ * reconstruit à chaque démarrage.
+ * </p>
+ *
+ * <p>
+ * L’index est propre à chaque instance : seules les écritures passant par cette instance y sont reportées.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ArticleSearchIndex implements ApplicationRunner {
+
+    static final String ID = "id";
+    static final String THEME_ID = "themeId";
+    static final String TITLE = "title";
+    static final String CONTENT = "content";
+
+    /** Poids du titre dans le score, relativement au contenu. */
+    private static final float TITLE_BOOST = 2f;
+
+    private static final String COUNT = "count";
+    private static final String MAX_ID = "maxId";
+    private static final String LAST_MODIFIED = "lastModified";
+
+    private final ArticleDAO articleDAO;
+
+    private final EntityStreams entityStreams;
+
+    private final PlatformTransactionManager transactionManager;
+
+    /** Répertoire de l’index sur disque ; vide pour un index en mémoire. */
+    @Value("${mdd.search.directory:}")
+    private String directory;
+
+    /** Délai maximal avant qu’une écriture soit visible des recherches. */
+    @Value("${mdd.search.refresh-interval:1s}")
+    private Duration refreshInterval;
+
+    /** Intervalle entre deux validations de l’index sur disque. */
+    @Value("${mdd.search.commit-interval:30s}")
+    private Duration commitInterval;
+
+    /** Profondeur maximale de pagination des résultats. */
+    @Value("${mdd.search.max-results:1000}")
+    private int maxResults;
+
+    private final Analyzer analyzer = new FrenchAnalyzer();
+
+    private Directory index;
+
+    private IndexWriter writer;
+
+    private SearcherManager searcherManager;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Ouvre l’index (en le créant s’il n’existe pas) et planifie son rafraîchissement et sa validation.
+     *
+     * @throws IOException si l’index ne peut pas être ouvert.
+     */
+    @PostConstruct
+    void open() throws IOException {
+        index = directory.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(directory));
+        writer = new IndexWriter(index, new IndexWriterConfig(analyzer)
+                .setSimilarity(new BM25Similarity())
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, new SearcherFactory() {
+            @Override
+            public IndexSearcher newSearcher(IndexReader reader, IndexReader previousReader) {
+                IndexSearcher searcher = new IndexSearcher(reader);
+                searcher.setSimilarity(new BM25Similarity());
+                return searcher;
+            }
+        });
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "search-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh,
+                refreshInterval.toMillis(), refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::commit,
+                commitInterval.toMillis(), commitInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Réutilise l’index conservé sur disque s’il correspond à la base, sinon le reconstruit.
+     *
+     * @param args arguments de la ligne de commande (non utilisés).
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        Map<String, String> indexed = new HashMap<>();
+        writer.getLiveCommitData().forEach(entry -> indexed.put(entry.getKey(), entry.getValue()));
+        if (!indexed.isEmpty() && indexed.equals(commitData(articleDAO.findVersion()))) {
+            log.info("Search index reused from {}: {} articles", directory, writer.getDocStats().numDocs);
+            return;
+        }
+        rebuild();
+    }
+
+    /**
+     * Reconstruit l’index à partir de l’ensemble des articles, lus en flux.
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        int count = transaction.execute(status -> {
+            try (Stream<Article> articles = entityStreams.articles()) {
+                writer.deleteAll();
+                int[] indexed = {0};
+                articles.forEach(article -> {
+                    write(article.getId(), article.getThemeId(), article.getTitle(), article.getContent());
+                    indexed[0]++;
+                });
+                return indexed[0];
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        commit();
+        refresh();
+        log.info("Search index rebuilt: {} articles in {} ms", count, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Ajoute un article à l’index, ou le remplace s’il y figure déjà.
+     *
+     * @param article l’article créé ou modifié.
+     */
+    public void index(ArticleDTO article) {
+        write(article.getId(), article.getThemeId(), article.getTitle(), article.getContent());
+    }
+
+    /**
+     * Retire un article de l’index.
+     *
+     * @param articleId l’identifiant de l’article supprimé.
+     */
+    public void remove(int articleId) {
+        try {
+            writer.deleteDocuments(new Term(ID, String.valueOf(articleId)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Recherche les articles correspondant à un texte, du plus pertinent au moins pertinent.
+     * <p>
+     * Le texte suit la syntaxe simple de Lucene : tous les termes sont requis, {@code "…"} désigne une
+     * expression exacte, {@code -terme} exclut un terme, {@code terme*} recherche un préfixe et {@code |}
+     * combine deux alternatives.
+     * </p>
+     *
+     * @param text     le texte recherché.
+     * @param themeIds les thèmes auxquels restreindre la recherche, ou vide pour tous les thèmes.
+     * @param offset   le rang du premier résultat.
+     * @param limit    le nombre maximal de résultats.
+     * @return les identifiants des articles trouvés, par pertinence décroissante, parmi les
+     *         {@code mdd.search.max-results} premiers résultats.
+     * @throws IllegalArgumentException si le texte est vide ou si le rang dépasse {@code mdd.search.max-results}.
+     */
+    public List<Integer> search(String text, Collection<Integer> themeIds, int offset, int limit) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Search text must not be blank");
+        }
+        if (offset >= maxResults) {
+            throw new IllegalArgumentException("Search results are limited to the first " + maxResults + " hits");
+        }
+        Query query = query(text, themeIds);
+        List<Integer> ids = new ArrayList<>(limit);
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                ScoreDoc[] hits = searcher.search(query, Math.min(offset + limit, maxResults)).scoreDocs;
+                StoredFields storedFields = searcher.storedFields();
+                for (int i = offset; i < hits.length; i++) {
+                    ids.add(Integer.valueOf(storedFields.document(hits[i].doc, Set.of(ID)).get(ID)));
+                }
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ids;
+    }
+
+    private Query query(String text, Collection<Integer> themeIds) {
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, Map.of(TITLE, TITLE_BOOST, CONTENT, 1f));
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        BooleanQuery.Builder query = new BooleanQuery.Builder().add(parser.parse(text), BooleanClause.Occur.MUST);
+        if (themeIds != null && !themeIds.isEmpty()) {
+            query.add(IntPoint.newSetQuery(THEME_ID, themeIds), BooleanClause.Occur.FILTER);
+        }
+        return query.build();
+    }
+
+    private void write(int id, int themeId, String title, String content) {
+        Document document = new Document();
+        document.add(new StringField(ID, String.valueOf(id), Field.Store.YES));
+        document.add(new IntPoint(THEME_ID, themeId));
+        document.add(new TextField(TITLE, title == null ? "" : title, Field.Store.NO));
+        document.add(new TextField(CONTENT, content == null ? "" : content, Field.Store.NO));
+        try {
+            writer.updateDocument(new Term(ID, String.valueOf(id)), document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Rend visibles des recherches les écritures effectuées depuis le dernier rafraîchissement.
+     */
+    void refresh() {
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Search index refresh failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Valide l’index sur disque, accompagné de la version de la table {@code article}.
+     */
+    private synchronized void commit() {
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.setLiveCommitData(commitData(articleDAO.findVersion()).entrySet());
+                writer.commit();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Search index commit failed: {}", e.getMessage());
+        }
+    }
+
+    private static Map<String, String> commitData(ContentVersion version) {
+        return Map.of(
+                COUNT, String.valueOf(version.getCount()),
+                MAX_ID, String.valueOf(version.getMaxId()),
+                LAST_MODIFIED, version.getLastModified() == null ? "" : String.valueOf(version.getLastModified().getTime()));
+    }
+
+    /**
+     * Arrête le rafraîchissement, valide les dernières écritures et ferme l’index.
+     *
+     * @throws IOException si l’index ne peut pas être fermé.
+     */
+    @PreDestroy
+    void close() throws IOException {
+        scheduler.shutdownNow();
+        commit();
+        searcherManager.close();
+        writer.close();
+        index.close();
+    }
+}
@@ -0,0 +1,80 @@
+package com.openclassrooms.mddapi.services.stream;
+
+import com.openclassrooms.mddapi.model.dto.CommentDTO;
+import com.openclassrooms.mddapi.services.AfterCommit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static com.openclassrooms.mddapi.config.Constants.WS_PUBLISHED_AT_HEADER;
+import static com.openclassrooms.mddapi.config.Constants.WS_TOPIC_PREFIX;
+
+/**
+ * Canal temps réel des commentaires d’un article (STOMP).
+ * <p>
+ * Chaque commentaire écrit en base est publié sur le sujet {@code /topic/articles/{id}/comments} de son article :
+ * un lecteur abonné reçoit les nouveaux commentaires un à un, au lieu de relire la liste. La liste initiale
+ * reste lue par {@code GET /api/comments/{id}}.
+ * </p>
+ *
+ * <p>
+ * Chaque message porte l’en-tête {@value com.openclassrooms.mddapi.config.Constants#WS_PUBLISHED_AT_HEADER}
+ * (date de publication, en millisecondes) d’où est mesuré le délai de distribution.
+ * Le courtier est propre à chaque instance : seuls les commentaires écrits par cette instance y sont publiés.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Component
+@RequiredArgsConstructor
+public class ArticleCommentChannel {
+
+    /** Motif des sujets de commentaires, seules destinations ouvertes aux abonnements des clients. */
+    private static final Pattern TOPIC = Pattern.compile(Pattern.quote(WS_TOPIC_PREFIX) + "/articles/\\d{1,9}/comments");
+
+    /** Modèle d’envoi vers le courtier STOMP en mémoire. */
+    private final SimpMessagingTemplate messagingTemplate;
+
+    /**
+     * Renvoie le sujet des commentaires d’un article.
+     *
+     * @param articleId l’identifiant de l’article.
+     * @return la destination STOMP du sujet.
+     */
+    public static String topic(int articleId) {
+        return WS_TOPIC_PREFIX + "/articles/" + articleId + "/comments";
+    }
+
+    /**
+     * Indique si une destination est le sujet des commentaires d’un article.
+     *
+     * @param destination la destination demandée par un client, éventuellement {@code null}.
+     * @return {@code true} si la destination est un sujet de commentaires.
+     */
+    public static boolean isTopic(String destination) {
+        return destination != null && TOPIC.matcher(destination).matches();
+    }
+
+    /**
+     * Publie un commentaire sur le sujet de son article, après validation de la transaction en cours s’il y en a une.
+     *
+     * @param comment le commentaire écrit en base.
+     */
+    public void publish(CommentDTO comment) {
+        AfterCommit.run(() -> send(comment));
+    }
+
+    /**
+     * Envoie un commentaire sur le sujet de son article, daté de son envoi.
+     *
+     * @param comment le commentaire validé en base.
+     */
+    private void send(CommentDTO comment) {
+        messagingTemplate.convertAndSend(topic(comment.getArticleId()), comment,
+                Map.of(WS_PUBLISHED_AT_HEADER, String.valueOf(System.currentTimeMillis())));
+    }
+}
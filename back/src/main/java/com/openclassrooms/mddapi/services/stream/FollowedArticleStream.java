@@ -0,0 +1,435 @@
+package com.openclassrooms.mddapi.services.stream;
+
+import com.openclassrooms.mddapi.model.dto.ArticleDTO;
+import com.openclassrooms.mddapi.model.dto.ArticleSummaryDTO;
+import com.openclassrooms.mddapi.model.dto.ThemeDTO;
+import com.openclassrooms.mddapi.model.dto.UserDTO;
+import com.openclassrooms.mddapi.repositories.ArticleDAO;
+import com.openclassrooms.mddapi.services.AfterCommit;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.openclassrooms.mddapi.config.Constants.EXCERPT_LENGTH;
+
+/**
+ * Flux SSE des nouveaux articles des thèmes suivis.
+ * <p>
+ * Les connexions sont indexées par thème suivi : la publication d’un article ne parcourt que les abonnés
+ * de son thème. Chaque connexion dispose d’un tampon borné ({@code mdd.stream.buffer-size}) ; les envois
+ * sont faits sur le pool {@code streamExecutor}, jamais par le thread qui publie. Une connexion dont le
+ * tampon déborde (client trop lent), ou dont l’envoi est refusé par le pool saturé, est fermée : le client
+ * se reconnecte et reprend là où il s’était arrêté.
+ * </p>
+ *
+ * <ul>
+ *     <li>Chaque article est envoyé sous la forme d’un événement {@code article}, dont l’identifiant SSE est
+ *     celui de l’article ({@link ArticleSummaryDTO}).</li>
+ *     <li>Un commentaire SSE est envoyé toutes les {@code mdd.stream.heartbeat-interval}, pour maintenir
+ *     la connexion ouverte à travers les proxies et détecter les clients partis.</li>
+ *     <li>À la reconnexion, les articles publiés après {@code Last-Event-ID} sont relus en base
+ *     ({@link ArticleDAO#findFollowedArticlesAfterId}) ; s’ils sont plus de {@code mdd.stream.replay-limit},
+ *     un événement {@code resync} invite le client à recharger son fil. La lecture se fait dans une courte
+ *     transaction en lecture seule : la connexion JDBC est rendue au pool avant l’ouverture du flux, qui est
+ *     exclu de l’open-in-view ({@link com.openclassrooms.mddapi.config.WebConfig}).</li>
+ * </ul>
+ *
+ * <p>
+ * Le registre est propre à chaque instance : seules les publications faites sur cette instance sont diffusées
+ * en direct, les autres étant rattrapées à la reconnexion.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class FollowedArticleStream {
+
+    /** Nom des événements SSE portant un article. */
+    static final String ARTICLE_EVENT = "article";
+
+    /** Nom de l’événement SSE invitant le client à recharger son fil. */
+    static final String RESYNC_EVENT = "resync";
+
+    /** DAO des articles, pour la relecture des articles manqués. */
+    private final ArticleDAO articleDAO;
+
+    /** Pool d’envoi des événements. */
+    private final Executor executor;
+
+    /** Transaction en lecture seule de la relecture des articles manqués. */
+    private final TransactionTemplate replayTransaction;
+
+    /** Nombre maximal d’événements en attente d’envoi par connexion. */
+    @Value("${mdd.stream.buffer-size:100}")
+    private int bufferSize;
+
+    /** Intervalle entre deux battements de cœur. */
+    @Value("${mdd.stream.heartbeat-interval:15s}")
+    private Duration heartbeatInterval;
+
+    /** Durée de vie d’une connexion ; le client se reconnecte ensuite. */
+    @Value("${mdd.stream.timeout:30m}")
+    private Duration timeout;
+
+    /** Nombre maximal d’articles rejoués à la reconnexion. */
+    @Value("${mdd.stream.replay-limit:100}")
+    private int replayLimit;
+
+    /** Connexions ouvertes, par thème suivi. */
+    private final Map<Integer, Set<Subscriber>> byTheme = new ConcurrentHashMap<>();
+
+    /** Connexions ouvertes, par utilisateur. */
+    private final Map<Integer, Set<Subscriber>> byUser = new ConcurrentHashMap<>();
+
+    /** Planificateur des battements de cœur, sur un thread dédié. */
+    private ScheduledExecutorService heartbeat;
+
+    /**
+     * Construit le flux à partir du DAO des articles et du pool d’envoi dédié.
+     *
+     * @param articleDAO         le DAO des articles, pour la reprise.
+     * @param executor           le pool {@code streamExecutor}.
+     * @param transactionManager le gestionnaire des transactions de la reprise.
+     */
+    public FollowedArticleStream(ArticleDAO articleDAO, @Qualifier("streamExecutor") Executor executor,
+                                 PlatformTransactionManager transactionManager) {
+        this.articleDAO = articleDAO;
+        this.executor = executor;
+        this.replayTransaction = new TransactionTemplate(transactionManager);
+        this.replayTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Planifie les battements de cœur.
+     */
+    @PostConstruct
+    void start() {
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = heartbeatInterval.toMillis();
+        heartbeat.scheduleAtFixedRate(this::heartbeat, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Ouvre le flux d’un utilisateur sur les thèmes qu’il suit.
+     * <p>
+     * La connexion est enregistrée avant la relecture des articles manqués : un article publié pendant la
+     * relecture est mis en attente et envoyé ensuite, une seule fois.
+     * </p>
+     *
+     * @param user        l’utilisateur connecté, avec ses thèmes suivis.
+     * @param lastEventId l’identifiant du dernier article reçu, ou {@code null} pour une première connexion.
+     * @return l’émetteur SSE de la connexion.
+     */
+    public SseEmitter subscribe(UserDTO user, Integer lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Set<Integer> themeIds = new HashSet<>();
+        if (user.getFollowedThemes() != null) {
+            user.getFollowedThemes().stream().map(ThemeDTO::getId).forEach(themeIds::add);
+        }
+        Subscriber subscriber = new Subscriber(user.getId(), themeIds, emitter, new LinkedBlockingQueue<>(bufferSize));
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> unregister(subscriber));
+        emitter.onError(e -> unregister(subscriber));
+        register(subscriber);
+
+        try {
+            if (lastEventId != null && !themeIds.isEmpty()) {
+                replay(subscriber, lastEventId);
+            }
+            subscriber.ready = true;
+            schedule(subscriber);
+        } catch (IOException | IllegalStateException e) {
+            evict(subscriber);
+        }
+        return emitter;
+    }
+
+    /**
+     * Diffuse un nouvel article aux abonnés de son thème, après validation de la transaction en cours s’il y en a une.
+     *
+     * @param article l’article enregistré.
+     */
+    public void publish(ArticleDTO article) {
+        AfterCommit.run(() -> fanOut(article));
+    }
+
+    /**
+     * Ajoute un thème aux connexions ouvertes d’un utilisateur qui vient de le suivre.
+     *
+     * @param userId  l’identifiant de l’utilisateur.
+     * @param themeId l’identifiant du thème suivi.
+     */
+    public void follow(int userId, int themeId) {
+        for (Subscriber subscriber : byUser.getOrDefault(userId, Set.of())) {
+            subscriber.themeIds.add(themeId);
+            byTheme.computeIfAbsent(themeId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+    }
+
+    /**
+     * Retire un thème des connexions ouvertes d’un utilisateur qui ne le suit plus.
+     *
+     * @param userId  l’identifiant de l’utilisateur.
+     * @param themeId l’identifiant du thème abandonné.
+     */
+    public void unfollow(int userId, int themeId) {
+        for (Subscriber subscriber : byUser.getOrDefault(userId, Set.of())) {
+            subscriber.themeIds.remove(themeId);
+            remove(byTheme, themeId, subscriber);
+        }
+    }
+
+    /**
+     * Ferme toutes les connexions ouvertes.
+     */
+    @PreDestroy
+    void close() {
+        heartbeat.shutdownNow();
+        byUser.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    /**
+     * Met un article en attente d’envoi pour chaque abonné de son thème, sous la forme de son résumé.
+     *
+     * @param article l’article validé en base.
+     */
+    private void fanOut(ArticleDTO article) {
+        Set<Subscriber> subscribers = byTheme.get(article.getThemeId());
+        if (subscribers == null) {
+            return;
+        }
+        String content = article.getContent();
+        ArticleSummaryDTO summary = new ArticleSummaryDTO(article.getId(), article.getTitle(), article.getThemeId(),
+                article.getAuthorId(), article.getAuthorUsername(), article.getCreatedAt(),
+                content == null || content.length() <= EXCERPT_LENGTH ? content : content.substring(0, EXCERPT_LENGTH));
+        StreamEvent event = new StreamEvent(summary);
+        subscribers.forEach(subscriber -> offer(subscriber, event));
+    }
+
+    /**
+     * Met un battement de cœur en attente d’envoi pour chaque connexion ouverte.
+     */
+    private void heartbeat() {
+        StreamEvent event = new StreamEvent(null);
+        byUser.values().forEach(subscribers -> subscribers.forEach(subscriber -> offer(subscriber, event)));
+    }
+
+    /**
+     * Envoie directement les articles publiés depuis {@code lastEventId}, avant tout événement en attente,
+     * ou un événement {@code resync} s’ils sont plus de {@code mdd.stream.replay-limit}.
+     *
+     * @param subscriber  la connexion qui reprend.
+     * @param lastEventId l’identifiant du dernier article reçu par le client.
+     * @throws IOException si l’envoi échoue.
+     */
+    private void replay(Subscriber subscriber, int lastEventId) throws IOException {
+        List<ArticleSummaryDTO> missed = replayTransaction.execute(status -> articleDAO.findFollowedArticlesAfterId(
+                subscriber.userId, lastEventId, PageRequest.of(0, replayLimit + 1)));
+        if (missed.size() > replayLimit) {
+            subscriber.emitter.send(SseEmitter.event().name(RESYNC_EVENT).data(""));
+            return;
+        }
+        for (ArticleSummaryDTO summary : missed) {
+            subscriber.replayed.add(summary.getId());
+            subscriber.emitter.send(new StreamEvent(summary).build());
+        }
+    }
+
+    /**
+     * Ajoute un événement au tampon d’une connexion et en planifie l’envoi ; ferme la connexion si son tampon est plein.
+     *
+     * @param subscriber la connexion destinataire.
+     * @param event      l’événement à envoyer.
+     */
+    private void offer(Subscriber subscriber, StreamEvent event) {
+        if (subscriber.buffer.offer(event)) {
+            schedule(subscriber);
+        } else {
+            log.debug("Closing slow article stream of user {}", subscriber.userId);
+            evict(subscriber);
+        }
+    }
+
+    /**
+     * Planifie sur le pool d’envoi le vidage du tampon d’une connexion prête, si aucun envoi n’est déjà en cours ;
+     * ferme la connexion si le pool refuse la tâche.
+     *
+     * @param subscriber la connexion dont le tampon est à vider.
+     */
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.ready && !subscriber.buffer.isEmpty() && subscriber.sending.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> send(subscriber));
+            } catch (RejectedExecutionException e) {
+                log.debug("Closing article stream of user {}: stream executor saturated", subscriber.userId);
+                subscriber.sending.set(false);
+                evict(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Vide le tampon d’une connexion ; un seul envoi est en cours par connexion. Les articles déjà envoyés
+     * par la reprise sont ignorés, et la connexion est fermée si l’écriture échoue.
+     *
+     * @param subscriber la connexion dont le tampon est à vider.
+     */
+    private void send(Subscriber subscriber) {
+        try {
+            StreamEvent event;
+            while ((event = subscriber.buffer.poll()) != null) {
+                if (event.article == null || !subscriber.replayed.contains(event.article.getId())) {
+                    subscriber.emitter.send(event.build());
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            evict(subscriber);
+        } finally {
+            subscriber.sending.set(false);
+        }
+        schedule(subscriber);
+    }
+
+    /**
+     * Ferme une connexion : le client se reconnecte et reprend depuis son dernier article reçu.
+     *
+     * @param subscriber la connexion à fermer.
+     */
+    private void evict(Subscriber subscriber) {
+        unregister(subscriber);
+        subscriber.buffer.clear();
+        subscriber.emitter.complete();
+    }
+
+    /**
+     * Inscrit une connexion dans les index par utilisateur et par thème suivi.
+     *
+     * @param subscriber la connexion ouverte.
+     */
+    private void register(Subscriber subscriber) {
+        byUser.computeIfAbsent(subscriber.userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        subscriber.themeIds.forEach(themeId ->
+                byTheme.computeIfAbsent(themeId, id -> ConcurrentHashMap.newKeySet()).add(subscriber));
+    }
+
+    /**
+     * Retire une connexion des index par utilisateur et par thème suivi.
+     *
+     * @param subscriber la connexion terminée.
+     */
+    private void unregister(Subscriber subscriber) {
+        remove(byUser, subscriber.userId, subscriber);
+        subscriber.themeIds.forEach(themeId -> remove(byTheme, themeId, subscriber));
+    }
+
+    /**
+     * Retire une connexion d’un index, et l’entrée de l’index quand elle n’a plus de connexion.
+     *
+     * @param index      l’index par utilisateur ou par thème.
+     * @param key        la clé de l’entrée.
+     * @param subscriber la connexion à retirer.
+     */
+    private static void remove(Map<Integer, Set<Subscriber>> index, int key, Subscriber subscriber) {
+        index.computeIfPresent(key, (k, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    /**
+     * Événement en attente d’envoi : un article, ou un battement de cœur si {@code article} est {@code null}.
+     * <p>
+     * Un {@link SseEmitter.SseEventBuilder} ne pouvant être envoyé qu’une fois, il est construit pour chaque connexion.
+     * </p>
+     */
+    private record StreamEvent(ArticleSummaryDTO article) {
+
+        /**
+         * Construit l’événement SSE à envoyer à une connexion.
+         *
+         * @return l’événement {@code article}, ou le commentaire SSE du battement de cœur.
+         */
+        SseEmitter.SseEventBuilder build() {
+            if (article == null) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            return SseEmitter.event()
+                    .id(String.valueOf(article.getId()))
+                    .name(ARTICLE_EVENT)
+                    .data(article, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    /**
+     * Connexion ouverte d’un utilisateur.
+     */
+    private static final class Subscriber {
+
+        /** Identifiant de l’utilisateur connecté. */
+        private final int userId;
+
+        /** Thèmes suivis, mis à jour par {@link FollowedArticleStream#follow} et {@link FollowedArticleStream#unfollow}. */
+        private final Set<Integer> themeIds;
+
+        /** Émetteur SSE de la connexion. */
+        private final SseEmitter emitter;
+
+        /** Événements en attente d’envoi, bornés à {@code mdd.stream.buffer-size}. */
+        private final BlockingQueue<StreamEvent> buffer;
+
+        /** Articles déjà envoyés par la reprise, à ne pas renvoyer depuis le tampon. */
+        private final Set<Integer> replayed = new HashSet<>();
+
+        /** Vrai une fois la reprise terminée : les événements en attente peuvent être envoyés. */
+        private volatile boolean ready;
+
+        /** Vrai pendant qu’un envoi est planifié ou en cours. */
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        /**
+         * Crée la connexion d’un utilisateur.
+         *
+         * @param userId   l’identifiant de l’utilisateur.
+         * @param themeIds les thèmes suivis à l’ouverture, copiés dans un ensemble concurrent.
+         * @param emitter  l’émetteur SSE de la connexion.
+         * @param buffer   le tampon borné des événements en attente.
+         */
+        private Subscriber(int userId, Set<Integer> themeIds, SseEmitter emitter, BlockingQueue<StreamEvent> buffer) {
+            this.userId = userId;
+            this.themeIds = ConcurrentHashMap.newKeySet();
+            this.themeIds.addAll(themeIds);
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.openclassrooms.mddapi.services.writer;
+
+import com.openclassrooms.mddapi.model.entities.Comment;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Écriture différée des commentaires (« write-behind »).
+ * <p>
+ * Activée par {@code mdd.comments.write-behind.enabled}, elle découple la création d’un commentaire de son
+ * insertion : la requête dépose le commentaire dans une file bornée ({@code queue-capacity}) et rend la main ;
+ * un fil d’écriture unique vide la file par lots de {@code batch-size} commentaires, insérés dans une seule
+ * transaction par un lot JDBC, que le pilote MySQL réécrit en une insertion multi-lignes
+ * ({@code rewriteBatchedStatements}) ; les identifiants {@code AUTO_INCREMENT} générés sont relus du lot.
+ * </p>
+ *
+ * <ul>
+ *     <li><b>Contre-pression</b> : si la file reste pleine plus de {@code offer-timeout}, le commentaire est
+ *     refusé par une {@link TaskRejectedException}, traduite en 503 par {@link com.openclassrooms.mddapi.controller.ServerBusyHandler}.</li>
+ *     <li><b>Lecture de ses propres écritures</b> : tant qu’un commentaire n’est pas validé en base, il reste
+ *     consultable par {@link #pendingOf(int, int)}, pour son auteur et son article. Son identifiant
+ *     ({@link Pending#getId()}) n’est publié qu’une fois la transaction validée.</li>
+ *     <li><b>Arrêt</b> : la file est fermée aux nouveaux commentaires, puis vidée en base avant l’arrêt
+ *     de la source de données.</li>
+ * </ul>
+ *
+ * <p>
+ * Si l’insertion d’un lot échoue, ses commentaires sont réinsérés un à un ; ceux qui échouent encore
+ * sont journalisés et abandonnés. La file est en mémoire : un arrêt brutal de l’instance perd les
+ * commentaires qui n’ont pas encore été écrits.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CommentWriteBehind {
+
+    /** Délai d’attente du fil d’écriture sur une file vide, avant de vérifier sa fermeture. */
+    private static final long POLL_MILLIS = 100;
+
+    private static final String INSERT =
+            "insert into MDD.comment (content, author_id, article_id, created_at) values (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final PlatformTransactionManager transactionManager;
+
+    /** Active l’écriture différée ; sinon les commentaires sont insérés pendant la requête. */
+    @Getter
+    @Value("${mdd.comments.write-behind.enabled:false}")
+    private boolean enabled;
+
+    /** Nombre maximal de commentaires en attente d’écriture. */
+    @Value("${mdd.comments.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+
+    /** Nombre maximal de commentaires insérés par transaction. */
+    @Value("${mdd.comments.write-behind.batch-size:50}")
+    private int batchSize;
+
+    /** Attente maximale d’une place dans la file avant de refuser un commentaire. */
+    @Value("${mdd.comments.write-behind.offer-timeout:50ms}")
+    private Duration offerTimeout;
+
+    /** Attente maximale du fil d’écriture à l’arrêt, avant de vider la file depuis le fil d’arrêt. */
+    @Value("${mdd.comments.write-behind.shutdown-timeout:30s}")
+    private Duration shutdownTimeout;
+
+    /** Commentaires non encore écrits, par auteur et article. */
+    private final Map<PendingKey, Queue<Pending>> pending = new ConcurrentHashMap<>();
+
+    private BlockingQueue<Pending> queue;
+
+    private TransactionTemplate transaction;
+
+    private Thread writer;
+
+    private volatile boolean closed;
+
+    /**
+     * Démarre le fil d’écriture si l’écriture différée est activée.
+     */
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        transaction = new TransactionTemplate(transactionManager);
+        writer = new Thread(this::drain, "comment-writer");
+        writer.start();
+    }
+
+    /**
+     * Dépose un commentaire validé dans la file d’écriture.
+     * <p>
+     * Le commentaire est visible de son auteur ({@link #pendingOf(int, int)}) dès le retour de cette méthode.
+     * </p>
+     *
+     * @param comment   le commentaire à écrire, sans identifiant.
+     * @param onWritten le traitement à exécuter, sur le fil d’écriture, une fois le commentaire validé en base.
+     * @throws TaskRejectedException si la file est pleine ou fermée.
+     */
+    public void accept(Comment comment, Runnable onWritten) {
+        Pending entry = new Pending(comment, onWritten);
+        PendingKey key = new PendingKey(comment.getAuthorId(), comment.getArticleId());
+        pending.compute(key, (k, entries) -> {
+            Queue<Pending> list = entries == null ? new ConcurrentLinkedQueue<>() : entries;
+            list.add(entry);
+            return list;
+        });
+
+        boolean accepted = false;
+        try {
+            accepted = !closed && queue.offer(entry, offerTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!accepted) {
+            forget(entry);
+            throw new TaskRejectedException("Comment write queue is full or closed");
+        }
+    }
+
+    /**
+     * Renvoie les commentaires d’un auteur sur un article qui ne sont pas encore validés en base,
+     * du plus ancien au plus récent.
+     * <p>
+     * Un commentaire peut être validé juste après cet appel : il faut lire cette liste avant la base,
+     * et écarter les commentaires qui y figurent déjà ({@link Pending#getId()}).
+     * </p>
+     *
+     * @param authorId  l’identifiant de l’auteur.
+     * @param articleId l’identifiant de l’article.
+     * @return les commentaires en attente, éventuellement vide.
+     */
+    public List<Pending> pendingOf(int authorId, int articleId) {
+        Queue<Pending> entries = pending.get(new PendingKey(authorId, articleId));
+        return entries == null ? List.of() : List.copyOf(entries);
+    }
+
+    /**
+     * Ferme la file et écrit les commentaires restants.
+     * <p>
+     * Le fil d’écriture dispose de {@code shutdown-timeout} pour vider la file ; au-delà, le reste est
+     * écrit depuis le fil d’arrêt.
+     * </p>
+     */
+    @PreDestroy
+    void close() {
+        if (writer == null) {
+            return;
+        }
+        closed = true;
+        try {
+            writer.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Comment writer did not drain the queue in {}, writing {} comments on shutdown",
+                    shutdownTimeout, queue.size());
+            List<Pending> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Boucle du fil d’écriture : attend un commentaire, complète le lot avec ceux déjà en file, puis l’écrit.
+     * Elle se termine lorsque la file est fermée et vide.
+     */
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    write(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Comment writer failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Insère un lot dans une transaction ; en cas d’échec, réinsère ses commentaires un à un.
+     * Les identifiants ne sont publiés qu’après la validation ; les commentaires écrits ou abandonnés
+     * ne sont plus en attente.
+     */
+    private void write(List<Pending> batch) {
+        List<Integer> ids;
+        try {
+            ids = transaction.execute(status -> insert(batch));
+        } catch (RuntimeException e) {
+            log.warn("Batch of {} comments failed, retrying one by one: {}", batch.size(), e.getMessage());
+            batch.forEach(this::writeOne);
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).persisted(ids.get(i));
+        }
+        batch.forEach(this::forget);
+        batch.forEach(this::written);
+    }
+
+    private void writeOne(Pending entry) {
+        Comment comment = entry.getComment();
+        int id;
+        try {
+            id = transaction.execute(status -> insert(List.of(entry))).get(0);
+        } catch (RuntimeException e) {
+            log.error("Dropping comment of user {} on article {}: {}",
+                    comment.getAuthorId(), comment.getArticleId(), e.getMessage());
+            forget(entry);
+            return;
+        }
+        entry.persisted(id);
+        forget(entry);
+        written(entry);
+    }
+
+    /**
+     * Insère des commentaires par un seul lot JDBC.
+     *
+     * @param entries les commentaires à insérer.
+     * @return les identifiants générés, dans l’ordre des commentaires.
+     */
+    private List<Integer> insert(List<Pending> entries) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        Comment comment = entries.get(i).getComment();
+                        statement.setString(1, comment.getContent());
+                        statement.setInt(2, comment.getAuthorId());
+                        statement.setInt(3, comment.getArticleId());
+                        statement.setTimestamp(4, new Timestamp(comment.getCreatedAt().getTime()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return entries.size();
+                    }
+                }, keys);
+        List<Map<String, Object>> generated = keys.getKeyList();
+        if (generated.size() != entries.size()) {
+            throw new IllegalStateException(generated.size() + " ids generated for " + entries.size() + " comments");
+        }
+        return generated.stream().map(key -> ((Number) key.values().iterator().next()).intValue()).toList();
+    }
+
+    private void written(Pending entry) {
+        try {
+            entry.onWritten.run();
+        } catch (RuntimeException e) {
+            log.warn("Post-write action failed for comment {}: {}", entry.getId(), e.getMessage());
+        }
+    }
+
+    private void forget(Pending entry) {
+        Comment comment = entry.getComment();
+        pending.computeIfPresent(new PendingKey(comment.getAuthorId(), comment.getArticleId()), (k, entries) -> {
+            entries.remove(entry);
+            return entries.isEmpty() ? null : entries;
+        });
+    }
+
+    private record PendingKey(int authorId, int articleId) {
+    }
+
+    /**
+     * Commentaire en attente d’écriture.
+     */
+    public static final class Pending {
+
+        /** Le commentaire à écrire. */
+        @Getter
+        private final Comment comment;
+
+        /** Identifiant attribué à l’écriture, publié pour les lecteurs ; 0 tant que l’insertion n’est pas validée. */
+        @Getter
+        private volatile int id;
+
+        /** Traitement exécuté une fois le commentaire validé en base. */
+        private final Runnable onWritten;
+
+        Pending(Comment comment, Runnable onWritten) {
+            this.comment = comment;
+            this.onWritten = onWritten;
+        }
+
+        private void persisted(int id) {
+            comment.setId(id);
+            this.id = id;
+        }
+    }
+}
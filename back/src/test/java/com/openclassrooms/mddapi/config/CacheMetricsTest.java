@@ -0,0 +1,52 @@
+package com.openclassrooms.mddapi.config;
+
+import com.openclassrooms.mddapi.model.dto.UserDTO;
+import com.openclassrooms.mddapi.services.JWTService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static com.openclassrooms.mddapi.config.Constants.ARTICLES_BY_THEME_CACHE;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Vérifie que le scrape Prometheus publie côte à côte les statistiques des caches de Spring et celles
+ * du cache des JWT vérifiés, qui partagent la métrique {@code cache.*} et donc ses tags.
+ */
+@SpringBootTest(properties = "mdd.security.ops-emails=" + CacheMetricsTest.OPS_EMAIL)
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+class CacheMetricsTest {
+
+    static final String OPS_EMAIL = "ops@mdd.test";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Test
+    void springCachesAndTheJwtCacheAreBothScraped() throws Exception {
+        String bearer = "Bearer " + jwtService.generateToken(
+                UserDTO.builder().id(1).email(OPS_EMAIL).username("ops").build());
+
+        // le second scrape trouve le jeton dans le cache des JWT
+        mvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, bearer)).andExpect(status().isOk());
+        mvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("cache_gets_total{cache=\"" + ARTICLES_BY_THEME_CACHE + "\"")))
+                .andExpect(content().string(matchesPattern(
+                        "(?s).*cache_gets_total\\{cache=\"" + CachingJwtDecoder.CACHE_NAME + "\"[^}]*result=\"hit\"[^}]*} 1\\.0.*")));
+    }
+}
@@ -0,0 +1,123 @@
+package com.openclassrooms.mddapi.config;
+
+import com.openclassrooms.mddapi.model.dto.UserDTO;
+import com.openclassrooms.mddapi.model.entities.Theme;
+import com.openclassrooms.mddapi.model.entities.User;
+import com.openclassrooms.mddapi.repositories.ArticleDAO;
+import com.openclassrooms.mddapi.repositories.CommentDAO;
+import com.openclassrooms.mddapi.repositories.ThemeDAO;
+import com.openclassrooms.mddapi.repositories.TimelineDAO;
+import com.openclassrooms.mddapi.repositories.TimelineEntryDAO;
+import com.openclassrooms.mddapi.repositories.UserDAO;
+import com.openclassrooms.mddapi.services.JWTService;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static com.openclassrooms.mddapi.config.Constants.PRINCIPALS_CACHE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Vérifie qu’en mode strict, une requête HTTP qui dépasse son budget de requêtes SQL échoue avant
+ * d’écrire sa réponse, que les requêtes SQL des pools qui travaillent pour elle sont comptées, et que
+ * celles exécutées hors requête ne le sont pas.
+ */
+@SpringBootTest(properties = "mdd.sql.budget.queries=" + RequestQueryCounterTest.BUDGET)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RequestQueryCounterTest {
+
+    static final int BUDGET = 1;
+
+    private static final String EMAIL = "reader@mdd.test";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TimelineEntryDAO entryDAO;
+
+    @Autowired
+    private TimelineDAO timelineDAO;
+
+    @Autowired
+    private CommentDAO commentDAO;
+
+    @Autowired
+    private ArticleDAO articleDAO;
+
+    @Autowired
+    private ThemeDAO themeDAO;
+
+    @Autowired
+    private UserDAO userDAO;
+
+    private String bearer;
+
+    @BeforeEach
+    void seed() {
+        // plus de requêtes SQL que le budget, exécutées hors de toute requête HTTP
+        entryDAO.deleteAll();
+        timelineDAO.deleteAll();
+        commentDAO.deleteAll();
+        articleDAO.deleteAll();
+        userDAO.deleteAll();
+        themeDAO.deleteAll();
+        cacheManager.getCache(PRINCIPALS_CACHE).clear();
+
+        User user = new User();
+        user.setEmail(EMAIL);
+        user.setUsername("reader");
+        user = userDAO.save(user);
+        bearer = "Bearer " + jwtService.generateToken(
+                UserDTO.builder().id(user.getId()).email(EMAIL).username("reader").build());
+
+        Theme theme = new Theme();
+        theme.setName("theme");
+        theme.setDescription("description");
+        themeDAO.save(theme);
+    }
+
+    @Test
+    void requestOverBudgetFailsBeforeItsResponseIsWritten() {
+        ServletException failure = assertThrows(ServletException.class,
+                () -> mvc.perform(get("/api/user/followed").header(HttpHeaders.AUTHORIZATION, bearer)));
+
+        Throwable cause = NestedExceptionUtils.getRootCause(failure);
+        assertInstanceOf(RequestQueryCounter.QueryBudgetExceededException.class, cause);
+        assertTrue(cause.getMessage().contains("GET /api/user/followed"));
+    }
+
+    @Test
+    void queriesOfThePasswordHashingPoolCountForTheRequest() throws Exception {
+        MvcResult result = mvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"new@mdd.test\",\"username\":\"newcomer\",\"password\":\"Secret123!\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result)).andExpect(status().isForbidden());
+        assertNull(userDAO.findByEmail("new@mdd.test"));
+    }
+}
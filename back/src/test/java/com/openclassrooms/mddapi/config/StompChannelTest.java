@@ -0,0 +1,202 @@
+package com.openclassrooms.mddapi.config;
+
+import com.openclassrooms.mddapi.model.dto.CommentDTO;
+import com.openclassrooms.mddapi.model.dto.UserDTO;
+import com.openclassrooms.mddapi.services.JWTService;
+import com.openclassrooms.mddapi.services.stream.ArticleCommentChannel;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static com.openclassrooms.mddapi.config.WebSocketMetrics.LAG_TIMER;
+import static com.openclassrooms.mddapi.config.WebSocketMetrics.SESSIONS_GAUGE;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Vérifie, avec un client STOMP sur un port aléatoire, l’authentification des sessions sur la trame
+ * {@code CONNECT}, la restriction des abonnements aux sujets de commentaires, le refus des trames
+ * {@code SEND}, la distribution d’un commentaire après la validation de sa transaction, et les métriques
+ * des sessions et du délai de distribution.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class StompChannelTest {
+
+    private static final int ARTICLE_ID = 42;
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Autowired
+    private ArticleCommentChannel commentChannel;
+
+    @Autowired
+    private TransactionTemplate transaction;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private WebSocketStompClient client;
+
+    /** Trames {@code ERROR} reçues par la session en cours. */
+    private final BlockingQueue<String> errors = new LinkedBlockingQueue<>();
+
+    /** Commentaires reçus par la session en cours. */
+    private final BlockingQueue<CommentDTO> comments = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void start() {
+        client = new WebSocketStompClient(new StandardWebSocketClient());
+        client.setMessageConverter(new MappingJackson2MessageConverter());
+    }
+
+    @AfterEach
+    void stop() {
+        client.stop();
+    }
+
+    @Test
+    void connectWithoutATokenIsRejected() {
+        assertThrows(ExecutionException.class, () -> connect(null));
+    }
+
+    @Test
+    void connectWithAnInvalidTokenIsRejected() {
+        assertThrows(ExecutionException.class, () -> connect("Bearer not-a-jwt"));
+    }
+
+    @Test
+    void subscriptionOutsideTheCommentTopicsIsRejected() throws Exception {
+        StompSession session = connect(bearer());
+
+        session.subscribe("/topic/articles/" + ARTICLE_ID, handler());
+
+        assertNotNull(errors.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        await(() -> !session.isConnected());
+    }
+
+    @Test
+    void clientsCannotPublish() throws Exception {
+        StompSession session = connect(bearer());
+
+        session.send(ArticleCommentChannel.topic(ARTICLE_ID), CommentDTO.builder().content("forged").build());
+
+        assertNotNull(errors.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        await(() -> !session.isConnected());
+    }
+
+    @Test
+    void subscriberReceivesACommentOnceItsTransactionIsCommitted() throws Exception {
+        StompSession session = connect(bearer());
+        await(() -> meterRegistry.get(SESSIONS_GAUGE).gauge().value() >= 1);
+        long delivered = meterRegistry.get(LAG_TIMER).timer().count();
+
+        session.subscribe(ArticleCommentChannel.topic(ARTICLE_ID), handler());
+        awaitSubscription();
+
+        transaction.executeWithoutResult(status -> {
+            commentChannel.publish(comment(2, "committed"));
+            assertNull(poll(300));
+        });
+
+        CommentDTO received = comments.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertNotNull(received);
+        assertEquals("committed", received.getContent());
+        await(() -> meterRegistry.get(LAG_TIMER).timer().count() > delivered);
+        assertTrue(errors.isEmpty());
+    }
+
+    /**
+     * Publie des commentaires hors transaction jusqu’à en recevoir un : l’abonnement est alors enregistré
+     * par le courtier.
+     */
+    private void awaitSubscription() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+        while (comments.poll(50, TimeUnit.MILLISECONDS) == null) {
+            assertTrue(System.currentTimeMillis() < deadline, "subscription was not registered");
+            commentChannel.publish(comment(1, "probe"));
+        }
+        while (poll(200) != null) {
+            // sondes encore en vol
+        }
+    }
+
+    private StompSession connect(String authorization) throws Exception {
+        StompHeaders headers = new StompHeaders();
+        if (authorization != null) {
+            headers.add(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        return client.connectAsync("ws://localhost:" + port + Constants.WS_ENDPOINT, new WebSocketHttpHeaders(),
+                headers, handler()).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private StompSessionHandlerAdapter handler() {
+        return new StompSessionHandlerAdapter() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return CommentDTO.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                // les trames ERROR n’ont pas de corps : leur motif est dans l’en-tête message
+                if (payload instanceof CommentDTO comment) {
+                    comments.add(comment);
+                } else {
+                    errors.add(String.valueOf(headers.getFirst("message")));
+                }
+            }
+        };
+    }
+
+    private CommentDTO poll(long millis) {
+        try {
+            return comments.poll(millis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String bearer() {
+        return "Bearer " + jwtService.generateToken(UserDTO.builder().id(1).email("reader@mdd.test").username("reader").build());
+    }
+
+    private static CommentDTO comment(int id, String content) {
+        return CommentDTO.builder().id(id).articleId(ARTICLE_ID).authorId(1).content(content).build();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.openclassrooms.mddapi.controller;
+
+import com.openclassrooms.mddapi.model.dto.UserDTO;
+import com.openclassrooms.mddapi.model.entities.Article;
+import com.openclassrooms.mddapi.model.entities.Theme;
+import com.openclassrooms.mddapi.model.entities.User;
+import com.openclassrooms.mddapi.repositories.ArticleDAO;
+import com.openclassrooms.mddapi.repositories.CommentDAO;
+import com.openclassrooms.mddapi.repositories.ThemeDAO;
+import com.openclassrooms.mddapi.repositories.TimelineDAO;
+import com.openclassrooms.mddapi.repositories.TimelineEntryDAO;
+import com.openclassrooms.mddapi.repositories.UserDAO;
+import com.openclassrooms.mddapi.services.JWTService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Date;
+
+import static com.openclassrooms.mddapi.config.Constants.MAX_PAGE_SIZE;
+import static com.openclassrooms.mddapi.config.Constants.PRINCIPALS_CACHE;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Vérifie la pagination de la liste globale des articles : taille de page bornée, tri limité aux
+ * propriétés indexées, ordre par défaut {@code createdAt,id} décroissant et présence d’une page suivante.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ArticleListingTest {
+
+    private static final String ARTICLES = "/api/articles/";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TimelineEntryDAO entryDAO;
+
+    @Autowired
+    private TimelineDAO timelineDAO;
+
+    @Autowired
+    private CommentDAO commentDAO;
+
+    @Autowired
+    private ArticleDAO articleDAO;
+
+    @Autowired
+    private ThemeDAO themeDAO;
+
+    @Autowired
+    private UserDAO userDAO;
+
+    private String bearer;
+
+    private int oldest;
+
+    private int newest;
+
+    private int sameTimeFirst;
+
+    private int sameTimeSecond;
+
+    @BeforeEach
+    void seed() {
+        entryDAO.deleteAll();
+        timelineDAO.deleteAll();
+        commentDAO.deleteAll();
+        articleDAO.deleteAll();
+        userDAO.deleteAll();
+        themeDAO.deleteAll();
+        cacheManager.getCache(PRINCIPALS_CACHE).clear();
+
+        User user = new User();
+        user.setEmail("reader@mdd.test");
+        user.setUsername("reader");
+        user = userDAO.save(user);
+        bearer = "Bearer " + jwtService.generateToken(
+                UserDTO.builder().id(user.getId()).email(user.getEmail()).username(user.getUsername()).build());
+
+        Theme theme = new Theme();
+        theme.setName("theme");
+        theme = themeDAO.save(theme);
+
+        oldest = article(theme, user, 1_000L);
+        sameTimeFirst = article(theme, user, 2_000L);
+        sameTimeSecond = article(theme, user, 2_000L);
+        newest = article(theme, user, 3_000L);
+    }
+
+    @Test
+    void defaultOrderIsCreationDateThenIdDescending() throws Exception {
+        mvc.perform(get(ARTICLES).header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.articles[*].id").value(contains(newest, sameTimeSecond, sameTimeFirst, oldest)))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    void hasNextIsSetWhileArticlesRemain() throws Exception {
+        mvc.perform(get(ARTICLES).param("size", "3").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.articles[*].id").value(contains(newest, sameTimeSecond, sameTimeFirst)))
+                .andExpect(jsonPath("$.hasNext").value(true));
+
+        mvc.perform(get(ARTICLES).param("size", "3").param("page", "1").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.articles[*].id").value(contains(oldest)))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    void pageSizeIsClampedToTheMaximum() throws Exception {
+        mvc.perform(get(ARTICLES).param("size", "100000").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(MAX_PAGE_SIZE));
+    }
+
+    @Test
+    void ascendingSortOnCreationDateIsAccepted() throws Exception {
+        mvc.perform(get(ARTICLES).param("sort", "createdAt,asc").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.articles[*].id").value(contains(oldest, sameTimeFirst, sameTimeSecond, newest)));
+    }
+
+    @Test
+    void sortOnAnUnindexedOrUnknownPropertyIsRejected() throws Exception {
+        for (String sort : new String[]{"title", "updatedAt", "content", "author.password"}) {
+            mvc.perform(get(ARTICLES).param("sort", sort).header(HttpHeaders.AUTHORIZATION, bearer))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    private int article(Theme theme, User author, long createdAt) {
+        Article article = new Article();
+        article.setTitle("article " + createdAt);
+        article.setContent("content");
+        article.setThemeId(theme.getId());
+        article.setAuthorId(author.getId());
+        article.setCreatedAt(new Date(createdAt));
+        return articleDAO.save(article).getId();
+    }
+}
@@ -0,0 +1,220 @@
+package com.openclassrooms.mddapi.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import com.openclassrooms.mddapi.model.dto.UserDTO;
+import com.openclassrooms.mddapi.model.entities.Article;
+import com.openclassrooms.mddapi.model.entities.Theme;
+import com.openclassrooms.mddapi.model.entities.User;
+import com.openclassrooms.mddapi.repositories.ArticleDAO;
+import com.openclassrooms.mddapi.repositories.CommentDAO;
+import com.openclassrooms.mddapi.repositories.ThemeDAO;
+import com.openclassrooms.mddapi.repositories.TimelineDAO;
+import com.openclassrooms.mddapi.repositories.TimelineEntryDAO;
+import com.openclassrooms.mddapi.repositories.UserDAO;
+import com.openclassrooms.mddapi.services.JWTService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static com.openclassrooms.mddapi.config.Constants.PRINCIPALS_CACHE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Vérifie le flux SSE des articles suivis : reprise après {@code Last-Event-ID}, événement {@code resync}
+ * au-delà de {@code mdd.stream.replay-limit}, prise en compte par une connexion ouverte des thèmes
+ * suivis ou abandonnés, et libération de la connexion JDBC avant que le flux ne soit ouvert.
+ */
+@SpringBootTest(properties = {
+        "mdd.stream.replay-limit=" + ArticleStreamTest.REPLAY_LIMIT,
+        "spring.datasource.hikari.maximum-pool-size=" + ArticleStreamTest.POOL_SIZE,
+        "spring.datasource.hikari.connection-timeout=1000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ArticleStreamTest {
+
+    static final int REPLAY_LIMIT = 2;
+
+    static final int POOL_SIZE = 2;
+
+    private static final String STREAM = "/api/articles/followed/stream";
+
+    private static final long DELIVERY_TIMEOUT_MILLIS = 5_000;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TimelineEntryDAO entryDAO;
+
+    @Autowired
+    private TimelineDAO timelineDAO;
+
+    @Autowired
+    private CommentDAO commentDAO;
+
+    @Autowired
+    private ArticleDAO articleDAO;
+
+    @Autowired
+    private ThemeDAO themeDAO;
+
+    @Autowired
+    private UserDAO userDAO;
+
+    private String bearer;
+
+    private User reader;
+
+    private Theme followed;
+
+    private Theme other;
+
+    @BeforeEach
+    void seed() {
+        entryDAO.deleteAll();
+        timelineDAO.deleteAll();
+        commentDAO.deleteAll();
+        articleDAO.deleteAll();
+        userDAO.deleteAll();
+        themeDAO.deleteAll();
+        cacheManager.getCache(PRINCIPALS_CACHE).clear();
+
+        followed = theme("followed");
+        other = theme("other");
+
+        User user = new User();
+        user.setEmail("reader@mdd.test");
+        user.setUsername("reader");
+        user.setFollowedThemes(new ArrayList<>(List.of(followed)));
+        reader = userDAO.save(user);
+        bearer = "Bearer " + jwtService.generateToken(
+                UserDTO.builder().id(reader.getId()).email(reader.getEmail()).username(reader.getUsername()).build());
+    }
+
+    @Test
+    void reconnectionReplaysTheArticlesPublishedAfterTheLastEventId() throws Exception {
+        int first = article(followed);
+        int second = article(followed);
+        int third = article(followed);
+
+        String events = open(String.valueOf(first)).getContentAsString();
+
+        assertFalse(events.contains("id:" + first + "\n"));
+        assertTrue(events.contains("id:" + second + "\n"));
+        assertTrue(events.indexOf("id:" + second + "\n") < events.indexOf("id:" + third + "\n"));
+        assertFalse(events.contains("event:resync"));
+    }
+
+    @Test
+    void tooManyMissedArticlesAskTheClientToResync() throws Exception {
+        int first = article(followed);
+        for (int i = 0; i < REPLAY_LIMIT + 1; i++) {
+            article(followed);
+        }
+
+        String events = open(String.valueOf(first - 1)).getContentAsString();
+
+        assertTrue(events.contains("event:resync"));
+        assertFalse(events.contains("event:article"));
+    }
+
+    @Test
+    void followAndUnfollowUpdateTheOpenStream() throws Exception {
+        MockHttpServletResponse stream = open(null);
+
+        mvc.perform(get("/api/theme/follow/" + other.getId()).header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk());
+        int followedLater = publish(other);
+        awaitEvent(stream, followedLater);
+
+        mvc.perform(get("/api/theme/unfollow/" + other.getId()).header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk());
+        int unfollowed = publish(other);
+        // les envois d’une connexion sont ordonnés : l’article suivant arrive après celui du thème abandonné
+        int next = publish(followed);
+        awaitEvent(stream, next);
+
+        assertFalse(stream.getContentAsString().contains("id:" + unfollowed + "\n"));
+    }
+
+    @Test
+    void openStreamsDoNotHoldDatabaseConnections() throws Exception {
+        int first = article(followed);
+        article(followed);
+
+        // chaque ouverture relit l’utilisateur (cache vidé) et rejoue les articles manqués
+        for (int i = 0; i < POOL_SIZE + 1; i++) {
+            cacheManager.getCache(PRINCIPALS_CACHE).clear();
+            open(String.valueOf(first));
+        }
+
+        mvc.perform(get("/api/theme/").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk());
+    }
+
+    private MockHttpServletResponse open(String lastEventId) throws Exception {
+        var streamRequest = get(STREAM).header(HttpHeaders.AUTHORIZATION, bearer).accept(MediaType.TEXT_EVENT_STREAM);
+        if (lastEventId != null) {
+            streamRequest.header("Last-Event-ID", lastEventId);
+        }
+        MvcResult result = mvc.perform(streamRequest).andExpect(request().asyncStarted()).andReturn();
+        return result.getResponse();
+    }
+
+    private int publish(Theme theme) throws Exception {
+        String body = "{\"title\":\"live\",\"content\":\"content\",\"themeId\":" + theme.getId() + "}";
+        MvcResult result = mvc.perform(post("/api/articles/add").header(HttpHeaders.AUTHORIZATION, bearer)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andReturn();
+        return JsonPath.read(result.getResponse().getContentAsString(), "$.article.id");
+    }
+
+    private static void awaitEvent(MockHttpServletResponse stream, int articleId) throws Exception {
+        long deadline = System.currentTimeMillis() + DELIVERY_TIMEOUT_MILLIS;
+        while (!stream.getContentAsString().contains("id:" + articleId + "\n")) {
+            assertTrue(System.currentTimeMillis() < deadline, "article " + articleId + " was not streamed");
+            Thread.sleep(20);
+        }
+    }
+
+    private Theme theme(String name) {
+        Theme theme = new Theme();
+        theme.setName(name);
+        return themeDAO.save(theme);
+    }
+
+    private int article(Theme theme) {
+        Article article = new Article();
+        article.setTitle("missed");
+        article.setContent("content");
+        article.setThemeId(theme.getId());
+        article.setAuthorId(reader.getId());
+        article.setCreatedAt(new Date());
+        return articleDAO.save(article).getId();
+    }
+}
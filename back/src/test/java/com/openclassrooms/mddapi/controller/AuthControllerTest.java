@@ -0,0 +1,138 @@
+package com.openclassrooms.mddapi.controller;
+
+import com.openclassrooms.mddapi.model.dto.UserDTO;
+import com.openclassrooms.mddapi.model.entities.User;
+import com.openclassrooms.mddapi.repositories.ArticleDAO;
+import com.openclassrooms.mddapi.repositories.CommentDAO;
+import com.openclassrooms.mddapi.repositories.TimelineDAO;
+import com.openclassrooms.mddapi.repositories.TimelineEntryDAO;
+import com.openclassrooms.mddapi.repositories.UserDAO;
+import com.openclassrooms.mddapi.services.JWTService;
+import com.openclassrooms.mddapi.services.PasswordHashingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static com.openclassrooms.mddapi.config.Constants.PRINCIPALS_CACHE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Vérifie que l’inscription et le changement de mot de passe chiffrent le mot de passe sans bloquer
+ * le thread de la requête, et que l’inscription est refusée par un 503 lorsque le pool de chiffrement est saturé.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthControllerTest {
+
+    private static final String REGISTRATION =
+            "{\"email\":\"new@mdd.test\",\"username\":\"newcomer\",\"password\":\"Secret123!\"}";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @MockitoSpyBean
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private TimelineEntryDAO entryDAO;
+
+    @Autowired
+    private TimelineDAO timelineDAO;
+
+    @Autowired
+    private CommentDAO commentDAO;
+
+    @Autowired
+    private ArticleDAO articleDAO;
+
+    @Autowired
+    private UserDAO userDAO;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void clean() {
+        entryDAO.deleteAll();
+        timelineDAO.deleteAll();
+        commentDAO.deleteAll();
+        articleDAO.deleteAll();
+        userDAO.deleteAll();
+        cacheManager.getCache(PRINCIPALS_CACHE).clear();
+    }
+
+    @Test
+    void registrationIsCompletedAsynchronouslyWithAHashedPassword() throws Exception {
+        MvcResult result = mvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(REGISTRATION))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").isNotEmpty());
+        String stored = userDAO.findByEmail("new@mdd.test").getPassword();
+        assertNotEquals("Secret123!", stored);
+        assertTrue(stored.startsWith("$2"));
+    }
+
+    @Test
+    void passwordChangeIsCompletedAsynchronouslyWithAHashedPassword() throws Exception {
+        User user = new User();
+        user.setEmail("reader@mdd.test");
+        user.setUsername("reader");
+        user = userDAO.save(user);
+        String bearer = "Bearer " + jwtService.generateToken(
+                UserDTO.builder().id(user.getId()).email(user.getEmail()).username(user.getUsername()).build());
+
+        MvcResult result = mvc.perform(put("/api/user/update")
+                        .header(HttpHeaders.AUTHORIZATION, bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":" + user.getId()
+                                + ",\"email\":\"reader@mdd.test\",\"username\":\"reader\",\"password\":\"Changed123!\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user.username").value("reader"));
+        assertTrue(userDAO.findByEmail("reader@mdd.test").getPassword().startsWith("$2"));
+    }
+
+    @Test
+    void registrationIsRefusedWith503WhenTheHashingPoolIsFull() throws Exception {
+        doThrow(new TaskRejectedException("password hashing pool saturated"))
+                .when(passwordHashingService).encode(any());
+
+        mvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(REGISTRATION))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        assertNull(userDAO.findByEmail("new@mdd.test"));
+    }
+}
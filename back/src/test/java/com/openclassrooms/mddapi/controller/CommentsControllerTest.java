@@ -0,0 +1,226 @@
+package com.openclassrooms.mddapi.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.mddapi.model.dto.UserDTO;
+import com.openclassrooms.mddapi.model.entities.Article;
+import com.openclassrooms.mddapi.model.entities.Comment;
+import com.openclassrooms.mddapi.model.entities.Theme;
+import com.openclassrooms.mddapi.model.entities.User;
+import com.openclassrooms.mddapi.repositories.ArticleDAO;
+import com.openclassrooms.mddapi.repositories.CommentDAO;
+import com.openclassrooms.mddapi.repositories.ThemeDAO;
+import com.openclassrooms.mddapi.repositories.TimelineDAO;
+import com.openclassrooms.mddapi.repositories.TimelineEntryDAO;
+import com.openclassrooms.mddapi.repositories.UserDAO;
+import com.openclassrooms.mddapi.services.CommentService;
+import com.openclassrooms.mddapi.services.JWTService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static com.openclassrooms.mddapi.config.Constants.PRINCIPALS_CACHE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Vérifie la pagination par curseur des commentaires d’un article (parcours complet du plus ancien
+ * au plus récent, total, rejet d’un curseur invalide) et l’écriture différée des commentaires :
+ * lecture par l’auteur de son commentaire en attente, réponse 503 lorsque la file est saturée.
+ */
+@SpringBootTest(properties = "mdd.comments.write-behind.enabled=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CommentsControllerTest {
+
+    private static final int COMMENTS = 25;
+
+    private static final int PAGE_SIZE = 10;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @MockitoSpyBean
+    private CommentService commentService;
+
+    @Autowired
+    private TimelineEntryDAO entryDAO;
+
+    @Autowired
+    private TimelineDAO timelineDAO;
+
+    @Autowired
+    private CommentDAO commentDAO;
+
+    @Autowired
+    private ArticleDAO articleDAO;
+
+    @Autowired
+    private ThemeDAO themeDAO;
+
+    @Autowired
+    private UserDAO userDAO;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private String bearer;
+
+    private int articleId;
+
+    /** Identifiants des commentaires de l’article, du plus ancien au plus récent. */
+    private List<Integer> oldestFirst;
+
+    @BeforeEach
+    void seed() {
+        entryDAO.deleteAll();
+        timelineDAO.deleteAll();
+        commentDAO.deleteAll();
+        articleDAO.deleteAll();
+        userDAO.deleteAll();
+        themeDAO.deleteAll();
+        // Les utilisateurs sont recréés sous la même adresse : leur identité en cache est périmée
+        cacheManager.getCache(PRINCIPALS_CACHE).clear();
+
+        User user = new User();
+        user.setEmail("reader@mdd.test");
+        user.setUsername("reader");
+        user = userDAO.save(user);
+        bearer = "Bearer " + jwtService.generateToken(
+                UserDTO.builder().id(user.getId()).email(user.getEmail()).username(user.getUsername()).build());
+
+        Theme theme = new Theme();
+        theme.setName("theme");
+        theme = themeDAO.save(theme);
+
+        Article article = new Article();
+        article.setTitle("article");
+        article.setContent("content");
+        article.setThemeId(theme.getId());
+        article.setAuthorId(user.getId());
+        article.setCreatedAt(new Date());
+        articleId = articleDAO.save(article).getId();
+
+        oldestFirst = new ArrayList<>();
+        long time = 1_700_000_000_000L;
+        for (int i = 0; i < COMMENTS; i++) {
+            Comment comment = new Comment();
+            comment.setContent("comment " + i);
+            comment.setAuthorId(user.getId());
+            comment.setArticleId(articleId);
+            comment.setCreatedAt(new Date(time));
+            time += 60_000;
+            oldestFirst.add(commentDAO.save(comment).getId());
+        }
+    }
+
+    @Test
+    void commentPagesWalkTheArticleOldestFirst() throws Exception {
+        List<Integer> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            JsonNode page = page(cursor);
+            assertEquals(COMMENTS, page.get("total").asInt());
+            assertTrue(page.get("comments").size() <= PAGE_SIZE);
+            page.get("comments").forEach(comment -> walked.add(comment.get("id").asInt()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+
+        assertEquals(oldestFirst, walked);
+    }
+
+    @Test
+    void invalidCursorIsRejected() throws Exception {
+        mvc.perform(get("/api/comments/" + articleId)
+                        .header(HttpHeaders.AUTHORIZATION, bearer)
+                        .param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void ownPendingCommentIsListedExactlyOnceUntilAndAfterItIsWritten() throws Exception {
+        mvc.perform(post("/api/comments/add/" + articleId)
+                        .header(HttpHeaders.AUTHORIZATION, bearer)
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("my own comment"))
+                .andExpect(status().isAccepted());
+
+        assertOwnCommentListedOnce();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (commentDAO.count() == COMMENTS && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(COMMENTS + 1, commentDAO.count());
+        JsonNode written = assertOwnCommentListedOnce();
+        assertTrue(written.get("id").asInt() > 0);
+    }
+
+    @Test
+    void commentIsRefusedWith503WhenTheWriteQueueIsFull() throws Exception {
+        doThrow(new TaskRejectedException("Comment write queue is full or closed"))
+                .when(commentService).addCommentToArticle(anyInt(), any(), any());
+
+        mvc.perform(post("/api/comments/add/" + articleId)
+                        .header(HttpHeaders.AUTHORIZATION, bearer)
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("too late"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    /**
+     * Vérifie que le dernier commentaire de la liste est celui du lecteur, et qu’il n’y figure qu’une fois.
+     *
+     * @return le commentaire du lecteur.
+     */
+    private JsonNode assertOwnCommentListedOnce() throws Exception {
+        JsonNode page = page(null, 100);
+        assertEquals(COMMENTS + 1, page.get("total").asInt());
+        assertEquals(COMMENTS + 1, page.get("comments").size());
+        JsonNode last = page.get("comments").get(COMMENTS);
+        assertEquals("my own comment", last.get("content").asText());
+        return last;
+    }
+
+    private JsonNode page(String after) throws Exception {
+        return page(after, PAGE_SIZE);
+    }
+
+    private JsonNode page(String after, int limit) throws Exception {
+        var request = get("/api/comments/" + articleId)
+                .header(HttpHeaders.AUTHORIZATION, bearer)
+                .param("limit", String.valueOf(limit));
+        if (after != null) {
+            request.param("after", after);
+        }
+        String body = mvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
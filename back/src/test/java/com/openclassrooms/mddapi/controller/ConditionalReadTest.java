@@ -0,0 +1,184 @@
+package com.openclassrooms.mddapi.controller;
+
+import com.openclassrooms.mddapi.model.dto.UserDTO;
+import com.openclassrooms.mddapi.model.entities.Article;
+import com.openclassrooms.mddapi.model.entities.Comment;
+import com.openclassrooms.mddapi.model.entities.Theme;
+import com.openclassrooms.mddapi.model.entities.User;
+import com.openclassrooms.mddapi.repositories.ArticleDAO;
+import com.openclassrooms.mddapi.repositories.CommentDAO;
+import com.openclassrooms.mddapi.repositories.ThemeDAO;
+import com.openclassrooms.mddapi.repositories.TimelineDAO;
+import com.openclassrooms.mddapi.repositories.TimelineEntryDAO;
+import com.openclassrooms.mddapi.repositories.UserDAO;
+import com.openclassrooms.mddapi.services.JWTService;
+import com.openclassrooms.mddapi.services.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Date;
+
+import static com.openclassrooms.mddapi.config.Constants.PRINCIPALS_CACHE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Vérifie que les ETags des lectures conditionnelles changent avec tout ce que la réponse affiche :
+ * description d’un thème, nom d’utilisateur de l’auteur d’un commentaire ; et que la liste des thèmes
+ * n’est lue qu’une fois, pour un 200 comme pour un 304.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalReadTest {
+
+    private static final String EMAIL = "reader@mdd.test";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TimelineEntryDAO entryDAO;
+
+    @Autowired
+    private TimelineDAO timelineDAO;
+
+    @Autowired
+    private CommentDAO commentDAO;
+
+    @Autowired
+    private ArticleDAO articleDAO;
+
+    @Autowired
+    private ThemeDAO themeDAO;
+
+    @Autowired
+    private UserDAO userDAO;
+
+    private User user;
+
+    private Theme theme;
+
+    private int articleId;
+
+    private String bearer;
+
+    @BeforeEach
+    void seed() {
+        entryDAO.deleteAll();
+        timelineDAO.deleteAll();
+        commentDAO.deleteAll();
+        articleDAO.deleteAll();
+        userDAO.deleteAll();
+        themeDAO.deleteAll();
+        cacheManager.getCache(PRINCIPALS_CACHE).clear();
+
+        user = new User();
+        user.setEmail(EMAIL);
+        user.setUsername("reader");
+        user = userDAO.save(user);
+        bearer = "Bearer " + jwtService.generateToken(
+                UserDTO.builder().id(user.getId()).email(EMAIL).username("reader").build());
+
+        theme = new Theme();
+        theme.setName("theme");
+        theme.setDescription("before");
+        theme = themeDAO.save(theme);
+
+        Article article = new Article();
+        article.setTitle("article");
+        article.setContent("content");
+        article.setThemeId(theme.getId());
+        article.setAuthorId(user.getId());
+        article.setCreatedAt(new Date());
+        articleId = articleDAO.save(article).getId();
+
+        Comment comment = new Comment();
+        comment.setContent("comment");
+        comment.setAuthorId(user.getId());
+        comment.setArticleId(articleId);
+        comment.setCreatedAt(new Date());
+        commentDAO.save(comment);
+    }
+
+    @Test
+    void themesTagChangesWhenAThemeDescriptionIsEdited() throws Exception {
+        String etag = etag("/api/theme/");
+        notModified("/api/theme/", etag);
+
+        theme.setDescription("after");
+        themeDAO.save(theme);
+
+        mvc.perform(get("/api/theme/")
+                        .header(HttpHeaders.AUTHORIZATION, bearer)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.themes[0].description").value("after"));
+    }
+
+    @Test
+    void themesAreReadOnceForA200AndForA304() throws Exception {
+        String etag = etag("/api/theme/");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        etag("/api/theme/");
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        notModified("/api/theme/", etag);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void commentsTagChangesWhenTheAuthorIsRenamed() throws Exception {
+        String comments = "/api/comments/" + articleId;
+        String etag = etag(comments);
+        notModified(comments, etag);
+
+        userService.updateUser(UserDTO.builder().id(user.getId()).email(EMAIL).username("renamed").build()).join();
+
+        mvc.perform(get(comments)
+                        .header(HttpHeaders.AUTHORIZATION, bearer)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments[0].authorUsername").value("renamed"));
+    }
+
+    private String etag(String url) throws Exception {
+        return mvc.perform(get(url).header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private void notModified(String url, String etag) throws Exception {
+        mvc.perform(get(url)
+                        .header(HttpHeaders.AUTHORIZATION, bearer)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+}
@@ -0,0 +1,205 @@
+package com.openclassrooms.mddapi.controller;
+
+import com.openclassrooms.mddapi.model.dto.UserDTO;
+import com.openclassrooms.mddapi.model.entities.Article;
+import com.openclassrooms.mddapi.model.entities.Theme;
+import com.openclassrooms.mddapi.model.entities.User;
+import com.openclassrooms.mddapi.repositories.ArticleDAO;
+import com.openclassrooms.mddapi.repositories.CommentDAO;
+import com.openclassrooms.mddapi.repositories.ThemeDAO;
+import com.openclassrooms.mddapi.repositories.TimelineDAO;
+import com.openclassrooms.mddapi.repositories.TimelineEntryDAO;
+import com.openclassrooms.mddapi.repositories.UserDAO;
+import com.openclassrooms.mddapi.services.ArticleService;
+import com.openclassrooms.mddapi.services.JWTService;
+import com.openclassrooms.mddapi.services.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+
+import static com.openclassrooms.mddapi.config.Constants.ARTICLES_BY_THEME_CACHE;
+import static com.openclassrooms.mddapi.config.Constants.PRINCIPALS_CACHE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Vérifie l’invalidation des caches par les écritures sur l’utilisateur : résolution de l’utilisateur
+ * authentifié par le cache {@code principals} (renommage, refus du jeton d’un utilisateur supprimé)
+ * et nom d’auteur des articles du cache {@code articlesByTheme}. Le jeton ne porte pas le nom d’utilisateur,
+ * lu dans ce cache.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CurrentUserResolutionTest {
+
+    private static final String EMAIL = "reader@mdd.test";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TransactionTemplate transaction;
+
+    @Autowired
+    private JwtDecoder jwtDecoder;
+
+    @Autowired
+    private TimelineEntryDAO entryDAO;
+
+    @Autowired
+    private TimelineDAO timelineDAO;
+
+    @Autowired
+    private CommentDAO commentDAO;
+
+    @Autowired
+    private ArticleDAO articleDAO;
+
+    @Autowired
+    private ThemeDAO themeDAO;
+
+    @Autowired
+    private UserDAO userDAO;
+
+    private User user;
+
+    private int themeId;
+
+    private int articleId;
+
+    private String bearer;
+
+    @BeforeEach
+    void seed() {
+        entryDAO.deleteAll();
+        timelineDAO.deleteAll();
+        commentDAO.deleteAll();
+        articleDAO.deleteAll();
+        userDAO.deleteAll();
+        themeDAO.deleteAll();
+        cacheManager.getCache(PRINCIPALS_CACHE).clear();
+        cacheManager.getCache(ARTICLES_BY_THEME_CACHE).clear();
+
+        user = new User();
+        user.setEmail(EMAIL);
+        user.setUsername("reader");
+        user = userDAO.save(user);
+        bearer = "Bearer " + jwtService.generateToken(
+                UserDTO.builder().id(user.getId()).email(EMAIL).username("reader").build());
+
+        Theme theme = new Theme();
+        theme.setName("theme");
+        themeId = themeDAO.save(theme).getId();
+
+        Article article = new Article();
+        article.setTitle("article");
+        article.setContent("content");
+        article.setThemeId(themeId);
+        article.setAuthorId(user.getId());
+        article.setCreatedAt(new Date());
+        articleId = articleDAO.save(article).getId();
+    }
+
+    @Test
+    void principalsCacheIsEvictedByEveryWriteOnTheUser() {
+        Cache principals = cacheManager.getCache(PRINCIPALS_CACHE);
+
+        UserDTO cached = userService.getUserByEmail(EMAIL);
+        assertNotNull(principals.get(EMAIL));
+
+        transaction.execute(status -> userService.addThemeToFollowed(cached, themeId));
+        assertNull(principals.get(EMAIL));
+
+        UserDTO following = userService.getUserByEmail(EMAIL);
+        assertNotNull(principals.get(EMAIL));
+        transaction.execute(status -> userService.removeThemeToFollowed(following, themeId));
+        assertNull(principals.get(EMAIL));
+
+        userService.getUserByEmail(EMAIL);
+        assertNotNull(principals.get(EMAIL));
+        userService.updateUser(UserDTO.builder().id(user.getId()).email(EMAIL).username("renamed").build()).join();
+        assertNull(principals.get(EMAIL));
+
+        userService.getUserByEmail(EMAIL);
+        assertNotNull(principals.get(EMAIL));
+        userService.deleteUserById(user.getId());
+        assertNull(principals.get(EMAIL));
+    }
+
+    @Test
+    void renamedUserIsResolvedWithItsCurrentUsername() throws Exception {
+        userService.updateUser(UserDTO.builder().id(user.getId()).email(EMAIL).username("renamed").build()).join();
+
+        mvc.perform(get("/api/auth/me").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user.username").value("renamed"));
+        mvc.perform(post("/api/comments/add/" + articleId)
+                        .header(HttpHeaders.AUTHORIZATION, bearer)
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("hello"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['comment saved'].authorUsername").value("renamed"));
+    }
+
+    @Test
+    void tokenCarriesTheIdButNotTheUsername() {
+        Jwt jwt = jwtDecoder.decode(bearer.substring("Bearer ".length()));
+
+        assertEquals(user.getId(), ((Number) jwt.getClaim("uid")).intValue());
+        assertFalse(jwt.hasClaim("username"));
+    }
+
+    @Test
+    void renamingAnAuthorRefreshesTheCachedArticlesOfItsThemes() {
+        assertEquals("reader", articleService.getAllArticlesOfTheme(themeId).get(0).getAuthorUsername());
+        assertNotNull(cacheManager.getCache(ARTICLES_BY_THEME_CACHE).get(themeId));
+
+        userService.updateUser(UserDTO.builder().id(user.getId()).email(EMAIL).username("renamed").build()).join();
+
+        assertNull(cacheManager.getCache(ARTICLES_BY_THEME_CACHE).get(themeId));
+        assertEquals("renamed", articleService.getAllArticlesOfTheme(themeId).get(0).getAuthorUsername());
+    }
+
+    @Test
+    void tokenOfADeletedUserIsRejected() throws Exception {
+        mvc.perform(get("/api/comments/" + articleId).header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk());
+
+        articleDAO.deleteAll();
+        userService.deleteUserById(user.getId());
+
+        mvc.perform(get("/api/auth/me").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isUnauthorized());
+        mvc.perform(get("/api/comments/" + articleId).header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,78 @@
+package com.openclassrooms.mddapi.controller;
+
+import com.openclassrooms.mddapi.model.dto.UserDTO;
+import com.openclassrooms.mddapi.services.JWTService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Vérifie que les exports NDJSON sont réservés au rôle {@code OPS} et qu’ils s’exécutent avec
+ * leur propre délai d’expiration.
+ */
+@SpringBootTest(properties = {
+        "mdd.security.ops-emails=" + ExportControllerTest.OPS_EMAIL,
+        "mdd.export.timeout=" + ExportControllerTest.EXPORT_TIMEOUT_SECONDS + "s"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ExportControllerTest {
+
+    static final String OPS_EMAIL = "ops@mdd.test";
+    static final long EXPORT_TIMEOUT_SECONDS = 45;
+
+    private static final String[] EXPORTS = {"/api/articles/export", "/api/comments/export"};
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Test
+    void exportsRequireAuthentication() throws Exception {
+        for (String export : EXPORTS) {
+            mvc.perform(get(export)).andExpect(status().isUnauthorized());
+        }
+    }
+
+    @Test
+    void exportsAreForbiddenWithoutTheOpsRole() throws Exception {
+        String bearer = bearer(1, "reader@mdd.test");
+        for (String export : EXPORTS) {
+            mvc.perform(get(export).header(HttpHeaders.AUTHORIZATION, bearer)).andExpect(status().isForbidden());
+        }
+    }
+
+    @Test
+    void opsRoleStreamsTheExportsWithTheirOwnTimeout() throws Exception {
+        String bearer = bearer(2, OPS_EMAIL);
+        for (String export : EXPORTS) {
+            MvcResult result = mvc.perform(get(export).header(HttpHeaders.AUTHORIZATION, bearer))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            assertEquals(EXPORT_TIMEOUT_SECONDS * 1000, result.getRequest().getAsyncContext().getTimeout());
+
+            mvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON));
+        }
+    }
+
+    private String bearer(int id, String email) {
+        return "Bearer " + jwtService.generateToken(UserDTO.builder().id(id).email(email).username("user" + id).build());
+    }
+}
@@ -0,0 +1,412 @@
+package com.openclassrooms.mddapi.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.openclassrooms.mddapi.model.dto.UserDTO;
+import com.openclassrooms.mddapi.model.entities.User;
+import com.openclassrooms.mddapi.repositories.ArticleDAO;
+import com.openclassrooms.mddapi.repositories.CommentDAO;
+import com.openclassrooms.mddapi.repositories.ThemeDAO;
+import com.openclassrooms.mddapi.repositories.UserDAO;
+import com.openclassrooms.mddapi.services.JWTService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Campagne de charge de bout en bout sur les principaux endpoints REST.
+ * <p>
+ * L’application est démarrée sur un port aléatoire avec H2 en mode MySQL (profils {@code test}
+ * et {@code perf}), puis alimentée par un {@link PerfDataset} dont les volumes sont configurables.
+ * Des clients concurrents, authentifiés comme des utilisateurs tirés au hasard, interrogent les
+ * endpoints selon un mélange pondéré pendant une durée fixe, après une phase de chauffe.
+ * </p>
+ *
+ * <p>
+ * Pour chaque endpoint sont rapportés le débit et les latences p50/p95/p99, comparés à la référence
+ * enregistrée dans {@code perf-baseline.json} (ressource de test) : le test échoue si le p95 ou le p99
+ * d’un endpoint dépasse celui de la référence de plus de {@code perf.regression.tolerance} (et d’au moins
+ * {@code perf.regression.min-slack-ms}), ou si son taux d’erreur dépasse {@code perf.threshold.error-rate}.
+ * La référence décrit la machine et la charge de sa mesure ({@link Baseline.Reference}) : les latences
+ * n’y sont comparées que si la charge (jeu de données, concurrence, durées) est la même, et ne sont
+ * significatives que sur une machine équivalente.
+ * </p>
+ *
+ * <p>
+ * Exclu du build par défaut (tag {@code perf}) : {@code mvn -Pperf test}. Pour renouveler la référence,
+ * {@code mvn -Pperf test -Dperf.baseline.record=true} écrit les mesures dans {@code target/perf-baseline.json},
+ * à relire puis copier dans {@code src/test/resources}.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@Tag("perf")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"test", "perf"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointLoadTest {
+
+    /** Ressource de test des mesures de référence. */
+    static final String BASELINE_RESOURCE = "perf-baseline.json";
+
+    /**
+     * Endpoint sollicité : nom affiché, poids dans le mélange et construction de la requête.
+     */
+    private record Endpoint(String name, int weight, Function<Client, HttpRequest> request) {
+    }
+
+    /**
+     * Client de la campagne : un utilisateur et son jeton.
+     */
+    private record Client(User user, String bearer) {
+    }
+
+    /**
+     * Mesures de référence : la machine et la charge de la mesure, puis les latences par endpoint.
+     */
+    record Baseline(Reference reference, Map<String, Latencies> endpoints) {
+
+        /**
+         * Machine, JVM et charge de la mesure de référence.
+         */
+        record Reference(String recordedOn, String cpu, int processors, String jvm, Load load) {
+        }
+
+        /**
+         * Charge de la mesure : jeu de données, clients concurrents et durées ({@code perf.*}).
+         */
+        record Load(int users, int themes, int followsPerUser, int articlesPerTheme, int commentsPerArticle,
+                    int concurrency, int warmupSeconds, int durationSeconds) {
+        }
+
+        /**
+         * Latences de référence d’un endpoint.
+         */
+        record Latencies(double p95Ms, double p99Ms) {
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserDAO userDAO;
+    @Autowired
+    private ThemeDAO themeDAO;
+    @Autowired
+    private ArticleDAO articleDAO;
+    @Autowired
+    private CommentDAO commentDAO;
+    @Autowired
+    private JWTService jwtService;
+
+    @Value("${perf.users}")
+    private int users;
+    @Value("${perf.themes}")
+    private int themes;
+    @Value("${perf.follows-per-user}")
+    private int followsPerUser;
+    @Value("${perf.articles-per-theme}")
+    private int articlesPerTheme;
+    @Value("${perf.comments-per-article}")
+    private int commentsPerArticle;
+
+    @Value("${perf.concurrency}")
+    private int concurrency;
+    @Value("${perf.warmup-seconds}")
+    private int warmupSeconds;
+    @Value("${perf.duration-seconds}")
+    private int durationSeconds;
+
+    @Value("${perf.regression.tolerance}")
+    private double regressionTolerance;
+    @Value("${perf.regression.min-slack-ms}")
+    private double regressionMinSlackMs;
+    @Value("${perf.threshold.error-rate}")
+    private double errorRateThreshold;
+    @Value("${perf.baseline.record:false}")
+    private boolean recordBaseline;
+
+    private final ObjectMapper json = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    private List<Client> clients;
+
+    private List<Integer> articleIds;
+
+    private List<Endpoint> endpoints;
+
+    @BeforeAll
+    void seed() {
+        PerfDataset dataset = new PerfDataset(userDAO, themeDAO, articleDAO, commentDAO);
+        dataset.seed(users, themes, followsPerUser, articlesPerTheme, commentsPerArticle);
+        articleIds = dataset.getArticleIds();
+        clients = dataset.getUsers().stream()
+                .map(user -> new Client(user, "Bearer " + jwtService.generateToken(UserDTO.builder()
+                        .id(user.getId()).email(user.getEmail()).username(user.getUsername()).build())))
+                .toList();
+
+        endpoints = List.of(
+                new Endpoint("GET /api/articles/followed", 40, client -> get(client, "/api/articles/followed")),
+                new Endpoint("GET /api/articles/{id}", 20, client -> get(client, "/api/articles/" + randomArticle())),
+                new Endpoint("GET /api/comments/{id}", 20, client -> get(client, "/api/comments/" + randomArticle())),
+                new Endpoint("GET /api/theme/", 10, client -> get(client, "/api/theme/")),
+                new Endpoint("GET /api/auth/me", 5, client -> get(client, "/api/auth/me")),
+                new Endpoint("POST /api/comments/add/{id}", 5, client -> HttpRequest
+                        .newBuilder(uri("/api/comments/add/" + randomArticle()))
+                        .header("Authorization", client.bearer())
+                        .header("Content-Type", "text/plain")
+                        .POST(HttpRequest.BodyPublishers.ofString("Commentaire de charge"))
+                        .build()));
+    }
+
+    @Test
+    void endpointsStayWithinLatencyThresholdsUnderLoad() throws Exception {
+        run(warmupSeconds);
+        Map<String, Stats> results = run(durationSeconds);
+
+        System.out.printf("%n%-32s %8s %7s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms");
+        results.forEach((name, stats) -> System.out.printf("%-32s %8d %7d %9.1f %9.2f %9.2f %9.2f%n",
+                name, stats.count(), stats.errors, stats.count() / (double) durationSeconds,
+                stats.percentileMs(50), stats.percentileMs(95), stats.percentileMs(99)));
+
+        List<Executable> checks = new ArrayList<>();
+        results.forEach((name, stats) -> checks.add(() -> assertTrue(stats.errorRate() <= errorRateThreshold,
+                name + " error rate " + stats.errorRate() + " > " + errorRateThreshold)));
+
+        Baseline measured = new Baseline(reference(), new LinkedHashMap<>());
+        results.forEach((name, stats) -> measured.endpoints().put(name,
+                new Baseline.Latencies(round(stats.percentileMs(95)), round(stats.percentileMs(99)))));
+        if (recordBaseline) {
+            Path file = Path.of("target", BASELINE_RESOURCE);
+            json.writeValue(file.toFile(), measured);
+            System.out.println("Baseline recorded in " + file.toAbsolutePath());
+        } else {
+            Baseline baseline = loadBaseline();
+            System.out.println("Baseline recorded on " + baseline.reference().recordedOn() + ", "
+                    + baseline.reference().cpu() + " (" + baseline.reference().processors() + " CPU), "
+                    + baseline.reference().jvm() + "; this run: " + measured.reference().cpu()
+                    + " (" + measured.reference().processors() + " CPU), " + measured.reference().jvm());
+            assertEquals(baseline.reference().load(), measured.reference().load(),
+                    "the load differs from the baseline's: latencies are not comparable");
+            measured.endpoints().forEach((name, latencies) -> {
+                Baseline.Latencies reference = baseline.endpoints().get(name);
+                checks.add(() -> assertNotNull(reference, name + " has no baseline"));
+                if (reference != null) {
+                    checks.add(() -> assertWithinBaseline(name, "p95", latencies.p95Ms(), reference.p95Ms()));
+                    checks.add(() -> assertWithinBaseline(name, "p99", latencies.p99Ms(), reference.p99Ms()));
+                }
+            });
+        }
+        assertAll(checks);
+    }
+
+    /**
+     * Vérifie qu’une latence ne régresse pas au-delà de la tolérance par rapport à sa référence.
+     *
+     * @param endpoint   le nom de l’endpoint.
+     * @param percentile le centile mesuré.
+     * @param measuredMs la latence mesurée.
+     * @param baselineMs la latence de référence.
+     */
+    private void assertWithinBaseline(String endpoint, String percentile, double measuredMs, double baselineMs) {
+        double limitMs = Math.max(baselineMs * (1 + regressionTolerance), baselineMs + regressionMinSlackMs);
+        assertTrue(measuredMs <= limitMs, String.format(Locale.ROOT, "%s %s %.2f ms > %.2f ms (baseline %.2f ms + %.0f%%)",
+                endpoint, percentile, measuredMs, limitMs, baselineMs, regressionTolerance * 100));
+    }
+
+    /**
+     * Lit les mesures de référence dans les ressources de test.
+     *
+     * @return la référence enregistrée.
+     */
+    private Baseline loadBaseline() throws IOException {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(BASELINE_RESOURCE)) {
+            assertNotNull(in, BASELINE_RESOURCE + " is missing: record it with -Dperf.baseline.record=true");
+            return json.readValue(in, Baseline.class);
+        }
+    }
+
+    /**
+     * Décrit la machine, la JVM et la charge de cette campagne.
+     *
+     * @return la description de la mesure en cours.
+     */
+    private Baseline.Reference reference() {
+        return new Baseline.Reference(LocalDate.now().toString(), cpuModel(), Runtime.getRuntime().availableProcessors(),
+                System.getProperty("java.vm.name") + " " + System.getProperty("java.version"),
+                new Baseline.Load(users, themes, followsPerUser, articlesPerTheme, commentsPerArticle,
+                        concurrency, warmupSeconds, durationSeconds));
+    }
+
+    private static String cpuModel() {
+        try (Stream<String> lines = Files.lines(Path.of("/proc/cpuinfo"))) {
+            return lines.filter(line -> line.startsWith("model name"))
+                    .map(line -> line.substring(line.indexOf(':') + 1).trim())
+                    .findFirst()
+                    .orElse(System.getProperty("os.arch"));
+        } catch (IOException | UncheckedIOException e) {
+            return System.getProperty("os.arch");
+        }
+    }
+
+    private static double round(double ms) {
+        return Math.round(ms * 100) / 100.0;
+    }
+
+    /**
+     * Soumet la charge pendant la durée donnée et agrège les mesures de tous les clients.
+     *
+     * @param seconds durée de la phase.
+     * @return les mesures par endpoint, dans l’ordre de déclaration des endpoints.
+     */
+    private Map<String, Stats> run(int seconds) throws Exception {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<Map<String, Stats>>> workers = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> drive(deadline)));
+            }
+            Map<String, Stats> merged = new LinkedHashMap<>();
+            endpoints.forEach(endpoint -> merged.put(endpoint.name(), new Stats()));
+            for (Future<Map<String, Stats>> worker : workers) {
+                worker.get().forEach((name, stats) -> merged.get(name).merge(stats));
+            }
+            return merged;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Boucle d’un client : tire un endpoint selon les poids et un utilisateur, puis mesure la requête.
+     *
+     * @param deadline fin de la phase, en {@link System#nanoTime()}.
+     * @return les mesures de ce client.
+     */
+    private Map<String, Stats> drive(long deadline) {
+        int totalWeight = endpoints.stream().mapToInt(Endpoint::weight).sum();
+        Map<String, Stats> stats = new HashMap<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            Endpoint endpoint = pick(random.nextInt(totalWeight));
+            Client client = clients.get(random.nextInt(clients.size()));
+            Stats endpointStats = stats.computeIfAbsent(endpoint.name(), name -> new Stats());
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = http.send(endpoint.request().apply(client), HttpResponse.BodyHandlers.discarding());
+                endpointStats.record(System.nanoTime() - start, response.statusCode() >= 400);
+            } catch (Exception e) {
+                endpointStats.record(System.nanoTime() - start, true);
+            }
+        }
+        return stats;
+    }
+
+    private Endpoint pick(int draw) {
+        for (Endpoint endpoint : endpoints) {
+            draw -= endpoint.weight();
+            if (draw < 0) {
+                return endpoint;
+            }
+        }
+        return endpoints.get(endpoints.size() - 1);
+    }
+
+    private int randomArticle() {
+        return articleIds.get(ThreadLocalRandom.current().nextInt(articleIds.size()));
+    }
+
+    private HttpRequest get(Client client, String path) {
+        return HttpRequest.newBuilder(uri(path)).header("Authorization", client.bearer()).GET().build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    /**
+     * Latences (en nanosecondes) et erreurs mesurées pour un endpoint.
+     */
+    private static final class Stats {
+
+        private long[] latencies = new long[1024];
+        private int size;
+        private long errors;
+
+        void record(long nanos, boolean error) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = nanos;
+            if (error) {
+                errors++;
+            }
+        }
+
+        void merge(Stats other) {
+            for (int i = 0; i < other.size; i++) {
+                record(other.latencies[i], false);
+            }
+            errors += other.errors;
+        }
+
+        int count() {
+            return size;
+        }
+
+        double errorRate() {
+            return size == 0 ? 0 : errors / (double) size;
+        }
+
+        double percentileMs(int percentile) {
+            if (size == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile / 100.0 * size) - 1;
+            return sorted[Math.max(rank, 0)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.openclassrooms.mddapi.perf;
+
+import com.openclassrooms.mddapi.model.entities.Article;
+import com.openclassrooms.mddapi.model.entities.Comment;
+import com.openclassrooms.mddapi.model.entities.Theme;
+import com.openclassrooms.mddapi.model.entities.User;
+import com.openclassrooms.mddapi.repositories.ArticleDAO;
+import com.openclassrooms.mddapi.repositories.CommentDAO;
+import com.openclassrooms.mddapi.repositories.ThemeDAO;
+import com.openclassrooms.mddapi.repositories.UserDAO;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Jeu de données de la campagne de charge : utilisateurs, thèmes, abonnements, articles et commentaires.
+ * <p>
+ * Les volumes sont fournis par la configuration ({@code perf.*}) ; la génération est déterministe
+ * (graine fixe) afin que deux campagnes portent sur les mêmes données.
+ * </p>
+ *
+ * @author PA-SCHAMING
+ * @version 1.0
+ */
+@RequiredArgsConstructor
+class PerfDataset {
+
+    private static final long SEED = 42L;
+
+    private final UserDAO userDAO;
+    private final ThemeDAO themeDAO;
+    private final ArticleDAO articleDAO;
+    private final CommentDAO commentDAO;
+
+    /** Utilisateurs créés. */
+    @Getter
+    private final List<User> users = new ArrayList<>();
+
+    /** Identifiants des articles créés. */
+    @Getter
+    private final List<Integer> articleIds = new ArrayList<>();
+
+    /**
+     * Génère et enregistre le jeu de données.
+     *
+     * @param userCount          nombre d’utilisateurs.
+     * @param themeCount         nombre de thèmes.
+     * @param followsPerUser     nombre de thèmes suivis par utilisateur.
+     * @param articlesPerTheme   nombre d’articles par thème.
+     * @param commentsPerArticle nombre de commentaires par article.
+     */
+    void seed(int userCount, int themeCount, int followsPerUser, int articlesPerTheme, int commentsPerArticle) {
+        Random random = new Random(SEED);
+
+        List<Theme> themes = new ArrayList<>(themeCount);
+        for (int t = 0; t < themeCount; t++) {
+            Theme theme = new Theme();
+            theme.setName("perf theme " + t);
+            theme.setDescription("Thème de la campagne de charge " + t);
+            themes.add(theme);
+        }
+        themes = themeDAO.saveAll(themes);
+
+        List<User> newUsers = new ArrayList<>(userCount);
+        for (int u = 0; u < userCount; u++) {
+            User user = new User();
+            user.setName("Perf " + u);
+            user.setEmail("perf" + u + "@mdd.test");
+            user.setUsername("perf" + u);
+            List<Theme> followed = new ArrayList<>(themes);
+            Collections.shuffle(followed, random);
+            user.setFollowedThemes(new ArrayList<>(followed.subList(0, Math.min(followsPerUser, themeCount))));
+            newUsers.add(user);
+        }
+        users.addAll(userDAO.saveAll(newUsers));
+
+        long time = System.currentTimeMillis() - (long) themeCount * articlesPerTheme * 60_000L;
+        List<Article> articles = new ArrayList<>(themeCount * articlesPerTheme);
+        for (Theme theme : themes) {
+            for (int a = 0; a < articlesPerTheme; a++) {
+                Article article = new Article();
+                article.setTitle("Article " + theme.getId() + "-" + a);
+                article.setContent("Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(10));
+                article.setThemeId(theme.getId());
+                article.setAuthorId(users.get(random.nextInt(users.size())).getId());
+                article.setCreatedAt(new Date(time));
+                time += 60_000;
+                articles.add(article);
+            }
+        }
+        articleDAO.saveAll(articles).forEach(article -> articleIds.add(article.getId()));
+
+        List<Comment> comments = new ArrayList<>(articleIds.size() * commentsPerArticle);
+        for (Integer articleId : articleIds) {
+            for (int c = 0; c < commentsPerArticle; c++) {
+                Comment comment = new Comment();
+                comment.setArticleId(articleId);
+                comment.setAuthorId(users.get(random.nextInt(users.size())).getId());
+                comment.setContent("Commentaire " + c);
+                comment.setCreatedAt(new Date());
+                comments.add(comment);
+            }
+        }
+        commentDAO.saveAll(comments);
+    }
+}
@@ -0,0 +1,144 @@
+package com.openclassrooms.mddapi.services.impl;
+
+import com.openclassrooms.mddapi.model.dto.ArticleSummaryDTO;
+import com.openclassrooms.mddapi.model.dto.CursorPageDTO;
+import com.openclassrooms.mddapi.model.dto.UserDTO;
+import com.openclassrooms.mddapi.model.entities.Article;
+import com.openclassrooms.mddapi.model.entities.Theme;
+import com.openclassrooms.mddapi.model.entities.User;
+import com.openclassrooms.mddapi.repositories.ArticleDAO;
+import com.openclassrooms.mddapi.repositories.ThemeDAO;
+import com.openclassrooms.mddapi.repositories.TimelineDAO;
+import com.openclassrooms.mddapi.repositories.TimelineEntryDAO;
+import com.openclassrooms.mddapi.repositories.UserDAO;
+import com.openclassrooms.mddapi.services.ArticleService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Vérifie que chaque page du fil des articles suivis reste à coût constant en nombre de requêtes SQL,
+ * quel que soit le nombre de thèmes suivis ou d’articles par thème.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ArticleFeedQueryCountTest {
+
+    /** Nombre maximal de requêtes autorisées pour construire une page du fil d’un utilisateur. */
+    private static final long MAX_PAGE_QUERIES = 1;
+
+    private static final int PAGE_SIZE = 7;
+
+    private static final int THEMES = 10;
+    private static final int ARTICLES_PER_THEME = 5;
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private ArticleDAO articleDAO;
+
+    @Autowired
+    private ThemeDAO themeDAO;
+
+    @Autowired
+    private TimelineDAO timelineDAO;
+
+    @Autowired
+    private TimelineEntryDAO entryDAO;
+
+    @Autowired
+    private UserDAO userDAO;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User reader;
+
+    /** Identifiants des articles du fil, du plus récent au plus ancien. */
+    private List<Integer> newestFirst;
+
+    @BeforeEach
+    void seed() {
+        entryDAO.deleteAll();
+        timelineDAO.deleteAll();
+        articleDAO.deleteAll();
+        userDAO.deleteAll();
+        themeDAO.deleteAll();
+
+        User author = new User();
+        author.setEmail("author@mdd.test");
+        author.setUsername("author");
+        author = userDAO.save(author);
+
+        List<Theme> themes = new ArrayList<>();
+        newestFirst = new ArrayList<>();
+        long time = 1_700_000_000_000L;
+        for (int t = 0; t < THEMES; t++) {
+            Theme theme = new Theme();
+            theme.setName("theme " + t);
+            theme = themeDAO.save(theme);
+            themes.add(theme);
+            for (int a = 0; a < ARTICLES_PER_THEME; a++) {
+                Article article = new Article();
+                article.setTitle("article " + t + "-" + a);
+                article.setContent("content");
+                article.setThemeId(theme.getId());
+                article.setAuthorId(author.getId());
+                article.setCreatedAt(new Date(time));
+                time += 60_000;
+                newestFirst.add(0, articleDAO.save(article).getId());
+            }
+        }
+
+        User user = new User();
+        user.setEmail("reader@mdd.test");
+        user.setUsername("reader");
+        user.setFollowedThemes(themes);
+        reader = userDAO.save(user);
+    }
+
+    @Test
+    void followedFeedPagesAreBuiltWithAFixedNumberOfQueries() {
+        UserDTO userDTO = UserDTO.builder().id(reader.getId()).email(reader.getEmail()).build();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // La première lecture matérialise le fil : ce coût n’est payé qu’une fois par utilisateur.
+        String cursor = articleService.getFollowedArticlesPage(userDTO, null, PAGE_SIZE).getNextCursor();
+
+        while (cursor != null) {
+            statistics.clear();
+            CursorPageDTO<ArticleSummaryDTO> page = articleService.getFollowedArticlesPage(userDTO, cursor, PAGE_SIZE);
+
+            assertTrue(statistics.getPrepareStatementCount() <= MAX_PAGE_QUERIES,
+                    "followed feed page executed " + statistics.getPrepareStatementCount() + " statements");
+            page.getItems().forEach(article -> assertEquals("author", article.getAuthorUsername()));
+            cursor = page.getNextCursor();
+        }
+    }
+
+    @Test
+    void followedFeedPagesWalkTheWholeFeedWithoutDuplicates() {
+        UserDTO userDTO = UserDTO.builder().id(reader.getId()).email(reader.getEmail()).build();
+        List<Integer> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageDTO<ArticleSummaryDTO> page = articleService.getFollowedArticlesPage(userDTO, cursor, PAGE_SIZE);
+            assertTrue(page.getItems().size() <= PAGE_SIZE);
+            page.getItems().forEach(article -> walked.add(article.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(newestFirst, walked);
+    }
+}
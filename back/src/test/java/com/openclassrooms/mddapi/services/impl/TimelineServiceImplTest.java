@@ -0,0 +1,229 @@
+package com.openclassrooms.mddapi.services.impl;
+
+import com.openclassrooms.mddapi.model.dto.ArticleDTO;
+import com.openclassrooms.mddapi.model.dto.AuthenticatedUserDTO;
+import com.openclassrooms.mddapi.model.entities.Theme;
+import com.openclassrooms.mddapi.model.entities.TimelineEntry;
+import com.openclassrooms.mddapi.model.entities.User;
+import com.openclassrooms.mddapi.repositories.ArticleDAO;
+import com.openclassrooms.mddapi.repositories.CommentDAO;
+import com.openclassrooms.mddapi.repositories.ThemeDAO;
+import com.openclassrooms.mddapi.repositories.TimelineDAO;
+import com.openclassrooms.mddapi.repositories.TimelineEntryDAO;
+import com.openclassrooms.mddapi.repositories.UserDAO;
+import com.openclassrooms.mddapi.services.ArticleService;
+import com.openclassrooms.mddapi.services.TimelineService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Vérifie le fil matérialisé : construction unique lors de premières lectures simultanées, diffusion
+ * d’un article publié aux abonnés, désabonnement, suppression d’un article et respect de la capacité
+ * du fil, en mémoire comme en base.
+ */
+@SpringBootTest(properties = "mdd.timeline.capacity=" + TimelineServiceImplTest.CAPACITY)
+@ActiveProfiles("test")
+class TimelineServiceImplTest {
+
+    static final int CAPACITY = 5;
+
+    /** Nombre de premières lectures simultanées d’un même fil. */
+    private static final int READERS = 4;
+
+    /** Délai maximal d’attente des traitements asynchrones du fil. */
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private TimelineEntryDAO entryDAO;
+
+    @Autowired
+    private TimelineDAO timelineDAO;
+
+    @Autowired
+    private CommentDAO commentDAO;
+
+    @Autowired
+    private ArticleDAO articleDAO;
+
+    @Autowired
+    private ThemeDAO themeDAO;
+
+    @Autowired
+    private UserDAO userDAO;
+
+    private AuthenticatedUserDTO author;
+
+    private User reader;
+
+    private Theme followed;
+
+    private Theme other;
+
+    @BeforeEach
+    void seed() {
+        entryDAO.deleteAll();
+        timelineDAO.deleteAll();
+        commentDAO.deleteAll();
+        articleDAO.deleteAll();
+        userDAO.deleteAll();
+        themeDAO.deleteAll();
+
+        followed = themeDAO.save(theme("followed"));
+        other = themeDAO.save(theme("other"));
+
+        User writer = new User();
+        writer.setEmail("author@mdd.test");
+        writer.setUsername("author");
+        writer = userDAO.save(writer);
+        author = new AuthenticatedUserDTO(writer.getId(), writer.getEmail(), writer.getUsername());
+
+        User user = new User();
+        user.setEmail("reader@mdd.test");
+        user.setUsername("reader");
+        user.setFollowedThemes(new ArrayList<>(List.of(followed)));
+        reader = userDAO.save(user);
+    }
+
+    @Test
+    void publishedArticleReachesTheFollowersTimelineOnly() {
+        int before = publish(followed, "before").getId();
+        assertEquals(List.of(before), firstPage());
+
+        int after = publish(followed, "after").getId();
+        publish(other, "unfollowed theme");
+
+        awaitEquals(List.of(after, before), this::firstPage);
+        awaitEquals(List.of(after, before), this::storedIds);
+    }
+
+    @Test
+    void unfollowRemovesTheThemeFromTheTimeline() {
+        publish(followed, "first");
+        publish(followed, "second");
+        assertEquals(2, firstPage().size());
+
+        timelineService.unfollow(reader.getId(), followed.getId());
+
+        awaitEquals(List.of(), this::firstPage);
+        awaitEquals(List.of(), this::storedIds);
+    }
+
+    @Test
+    void concurrentFirstReadsSeeTheWholeTimeline() throws Exception {
+        List<Integer> published = new ArrayList<>();
+        for (int i = 0; i < CAPACITY - 1; i++) {
+            published.add(0, publish(followed, "article " + i).getId());
+        }
+
+        ExecutorService readers = Executors.newFixedThreadPool(READERS);
+        try {
+            List<Future<List<Integer>>> pages = new ArrayList<>();
+            for (int i = 0; i < READERS; i++) {
+                pages.add(readers.submit(this::firstPage));
+            }
+            for (Future<List<Integer>> page : pages) {
+                assertEquals(published, page.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+        assertEquals(published, storedIds());
+    }
+
+    @Test
+    void removedArticleLeavesTheTimelineInMemoryAndInDatabase() {
+        int kept = publish(followed, "kept").getId();
+        int removed = publish(followed, "removed").getId();
+        awaitEquals(List.of(removed, kept), this::firstPage);
+
+        timelineService.removeArticle(removed);
+
+        assertEquals(List.of(kept), firstPage());
+        assertEquals(List.of(kept), storedIds());
+    }
+
+    @Test
+    void timelineIsCappedInMemoryAndInDatabase() {
+        publish(followed, "seed");
+        assertEquals(1, firstPage().size());
+
+        List<Integer> published = new ArrayList<>();
+        for (int i = 0; i < CAPACITY + 3; i++) {
+            int id = publish(followed, "article " + i).getId();
+            published.add(0, id);
+            // Une diffusion à la fois : chacune purge le fil qu’elle vient de compléter.
+            awaitEquals(id, () -> storedIds().get(0));
+        }
+        List<Integer> newest = published.subList(0, CAPACITY);
+
+        awaitEquals(newest, this::storedIds);
+        awaitEquals(newest, () -> timelineService.findPage(reader.getId(), null, null, CAPACITY).orElseThrow());
+        // La page suivante dépasse le fil conservé : l’appelant doit lire la base.
+        TimelineEntry last = entryDAO.findByUserIdOrderByCreatedAtDescArticleIdDesc(reader.getId(), PageRequest.of(CAPACITY - 1, 1)).get(0);
+        assertTrue(timelineService.findPage(reader.getId(), last.getCreatedAt(), last.getArticleId(), CAPACITY).isEmpty());
+    }
+
+    private ArticleDTO publish(Theme theme, String title) {
+        ArticleDTO article = new ArticleDTO();
+        article.setThemeId(theme.getId());
+        article.setTitle(title);
+        article.setContent("content of " + title);
+        ArticleDTO saved = articleService.save(article, author);
+        sleepPastClockTick();
+        return saved;
+    }
+
+    private List<Integer> firstPage() {
+        return timelineService.findPage(reader.getId(), null, null, CAPACITY * 10).orElseThrow();
+    }
+
+    private List<Integer> storedIds() {
+        return entryDAO.findByUserIdOrderByCreatedAtDescArticleIdDesc(reader.getId(), PageRequest.of(0, CAPACITY * 10))
+                .stream().map(TimelineEntry::getArticleId).toList();
+    }
+
+    private static Theme theme(String name) {
+        Theme theme = new Theme();
+        theme.setName(name);
+        return theme;
+    }
+
+    /** Sépare les dates de création de deux articles successifs. */
+    private static void sleepPastClockTick() {
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static <T> void awaitEquals(T expected, Supplier<T> actual) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        T value = actual.get();
+        while (!expected.equals(value) && System.currentTimeMillis() < deadline) {
+            sleepPastClockTick();
+            value = actual.get();
+        }
+        assertEquals(expected, value);
+    }
+}
@@ -0,0 +1,99 @@
+package com.openclassrooms.mddapi.services.search;
+
+import com.openclassrooms.mddapi.model.dto.ArticleDTO;
+import com.openclassrooms.mddapi.model.projections.ContentVersion;
+import com.openclassrooms.mddapi.repositories.ArticleDAO;
+import com.openclassrooms.mddapi.repositories.EntityStreams;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Vérifie le classement, le filtrage par thème et la profondeur maximale des recherches
+ * de l’index plein texte, sur un index en mémoire.
+ */
+class ArticleSearchIndexTest {
+
+    private static final int MAX_RESULTS = 3;
+
+    private ArticleSearchIndex index;
+
+    @BeforeEach
+    void open() throws IOException {
+        ArticleDAO articleDAO = mock(ArticleDAO.class);
+        when(articleDAO.findVersion()).thenReturn(mock(ContentVersion.class));
+        index = new ArticleSearchIndex(articleDAO, mock(EntityStreams.class), mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(index, "directory", "");
+        ReflectionTestUtils.setField(index, "refreshInterval", Duration.ofHours(1));
+        ReflectionTestUtils.setField(index, "commitInterval", Duration.ofHours(1));
+        ReflectionTestUtils.setField(index, "maxResults", MAX_RESULTS);
+        index.open();
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        index.close();
+    }
+
+    @Test
+    void titleMatchesRankAboveContentMatches() {
+        index.index(article(1, 1, "Bien débuter", "Un tutoriel sur le langage Java et son écosystème."));
+        index.index(article(2, 1, "Java en production", "Superviser une application."));
+        index.index(article(3, 1, "Angular", "Composants et services."));
+        index.refresh();
+
+        assertEquals(List.of(2, 1), index.search("java", List.of(), 0, 10));
+    }
+
+    @Test
+    void searchIsRestrictedToTheRequestedThemes() {
+        index.index(article(1, 1, "Java", "Les flux."));
+        index.index(article(2, 2, "Java", "Les flux."));
+        index.index(article(3, 3, "Java", "Les flux."));
+        index.refresh();
+
+        assertEquals(List.of(2), index.search("java", List.of(2), 0, 10));
+        assertEquals(List.of(1, 3), index.search("java", List.of(1, 3), 0, 10).stream().sorted().toList());
+    }
+
+    @Test
+    void resultsStopAtTheMaximalDepth() {
+        for (int id = 1; id <= MAX_RESULTS + 2; id++) {
+            index.index(article(id, 1, "Java " + id, "Les flux."));
+        }
+        index.refresh();
+
+        assertEquals(MAX_RESULTS, index.search("java", List.of(), 0, 10).size());
+        assertEquals(1, index.search("java", List.of(), MAX_RESULTS - 1, 10).size());
+        assertThrows(IllegalArgumentException.class, () -> index.search("java", List.of(), MAX_RESULTS, 10));
+    }
+
+    @Test
+    void removedArticlesAreNoLongerFound() {
+        index.index(article(1, 1, "Java", "Les flux."));
+        index.index(article(2, 1, "Java", "Les flux."));
+        index.remove(1);
+        index.refresh();
+
+        assertEquals(List.of(2), index.search("java", List.of(), 0, 10));
+    }
+
+    private static ArticleDTO article(int id, int themeId, String title, String content) {
+        ArticleDTO article = new ArticleDTO();
+        article.setId(id);
+        article.setThemeId(themeId);
+        article.setTitle(title);
+        article.setContent(content);
+        return article;
+    }
+}
@@ -0,0 +1,82 @@
+package com.openclassrooms.mddapi.services.stream;
+
+import com.openclassrooms.mddapi.model.dto.ArticleDTO;
+import com.openclassrooms.mddapi.model.dto.ThemeDTO;
+import com.openclassrooms.mddapi.model.dto.UserDTO;
+import com.openclassrooms.mddapi.repositories.ArticleDAO;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Vérifie que le flux ferme une connexion dont les envois ne peuvent plus suivre (tampon plein, pool saturé),
+ * sans jamais envoyer depuis le thread qui publie.
+ */
+class FollowedArticleStreamTest {
+
+    private static final int USER_ID = 1;
+
+    private static final int THEME_ID = 7;
+
+    @Test
+    void subscriberIsEvictedWhenItsBufferOverflows() {
+        // les envois sont planifiés mais jamais exécutés : le tampon n’est pas vidé
+        List<Runnable> pending = new ArrayList<>();
+        FollowedArticleStream stream = stream(pending::add, 2);
+        stream.subscribe(reader(), null);
+
+        stream.publish(article(1));
+        stream.publish(article(2));
+        assertTrue(isConnected(stream));
+        assertEquals(1, pending.size());
+
+        stream.publish(article(3));
+        assertFalse(isConnected(stream));
+    }
+
+    @Test
+    void subscriberIsEvictedWhenTheExecutorRejectsItsSend() {
+        FollowedArticleStream stream = stream(task -> {
+            throw new RejectedExecutionException("saturated");
+        }, 10);
+        stream.subscribe(reader(), null);
+        assertTrue(isConnected(stream));
+
+        stream.publish(article(1));
+
+        assertFalse(isConnected(stream));
+    }
+
+    private static FollowedArticleStream stream(Executor executor, int bufferSize) {
+        FollowedArticleStream stream = new FollowedArticleStream(mock(ArticleDAO.class), executor,
+                mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(stream, "bufferSize", bufferSize);
+        ReflectionTestUtils.setField(stream, "timeout", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(stream, "replayLimit", 10);
+        return stream;
+    }
+
+    private static boolean isConnected(FollowedArticleStream stream) {
+        return ((Map<?, ?>) ReflectionTestUtils.getField(stream, "byUser")).containsKey(USER_ID);
+    }
+
+    private static UserDTO reader() {
+        return UserDTO.builder().id(USER_ID).followedThemes(List.of(ThemeDTO.builder().id(THEME_ID).build())).build();
+    }
+
+    private static ArticleDTO article(int id) {
+        return ArticleDTO.builder().id(id).themeId(THEME_ID).title("article " + id).content("content").build();
+    }
+}
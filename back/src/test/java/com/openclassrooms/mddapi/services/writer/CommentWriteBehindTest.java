@@ -0,0 +1,193 @@
+package com.openclassrooms.mddapi.services.writer;
+
+import com.openclassrooms.mddapi.model.entities.Comment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Vérifie l’écriture différée des commentaires : visibilité des commentaires en attente jusqu’à la
+ * validation de leur insertion, refus lorsque la file est pleine et réinsertion un à un d’un lot en échec.
+ * La base est simulée : chaque lot JDBC passe par {@link #insert}.
+ */
+class CommentWriteBehindTest {
+
+    private static final int AUTHOR = 1;
+    private static final int ARTICLE = 2;
+    /** Article du commentaire témoin qui retient le fil d’écriture. */
+    private static final int HELD_ARTICLE = 3;
+    private static final int QUEUE_CAPACITY = 2;
+
+    private CommentWriteBehind writeBehind;
+
+    /** Identifiants générés par la base simulée. */
+    private final AtomicInteger nextId = new AtomicInteger(100);
+
+    /** Ouvert par défaut ; fermé, il retient le fil d’écriture au début du lot suivant. */
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+
+    /** Franchi lorsque le fil d’écriture attend devant {@link #gate}. */
+    private volatile CountDownLatch blocked = new CountDownLatch(1);
+
+    /** Contenus dont l’insertion échoue, seuls ou en lot. */
+    private final Set<String> failing = ConcurrentHashMap.newKeySet();
+
+    /** Nombre de lots de plusieurs commentaires refusés par la base simulée. */
+    private final AtomicInteger failedBatches = new AtomicInteger();
+
+    @BeforeEach
+    void start() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        doAnswer(invocation -> insert(invocation.getArgument(1), invocation.getArgument(2)))
+                .when(jdbcTemplate).batchUpdate(any(PreparedStatementCreator.class),
+                        any(BatchPreparedStatementSetter.class), any(KeyHolder.class));
+        writeBehind = new CommentWriteBehind(jdbcTemplate, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(writeBehind, "enabled", true);
+        ReflectionTestUtils.setField(writeBehind, "queueCapacity", QUEUE_CAPACITY);
+        ReflectionTestUtils.setField(writeBehind, "batchSize", 10);
+        ReflectionTestUtils.setField(writeBehind, "offerTimeout", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(writeBehind, "shutdownTimeout", Duration.ofSeconds(5));
+        writeBehind.start();
+    }
+
+    @AfterEach
+    void close() {
+        gate.countDown();
+        writeBehind.close();
+    }
+
+    @Test
+    void commentStaysPendingWithoutIdUntilItsInsertIsCommitted() throws InterruptedException {
+        holdWriter();
+        CountDownLatch written = new CountDownLatch(1);
+        Comment comment = comment("first");
+
+        writeBehind.accept(comment, written::countDown);
+
+        List<CommentWriteBehind.Pending> pending = writeBehind.pendingOf(AUTHOR, ARTICLE);
+        assertEquals(1, pending.size());
+        assertEquals(0, pending.get(0).getId());
+
+        gate.countDown();
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+        assertTrue(comment.getId() > 0);
+        assertEquals(comment.getId(), pending.get(0).getId());
+        assertEquals(List.of(), writeBehind.pendingOf(AUTHOR, ARTICLE));
+    }
+
+    @Test
+    void commentIsRejectedWhenTheQueueIsFull() throws InterruptedException {
+        holdWriter();
+        for (int i = 0; i < QUEUE_CAPACITY; i++) {
+            writeBehind.accept(comment("queued " + i), () -> { });
+        }
+
+        assertThrows(TaskRejectedException.class, () -> writeBehind.accept(comment("rejected"), () -> { }));
+        assertEquals(List.of("queued 0", "queued 1"), writeBehind.pendingOf(AUTHOR, ARTICLE).stream()
+                .map(entry -> entry.getComment().getContent()).toList());
+    }
+
+    @Test
+    void failedBatchIsRetriedOneByOneAndOnlyTheFailingCommentIsDropped() throws InterruptedException {
+        holdWriter();
+        failing.add("bad");
+        CountDownLatch written = new CountDownLatch(2);
+        Comment good = comment("good");
+        Comment bad = comment("bad");
+        Comment other = comment("other");
+        writeBehind.accept(good, written::countDown);
+        writeBehind.accept(bad, () -> fail("a dropped comment must not be published"));
+
+        gate.countDown();
+        // Le troisième commentaire est écrit dans un lot suivant, après le lot en échec
+        writeBehind.accept(other, written::countDown);
+
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+        assertEquals(1, failedBatches.get());
+        assertTrue(good.getId() > 0);
+        assertTrue(other.getId() > 0);
+        assertEquals(0, bad.getId());
+        awaitNoPending();
+    }
+
+    /**
+     * Dépose un commentaire témoin et attend que le fil d’écriture soit retenu sur son lot.
+     */
+    private void holdWriter() throws InterruptedException {
+        gate = new CountDownLatch(1);
+        blocked = new CountDownLatch(1);
+        Comment held = comment("held");
+        held.setArticleId(HELD_ARTICLE);
+        writeBehind.accept(held, () -> { });
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Base simulée : attend l’ouverture de {@link #gate}, puis attribue un identifiant à chaque commentaire,
+     * sauf si le lot contient un commentaire de {@link #failing}.
+     */
+    private int[] insert(BatchPreparedStatementSetter setter, KeyHolder keys) throws Exception {
+        blocked.countDown();
+        if (!gate.await(5, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("writer was held too long");
+        }
+        List<String> contents = new ArrayList<>();
+        PreparedStatement statement = mock(PreparedStatement.class);
+        doAnswer(invocation -> contents.add(invocation.getArgument(1))).when(statement).setString(eq(1), anyString());
+        for (int i = 0; i < setter.getBatchSize(); i++) {
+            setter.setValues(statement, i);
+        }
+        if (contents.stream().anyMatch(failing::contains)) {
+            if (contents.size() > 1) {
+                failedBatches.incrementAndGet();
+            }
+            throw new DataIntegrityViolationException("rejected by the test database");
+        }
+        contents.forEach(content -> keys.getKeyList().add(Map.of("id", nextId.getAndIncrement())));
+        return new int[contents.size()];
+    }
+
+    private void awaitNoPending() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!writeBehind.pendingOf(AUTHOR, ARTICLE).isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(List.of(), writeBehind.pendingOf(AUTHOR, ARTICLE));
+    }
+
+    private static Comment comment(String content) {
+        Comment comment = new Comment();
+        comment.setContent(content);
+        comment.setAuthorId(AUTHOR);
+        comment.setArticleId(ARTICLE);
+        comment.setCreatedAt(new Date());
+        return comment;
+    }
+}
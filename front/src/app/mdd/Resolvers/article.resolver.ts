@@ -1,11 +1,11 @@
 import { Injectable } from "@angular/core";
 import { ActivatedRouteSnapshot, Resolve, RouterStateSnapshot } from "@angular/router";
-import { Article } from "../models/article.model";
+import { ArticlePage } from "../models/article-page.model";
 import { ArticleService } from "../../shared/services/article.service";
 import { Observable } from "rxjs";
 
 /**
- * Resolver chargé de récupérer les articles suivis par l’utilisateur
+ * Resolver chargé de récupérer la première page des articles suivis par l’utilisateur
  * avant le chargement de la route.
  *
  * Ce resolver permet d’assurer que la liste des articles est disponible
@@ -22,7 +22,7 @@ import { Observable } from "rxjs";
 @Injectable({
   providedIn: 'root'
 })
-export class ArticleResolver implements Resolve<Article[]> {
+export class ArticleResolver implements Resolve<ArticlePage> {
 
   /**
    * @param articleService Service permettant de récupérer les articles suivis.
@@ -34,9 +34,9 @@ export class ArticleResolver implements Resolve<Article[]> {
    *
    * @param route Snapshot de la route active.
    * @param state État du routeur (non utilisé ici mais requis).
-   * @returns Observable contenant la liste des articles suivis.
+   * @returns Observable contenant la première page des articles suivis.
    */
-  resolve(route: ActivatedRouteSnapshot, state: RouterStateSnapshot): Observable<Article[]> {
+  resolve(route: ActivatedRouteSnapshot, state: RouterStateSnapshot): Observable<ArticlePage> {
     return this.articleService.getFollowedArticles();
   }
 }
@@ -1,6 +1,7 @@
 import { Component, Input, OnInit } from '@angular/core';
 import { Article } from "../../models/article.model";
 import { Comment } from "../../models/comment.model";
+import { CommentPage } from "../../models/comment-page.model";
 import { ArticleService } from "../../../shared/services/article.service";
 import { ActivatedRoute, Router } from "@angular/router";
 import { CommentService } from "../../../shared/services/comment.service";
@@ -13,7 +14,7 @@ import { UserService } from "../../../shared/services/user.service";
  *
  * Ce composant :
  * - charge l’article sélectionné ;
- * - récupère et trie les commentaires associés ;
+ * - récupère les commentaires associés, page par page, du plus ancien au plus récent ;
  * - permet d’ajouter un commentaire via un formulaire réactif ;
  * - redirige vers la page 404 en cas d’erreur de chargement.
  *
@@ -30,8 +31,17 @@ export class ArticleDetailsComponent implements OnInit {
   /** Article à afficher (chargé dynamiquement). */
   article!: Article;
 
-  /** Ensemble des commentaires liés à l’article. */
-  comments!: Comment[];
+  /** Commentaires de l’article chargés jusqu’ici. */
+  comments: Comment[] = [];
+
+  /** Nombre total de commentaires de l’article. */
+  totalComments = 0;
+
+  /** Curseur de la page de commentaires suivante, `null` lorsque tous sont chargés. */
+  nextCursor: string | null = null;
+
+  /** Indique qu’une page de commentaires est en cours de chargement. */
+  loadingComments = false;
 
   /**
    * Formulaire réactif utilisé pour publier un commentaire.
@@ -64,7 +74,7 @@ export class ArticleDetailsComponent implements OnInit {
    * Initialise le composant :
    * - récupère l’ID depuis l’URL ;
    * - charge l’article correspondant ;
-   * - charge et trie les commentaires (du plus récent au plus ancien).
+   * - charge la première page de commentaires.
    */
   ngOnInit(): void {
     const id = this.route.snapshot.params['id'];
@@ -80,24 +90,41 @@ export class ArticleDetailsComponent implements OnInit {
       },
     });
 
-    // Chargement des commentaires
-    this.commentService.getCommentsOfArticle(id).subscribe({
-      next: (response: any) => {
+    // Chargement de la première page de commentaires
+    this.loadComments(id);
+  }
 
-        if (Array.isArray(response.comments)) {
-          this.comments = response.comments.sort(
-            (a: any, b: any) =>
-              new Date(b.createdAt).getTime() - new Date(a.createdAt).getTime()
-          );
+  /**
+   * Charge la page de commentaires suivante et l’ajoute à la suite des commentaires affichés.
+   */
+  loadMoreComments(): void {
+    if (this.nextCursor && !this.loadingComments) {
+      this.loadComments(this.article.id, this.nextCursor);
+    }
+  }
+
+  /**
+   * Charge une page de commentaires de l’article.
+   *
+   * @param id Identifiant de l’article.
+   * @param after Curseur de la page à charger, absent pour la première page.
+   */
+  private loadComments(id: number, after?: string): void {
+    this.loadingComments = true;
+    this.commentService.getCommentsOfArticle(id, after).subscribe({
+      next: (page: CommentPage) => {
+        if (Array.isArray(page.comments)) {
+          this.comments = [...this.comments, ...page.comments];
         } else {
-          this.comments = [];
           console.warn('La réponse ne contient pas de commentaires valides.');
         }
-
-        console.log('Commentaires triés :', this.comments);
+        this.nextCursor = page.nextCursor;
+        this.totalComments = page.total;
+        this.loadingComments = false;
       },
       error: (error) => {
         console.error('Erreur lors du chargement des commentaires :', error);
+        this.loadingComments = false;
         this.router.navigate(['/404']);
       }
     });
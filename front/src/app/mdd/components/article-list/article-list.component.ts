@@ -3,12 +3,15 @@ import { ActivatedRoute, Router } from "@angular/router";
 import { map } from "rxjs/operators";
 import { Observable, BehaviorSubject } from "rxjs";
 import { Article } from "../../models/article.model";
+import { ArticlePage } from "../../models/article-page.model";
+import { ArticleService } from "../../../shared/services/article.service";
 
 /**
  * Composant affichant la liste des articles.
  *
  * Fonctionnalités :
- * - récupère les articles depuis les resolvers de route ;
+ * - récupère la première page des articles depuis les resolvers de route ;
+ * - charge les pages suivantes à la demande, à partir du curseur renvoyé par l’API ;
  * - dédoublonne les articles selon une clé unique ;
  * - applique un tri (ascendant ou descendant) basé sur la date de création ;
  * - expose la liste triée via un Observable (`articles$`) utilisé dans la vue ;
@@ -36,33 +39,71 @@ export class ArticleListComponent implements OnInit {
   /** Sens du tri : 'asc' = du plus ancien au plus récent, 'desc' = inverse. */
   sortOrder: 'asc' | 'desc' = 'desc';
 
+  /** Curseur de la page suivante, `null` lorsque tous les articles sont chargés. */
+  nextCursor: string | null = null;
+
+  /** Indique qu’une page suivante est en cours de chargement. */
+  loading = false;
+
   /**
    * @param route Permet de récupérer les données résolues sur la route.
    * @param router Permet d’effectuer des navigations programmatiques.
+   * @param articleService Service permettant de charger les pages suivantes.
    */
-  constructor(private route: ActivatedRoute, private router: Router) {}
+  constructor(private route: ActivatedRoute, private router: Router, private articleService: ArticleService) {}
 
   /**
    * Initialise le composant :
-   * - récupère les articles depuis le resolver ;
+   * - récupère la première page depuis le resolver ;
    * - dédoublonne les résultats ;
    * - applique un tri initial.
    */
   ngOnInit(): void {
     this.route.data
-      .pipe(map(d => (d['articles'] as { articles: Article[] }).articles))
-      .subscribe(articles => {
-        // 1) Dédoublonner par id / slug / fallback titre+date
-        this.allArticles = this.dedupe(
-          articles,
-          a => (a as any).id ?? (a as any).slug ?? `${a.title}|${a.createdAt}`
-        );
-
-        // 2) Trier et émettre la liste
-        this.applySort();
+      .pipe(map(d => d['articles'] as ArticlePage))
+      .subscribe(page => {
+        this.allArticles = [];
+        this.append(page);
       });
   }
 
+  /**
+   * Charge la page suivante du fil et l’ajoute aux articles affichés.
+   */
+  loadMore(): void {
+    if (!this.nextCursor || this.loading) {
+      return;
+    }
+    this.loading = true;
+    this.articleService.getFollowedArticles(this.nextCursor).subscribe({
+      next: page => {
+        this.append(page);
+        this.loading = false;
+      },
+      error: (error) => {
+        console.error('Error loading articles:', error);
+        this.loading = false;
+      }
+    });
+  }
+
+  /**
+   * Ajoute une page aux articles déjà chargés, puis trie et émet la liste.
+   *
+   * @param page Page renvoyée par l’API.
+   */
+  private append(page: ArticlePage): void {
+    // 1) Dédoublonner par id / slug / fallback titre+date
+    this.allArticles = this.dedupe(
+      [...this.allArticles, ...page.articles],
+      a => (a as any).id ?? (a as any).slug ?? `${a.title}|${a.createdAt}`
+    );
+    this.nextCursor = page.nextCursor;
+
+    // 2) Trier et émettre la liste
+    this.applySort();
+  }
+
   /**
    * Inverse l’ordre de tri et met à jour la liste affichée.
    */
@@ -0,0 +1,16 @@
+import { Article } from "./article.model";
+
+/**
+ * Page du fil d’actualité renvoyée par l’API.
+ *
+ * Le fil est paginé par curseur : `nextCursor` est à renvoyer dans le paramètre
+ * `after` pour obtenir la page suivante.
+ */
+export class ArticlePage {
+
+  /** Articles de la page, du plus récent au plus ancien (résumés, sans le contenu complet). */
+  articles!: Article[];
+
+  /** Curseur de la page suivante, `null` lorsque la dernière page est atteinte. */
+  nextCursor!: string | null;
+}
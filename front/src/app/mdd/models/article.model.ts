@@ -15,8 +15,11 @@ export class Article {
   /** Identifiant du thème associé à l’article. */
   themeId!: number;
 
-  /** Contenu principal de l’article. */
-  content!: string;
+  /** Contenu principal de l’article (absent des listes, renseigné à la consultation d’un article). */
+  content?: string;
+
+  /** Début du contenu, renvoyé à la place du contenu complet par les listes d’articles. */
+  excerpt?: string;
 
   /** Date de création de l’article (format ISO string). */
   createdAt!: string;
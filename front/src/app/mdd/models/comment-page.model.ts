@@ -0,0 +1,19 @@
+import { Comment } from "./comment.model";
+
+/**
+ * Page de commentaires renvoyée par l’API.
+ *
+ * Les commentaires sont paginés par curseur, du plus ancien au plus récent : `nextCursor`
+ * est à renvoyer dans le paramètre `after` pour obtenir la page suivante.
+ */
+export class CommentPage {
+
+  /** Commentaires de la page, du plus ancien au plus récent. */
+  comments!: Comment[];
+
+  /** Curseur de la page suivante, `null` lorsque la dernière page est atteinte. */
+  nextCursor!: string | null;
+
+  /** Nombre total de commentaires de l’article. */
+  total!: number;
+}
@@ -1,7 +1,8 @@
 import {Injectable} from "@angular/core";
 import {Article} from "../../mdd/models/article.model";
+import {ArticlePage} from "../../mdd/models/article-page.model";
 
-import {HttpClient} from "@angular/common/http";
+import {HttpClient, HttpParams} from "@angular/common/http";
 import {Observable} from "rxjs";
 import {environment} from "../../../environments/environment";
 
@@ -30,15 +31,17 @@ export class ArticleService {
   constructor(private httpClient: HttpClient) {}
 
   /**
-   * Récupère la liste des articles suivis par l'utilisateur connecté.
+   * Récupère une page des articles suivis par l'utilisateur connecté, du plus récent au plus ancien.
    *
    * Appelle l'endpoint :
-   * `GET /api/articles/followed`
+   * `GET /api/articles/followed?after=:after`
    *
-   * @returns Observable émettant un tableau d'articles suivis.
+   * @param after Curseur renvoyé par la page précédente, absent pour la première page.
+   * @returns Observable émettant la page d'articles et le curseur de la page suivante.
    */
-  getFollowedArticles(): Observable<Article[]> {
-    return this.httpClient.get<Article[]>(`${environment.apiUrl}/api/articles/followed`);
+  getFollowedArticles(after?: string): Observable<ArticlePage> {
+    const params = after ? new HttpParams().set('after', after) : undefined;
+    return this.httpClient.get<ArticlePage>(`${environment.apiUrl}/api/articles/followed`, { params });
   }
 
   /**
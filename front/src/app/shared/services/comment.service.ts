@@ -1,7 +1,8 @@
-import {HttpClient} from "@angular/common/http";
+import {HttpClient, HttpParams} from "@angular/common/http";
 import {Injectable} from "@angular/core";
 import {Observable} from "rxjs";
 import {environment} from "../../../environments/environment";
+import {CommentPage} from "../../mdd/models/comment-page.model";
 
 @Injectable()
 /**
@@ -28,16 +29,18 @@ export class CommentService {
   constructor(private http: HttpClient) { }
 
   /**
-   * Récupère la liste des commentaires d'un article donné.
+   * Récupère une page des commentaires d'un article donné, du plus ancien au plus récent.
    *
    * Endpoint appelé :
-   * `GET /api/comments/:id`
+   * `GET /api/comments/:id?after=:after`
    *
    * @param id Identifiant de l'article.
-   * @returns Observable émettant la liste des commentaires associés à l’article.
+   * @param after Curseur renvoyé par la page précédente, absent pour la première page.
+   * @returns Observable émettant la page de commentaires, le curseur de la page suivante et le total.
    */
-  getCommentsOfArticle(id: number): Observable<Comment[]> {
-    return this.http.get<Comment[]>(`${environment.apiUrl}/api/comments/` + id);
+  getCommentsOfArticle(id: number, after?: string): Observable<CommentPage> {
+    const params = after ? new HttpParams().set('after', after) : undefined;
+    return this.http.get<CommentPage>(`${environment.apiUrl}/api/comments/` + id, { params });
   }
 
   /**